@@ -1,6 +1,9 @@
 """
 Service for user authentication and authorization.
 """
+import base64
+import hashlib
+import hmac
 import jwt
 from datetime import datetime, timedelta
 from typing import Optional, Dict, Any
@@ -20,10 +23,24 @@ class AuthenticationService:
     def authenticate_user(self, username: str, password: str) -> Optional[User]:
         """Authenticate a user with username and password."""
         user = self.user_repository.find_by_username(username)
-        if user and user.password == password:
+        if user and self._password_matches(password, user.password):
             return user
         return None
     
+    @staticmethod
+    def _password_matches(password: str, stored: Optional[str]) -> bool:
+        """Check a password against a stored value: a PBKDF2 hash written by the manager app, or plaintext."""
+        if stored is None or password is None:
+            return False
+        if not stored.startswith('pbkdf2-sha256$'):
+            return hmac.compare_digest(password.encode('utf-8'), stored.encode('utf-8'))
+        try:
+            _, iterations, salt, expected = stored.split('$')
+            derived = hashlib.pbkdf2_hmac('sha256', password.encode('utf-8'), _b64decode(salt), int(iterations))
+            return hmac.compare_digest(derived, _b64decode(expected))
+        except ValueError:
+            return False
+    
     def get_user_by_id(self, user_id: int) -> Optional[User]:
         """Get user by ID."""
         return self.user_repository.find_by_id(user_id)
@@ -54,4 +71,9 @@ class AuthenticationService:
         payload = self.validate_jwt_token(token)
         if payload:
             return self.get_user_by_id(payload['user_id'])
-        return None
\ No newline at end of file
+        return None
+
+
+def _b64decode(value: str) -> bytes:
+    """Decode Base64 written without padding by the manager app."""
+    return base64.b64decode(value + '=' * (-len(value) % 4), validate=True)
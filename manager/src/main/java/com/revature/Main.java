@@ -1,19 +1,48 @@
 package com.revature;
 
+import com.revature.api.AccessLogMiddleware;
+import com.revature.api.AdminController;
+import com.revature.api.AdmissionControl;
 import com.revature.api.AuthenticationMiddleware;
+import com.revature.api.CostClass;
 import com.revature.api.ExpenseController;
+import com.revature.api.HealthController;
+import com.revature.api.IdempotencyStore;
+import com.revature.api.LifecycleManager;
+import com.revature.api.LoginRateLimiter;
+import com.revature.api.MetricsController;
+import com.revature.api.ReportBundleController;
 import com.revature.api.ReportController;
+import com.revature.api.ReportJobController;
+import com.revature.monitoring.AccessLog;
+import com.revature.monitoring.JvmMetrics;
+import com.revature.monitoring.MetricsRegistry;
+import com.revature.monitoring.StartupTimer;
 import com.revature.repository.DatabaseConnection;
+import com.revature.repository.DatabaseOverloadedException;
 import com.revature.repository.UserRepository;
 import com.revature.repository.ExpenseRepository;
+import com.revature.repository.QueryProfiler;
 import com.revature.repository.User;
+import com.revature.repository.UserDirectory;
 import com.revature.repository.ApprovalRepository;
 import com.revature.service.AuthenticationService;
 import com.revature.service.ExpenseService;
+import com.revature.service.JwtKeySet;
+import com.revature.service.PasswordHasher;
+import com.revature.service.PasswordHashingOverloadedException;
+import com.revature.service.ReportBundleService;
+import com.revature.service.ReportCache;
+import com.revature.service.ReportJobService;
+import com.revature.service.ReportType;
 
 import io.javalin.Javalin;
 import io.javalin.http.staticfiles.Location;
 
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Map;
 
 /**
@@ -24,22 +53,156 @@ public class Main {
     private static final int PORT = 5001;
     
     public static void main(String[] args) {
+        // Metrics are recorded from every layer into the default registry
+        MetricsRegistry metricsRegistry = MetricsRegistry.getDefault();
+        StartupTimer startupTimer = new StartupTimer(metricsRegistry);
+        
+        QueryProfiler queryProfiler = QueryProfiler.getDefault();
+        queryProfiler.setSlowQueryThreshold(Duration.ofMillis(Long.parseLong(envOrDefault("SLOW_QUERY_MS", "200"))));
+        
+        // Access log lines go to stdout from a background writer, never from the request thread
+        AccessLog accessLog = new AccessLog(
+            new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+            Integer.parseInt(envOrDefault("ACCESS_LOG_BUFFER", String.valueOf(AccessLog.DEFAULT_CAPACITY))),
+            Double.parseDouble(envOrDefault("ACCESS_LOG_SAMPLE_RATE", "1.0")),
+            metricsRegistry
+        );
+        
         // Initialize dependencies using constructor dependency injection
         DatabaseConnection databaseConnection = new DatabaseConnection();
         
         // Repository layer
         UserRepository userRepository = new UserRepository(databaseConnection);
+        // Serve authentication lookups from memory; the directory reloads when the data version changes
+        UserDirectory userDirectory = userRepository.enableDirectory(
+            Duration.ofMillis(Long.parseLong(envOrDefault("USER_DIRECTORY_POLL_MS",
+                String.valueOf(UserDirectory.DEFAULT_POLL_INTERVAL.toMillis())))),
+            metricsRegistry
+        );
         ExpenseRepository expenseRepository = new ExpenseRepository(databaseConnection);
         ApprovalRepository approvalRepository = new ApprovalRepository(databaseConnection);
         
         // Service layer
         AuthenticationService authenticationService = new AuthenticationService(userRepository);
+        // Tokens issued before a user's role or password changed stop working once the directory sees the change
+        userDirectory.addChangeListener(authenticationService::revokeUserTokens);
+        if (Boolean.parseBoolean(envOrDefault("AUTH_STATELESS", "false"))) {
+            authenticationService.enableStatelessValidation();
+        }
+        // Password hashing runs on its own bounded pool, calibrated to this machine
+        PasswordHasher passwordHasher = new PasswordHasher(
+            PasswordHasher.DEFAULT_ITERATIONS,
+            Integer.parseInt(envOrDefault("PASSWORD_HASH_THREADS",
+                String.valueOf(Math.max(1, Runtime.getRuntime().availableProcessors() / 2)))),
+            Integer.parseInt(envOrDefault("PASSWORD_HASH_QUEUE", String.valueOf(PasswordHasher.DEFAULT_QUEUE_CAPACITY))),
+            Duration.ofMillis(Long.parseLong(envOrDefault("PASSWORD_HASH_QUEUE_TIMEOUT_MS",
+                String.valueOf(PasswordHasher.DEFAULT_QUEUE_TIMEOUT.toMillis())))),
+            metricsRegistry
+        );
+        Duration hashTargetLatency = Duration.ofMillis(Long.parseLong(envOrDefault(
+            "PASSWORD_HASH_TARGET_MS", String.valueOf(PasswordHasher.DEFAULT_TARGET_LATENCY.toMillis()))));
+        authenticationService.enablePasswordHashing(passwordHasher);
+        // Upgrading a plaintext password to its hash is not a credential change, so it must not revoke tokens
+        userDirectory.setPasswordEquivalence(passwordHasher::isRehashOf);
+        // Signing keys from a directory, reloaded so keys can be rotated without a restart
+        JwtKeySet jwtKeySet = authenticationService.getKeySet();
+        String jwtKeysDir = System.getenv("JWT_KEYS_DIR");
+        if (jwtKeysDir != null && !jwtKeysDir.isEmpty()) {
+            try {
+                int loaded = jwtKeySet.loadDirectory(Path.of(jwtKeysDir));
+                System.out.println("Loaded " + loaded + " JWT keys, signing with " + jwtKeySet.getSigningKey().getKeyId());
+            } catch (java.io.IOException | java.security.GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot load JWT keys from " + jwtKeysDir, e);
+            }
+            jwtKeySet.startReloading(Path.of(jwtKeysDir), Duration.ofSeconds(Long.parseLong(envOrDefault(
+                "JWT_KEYS_RELOAD_SECONDS", String.valueOf(JwtKeySet.DEFAULT_RELOAD_INTERVAL.toSeconds())))));
+        }
+        // Turn off once every token signed with the built-in secret has expired
+        if (!Boolean.parseBoolean(envOrDefault("JWT_ACCEPT_LEGACY_KEY", "true"))
+                && !jwtKeySet.removeKey(JwtKeySet.LEGACY_KEY_ID)) {
+            System.out.println("JWT_ACCEPT_LEGACY_KEY=false ignored: the legacy key is still the signing key");
+        }
         ExpenseService expenseService = new ExpenseService(expenseRepository, approvalRepository);
+        ReportJobService reportJobService = new ReportJobService(
+            expenseService,
+            Path.of(envOrDefault("REPORT_SPOOL_DIR", System.getProperty("java.io.tmpdir") + "/expense-reports")),
+            Integer.parseInt(envOrDefault("REPORT_WORKERS", "2")),
+            Integer.parseInt(envOrDefault("REPORT_QUEUE_CAPACITY", "16")),
+            Duration.ofMinutes(Long.parseLong(envOrDefault("REPORT_TTL_MINUTES", "30")))
+        );
+        ReportCache reportCache = new ReportCache(
+            Path.of(envOrDefault("REPORT_CACHE_DIR", System.getProperty("java.io.tmpdir") + "/expense-report-cache")),
+            Long.parseLong(envOrDefault("REPORT_CACHE_MAX_MB", "256")) * 1024 * 1024,
+            Long.parseLong(envOrDefault("REPORT_CACHE_MEMORY_MB", "16")) * 1024 * 1024,
+            256 * 1024,
+            databaseConnection::getDataVersion
+        );
+        ReportBundleService reportBundleService = new ReportBundleService(
+            expenseService,
+            reportCache,
+            Integer.parseInt(envOrDefault("REPORT_READ_THREADS", "4"))
+        );
         
         // API layer
         AuthenticationMiddleware authMiddleware = new AuthenticationMiddleware(authenticationService);
-        ExpenseController expenseController = new ExpenseController(expenseService);
-        ReportController reportController = new ReportController(expenseService);
+        // Responses of approve/deny requests carrying an Idempotency-Key, replayed when a client retries
+        IdempotencyStore idempotencyStore = new IdempotencyStore(
+            Integer.parseInt(envOrDefault("IDEMPOTENCY_CAPACITY", String.valueOf(IdempotencyStore.DEFAULT_CAPACITY))),
+            Duration.ofMinutes(Long.parseLong(envOrDefault("IDEMPOTENCY_TTL_MINUTES",
+                String.valueOf(IdempotencyStore.DEFAULT_TTL.toMinutes())))),
+            metricsRegistry
+        );
+        ExpenseController expenseController = new ExpenseController(expenseService, idempotencyStore);
+        ReportController reportController = new ReportController(expenseService, reportCache);
+        ReportJobController reportJobController = new ReportJobController(reportJobService);
+        ReportBundleController reportBundleController = new ReportBundleController(reportBundleService);
+        MetricsController metricsController = new MetricsController(metricsRegistry);
+        AccessLogMiddleware accessLogMiddleware = new AccessLogMiddleware(accessLog);
+        
+        // Per-cost-class concurrency limits, so report exports cannot starve logins and approvals
+        AdmissionControl admissionControl = new AdmissionControl(metricsRegistry);
+        for (CostClass costClass : CostClass.values()) {
+            admissionControl.configure(costClass,
+                Integer.parseInt(envOrDefault("ADMISSION_" + costClass.name() + "_LIMIT",
+                    String.valueOf(costClass.getDefaultConcurrency()))),
+                Integer.parseInt(envOrDefault("ADMISSION_" + costClass.name() + "_QUEUE",
+                    String.valueOf(costClass.getDefaultQueueCapacity()))));
+        }
+        AdminController adminController = new AdminController(queryProfiler);
+        // Login attempts per client IP and per username, checked before the user is looked up
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(
+            Integer.parseInt(envOrDefault("LOGIN_RATE_IP_PER_MINUTE",
+                String.valueOf(LoginRateLimiter.DEFAULT_IP_ATTEMPTS_PER_MINUTE))),
+            Integer.parseInt(envOrDefault("LOGIN_RATE_USERNAME_PER_MINUTE",
+                String.valueOf(LoginRateLimiter.DEFAULT_USERNAME_ATTEMPTS_PER_MINUTE))),
+            Integer.parseInt(envOrDefault("LOGIN_RATE_MAX_KEYS", String.valueOf(LoginRateLimiter.DEFAULT_MAX_KEYS))),
+            System::nanoTime,
+            metricsRegistry
+        );
+        // Readiness: the database is reachable and the user directory is loaded and current. Overload is left to
+        // the per-class 503 responses, so a burst of one kind of request does not take the instance out of rotation
+        HealthController healthController = new HealthController(startupTimer, metricsRegistry);
+        healthController.addCheck("database", Duration.ofMillis(Long.parseLong(envOrDefault("HEALTH_DB_PROBE_MS",
+            String.valueOf(HealthController.DEFAULT_DATABASE_PROBE_INTERVAL.toMillis())))),
+            databaseConnection::checkReachable);
+        Duration maxDirectoryStaleness = Duration.ofSeconds(Long.parseLong(envOrDefault(
+            "HEALTH_MAX_DIRECTORY_STALENESS_SECONDS", "30")));
+        healthController.addCheck("user_directory", Duration.ZERO, () -> {
+            if (!userDirectory.isLoaded()) {
+                throw new IllegalStateException("Users have not been loaded");
+            }
+            if (userDirectory.getStaleness().compareTo(maxDirectoryStaleness) > 0) {
+                throw new IllegalStateException("Users last verified " + userDirectory.getStaleness().toSeconds() + "s ago");
+            }
+        });
+        // Graceful shutdown on SIGTERM: fail readiness and turn new requests away, drain, then close
+        LifecycleManager lifecycleManager = new LifecycleManager(Duration.ofSeconds(Long.parseLong(envOrDefault(
+            "SHUTDOWN_DEADLINE_SECONDS", String.valueOf(LifecycleManager.DEFAULT_SHUTDOWN_DEADLINE.toSeconds())))));
+        healthController.addCheck("lifecycle", Duration.ZERO, () -> {
+            if (lifecycleManager.isShuttingDown()) {
+                throw new IllegalStateException("Shutting down");
+            }
+        });
 
         // Configure and start Javalin application
         Javalin app = Javalin.create(config -> {
@@ -60,9 +223,6 @@ public class Main {
 //                staticFiles.location = Location.CLASSPATH;
 //                staticFiles.precompress = false;
 //            });
-            
-            // Enable request logging
-            config.bundledPlugins.enableDevLogging();
         });
         
         // Global exception handling
@@ -75,6 +235,34 @@ public class Main {
             ));
         });
         
+        // The adaptive database limiter refused the statement: shed the request instead of queueing on locks
+        app.exception(DatabaseOverloadedException.class, (e, ctx) -> {
+            ctx.header("Retry-After", "1");
+            ctx.status(503);
+            ctx.json(Map.of(
+                "success", false,
+                "error", "Database is busy, please retry later"
+            ));
+        });
+        
+        // The password hashing pool is saturated: shed the login instead of queueing it further
+        app.exception(PasswordHashingOverloadedException.class, (e, ctx) -> {
+            ctx.header("Retry-After", "1");
+            ctx.status(503);
+            ctx.json(Map.of(
+                "success", false,
+                "error", "Too many logins in progress, please retry later"
+            ));
+        });
+        
+        // Request latency metrics for every route
+        app.before(metricsController::startTimer);
+        app.after(metricsController::recordRequest);
+        
+        // Structured access log for every route
+        app.before(accessLogMiddleware::startTimer);
+        app.after(accessLogMiddleware::logRequest);
+        
         // Root redirect to manager dashboard
 //        app.get("/", ctx -> ctx.redirect("/manager.html"));
 
@@ -130,7 +318,7 @@ public class Main {
         });
         
         // Authentication status endpoint (no auth required)
-        app.get("/api/auth/status", ctx -> {
+        app.get("/api/auth/status", admissionControl.admit(CostClass.AUTH, ctx -> {
             String jwtToken = ctx.cookie("jwt");
             
             java.util.Optional<com.revature.repository.User> managerOpt = authenticationService.validateManagerAuthentication(jwtToken);
@@ -148,15 +336,14 @@ public class Main {
             } else {
                 ctx.json(java.util.Map.of("authenticated", false));
             }
-        });
+        }));
         
         // Manager login endpoint (no auth required)
-        app.post("/api/auth/login", ctx -> {
+        app.post("/api/auth/login", admissionControl.admit(CostClass.AUTH, ctx -> {
             try {
                 // Parse login request
                 // @SuppressWarnings("unchecked")
                 User loginData = ctx.bodyAsClass(User.class);
-                System.out.println("Login attempt for user: " + loginData.getUsername());
                 String username = loginData.getUsername();
                 String password = loginData.getPassword();
 
@@ -168,13 +355,24 @@ public class Main {
                     ));
                     return;
                 }
+                ctx.attribute(AccessLogMiddleware.USER_ATTRIBUTE, username);
+                
+                // Throttle credential guessing before it costs a lookup or a password hash
+                Duration retryAfter = loginRateLimiter.tryAcquire(ctx.ip(), username);
+                if (!retryAfter.isZero()) {
+                    ctx.header("Retry-After", String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000)));
+                    ctx.status(429);
+                    ctx.json(Map.of(
+                        "success", false,
+                        "error", "Too many login attempts, please retry later"
+                    ));
+                    return;
+                }
                 
                 // Authenticate manager
-                System.out.println("Attempting authentication for user: " + username);
                 java.util.Optional<com.revature.repository.User> managerOpt = authenticationService.authenticateManager(username, password);
                 
                 if (managerOpt.isPresent()) {
-                    System.out.println("Authentication successful for user: " + username);
                     com.revature.repository.User manager = managerOpt.get();
                     
                     // Create JWT token
@@ -200,6 +398,8 @@ public class Main {
                         "error", "Invalid credentials or user is not a manager"
                     ));
                 }
+            } catch (DatabaseOverloadedException | PasswordHashingOverloadedException e) {
+                throw e;
             } catch (Exception e) {
                 ctx.status(400);
                 ctx.json(Map.of(
@@ -207,51 +407,116 @@ public class Main {
                     "error", "Invalid request format"
                 ));
             }
-        });
+        }));
         
         // Manager logout endpoint (no auth required)
-        app.post("/api/auth/logout", ctx -> {
-            // Clear the JWT cookie
+        app.post("/api/auth/logout", admissionControl.admit(CostClass.AUTH, ctx -> {
+            // Revoke the token so a copy of it cannot be used after logout, then clear the JWT cookie
+            authenticationService.revokeToken(ctx.cookie("jwt"));
             ctx.removeCookie("jwt");
             ctx.json(Map.of(
                 "success", true,
                 "message", "Logged out successfully"
             ));
-        });
+        }));
         
         // Protected routes - require manager authentication
         app.before("/api/expenses/*", authMiddleware.validateManager());
         app.before("/api/reports/*", authMiddleware.validateManager());
+        app.before("/api/admin/*", authMiddleware.validateManager());
         
         // Expense management endpoints
-        app.get("/api/expenses", expenseController::getAllExpenses);
-        app.get("/api/expenses/pending", expenseController::getPendingExpenses);
-        app.get("/api/expenses/employee/{employeeId}", expenseController::getExpensesByEmployee);
-        app.post("/api/expenses/{expenseId}/approve", expenseController::approveExpense);
-        app.post("/api/expenses/{expenseId}/deny", expenseController::denyExpense);
+        app.get("/api/expenses", admissionControl.admit(CostClass.LISTING, expenseController::getAllExpenses));
+        app.get("/api/expenses/pending", admissionControl.admit(CostClass.LISTING, expenseController::getPendingExpenses));
+        app.get("/api/expenses/employee/{employeeId}", admissionControl.admit(CostClass.LISTING, expenseController::getExpensesByEmployee));
+        app.post("/api/expenses/{expenseId}/approve", admissionControl.admit(CostClass.WRITE, expenseController::approveExpense));
+        app.post("/api/expenses/{expenseId}/deny", admissionControl.admit(CostClass.WRITE, expenseController::denyExpense));
         
         // Report generation endpoints
-        app.get("/api/reports/expenses/csv", reportController::generateAllExpensesReport);
-        app.get("/api/reports/expenses/pending/csv", reportController::generatePendingExpensesReport);
-        app.get("/api/reports/expenses/employee/{employeeId}/csv", reportController::generateEmployeeExpensesReport);
-        app.get("/api/reports/expenses/category/{category}/csv", reportController::generateCategoryExpensesReport);
-        app.get("/api/reports/expenses/daterange/csv", reportController::generateDateRangeExpensesReport);
+        app.get("/api/reports/expenses/csv", admissionControl.admit(CostClass.REPORT, reportController::generateAllExpensesReport));
+        app.get("/api/reports/expenses/pending/csv", admissionControl.admit(CostClass.REPORT, reportController::generatePendingExpensesReport));
+        app.get("/api/reports/expenses/employee/{employeeId}/csv", admissionControl.admit(CostClass.REPORT, reportController::generateEmployeeExpensesReport));
+        app.get("/api/reports/expenses/category/{category}/csv", admissionControl.admit(CostClass.REPORT, reportController::generateCategoryExpensesReport));
+        app.get("/api/reports/expenses/daterange/csv", admissionControl.admit(CostClass.REPORT, reportController::generateDateRangeExpensesReport));
+        
+        // Columnar (Apache Arrow IPC stream) report endpoints
+        app.get("/api/reports/expenses/arrow", admissionControl.admit(CostClass.REPORT, reportController.arrowReport(ReportType.ALL)));
+        app.get("/api/reports/expenses/pending/arrow", admissionControl.admit(CostClass.REPORT, reportController.arrowReport(ReportType.PENDING)));
+        app.get("/api/reports/expenses/employee/{employeeId}/arrow", admissionControl.admit(CostClass.REPORT, reportController.arrowReport(ReportType.EMPLOYEE)));
+        app.get("/api/reports/expenses/category/{category}/arrow", admissionControl.admit(CostClass.REPORT, reportController.arrowReport(ReportType.CATEGORY)));
+        app.get("/api/reports/expenses/daterange/arrow", admissionControl.admit(CostClass.REPORT, reportController.arrowReport(ReportType.DATE_RANGE)));
+        
+        // Spreadsheet (XLSX) report endpoints
+        app.get("/api/reports/expenses/xlsx", admissionControl.admit(CostClass.REPORT, reportController.xlsxReport(ReportType.ALL)));
+        app.get("/api/reports/expenses/pending/xlsx", admissionControl.admit(CostClass.REPORT, reportController.xlsxReport(ReportType.PENDING)));
+        app.get("/api/reports/expenses/employee/{employeeId}/xlsx", admissionControl.admit(CostClass.REPORT, reportController.xlsxReport(ReportType.EMPLOYEE)));
+        app.get("/api/reports/expenses/category/{category}/xlsx", admissionControl.admit(CostClass.REPORT, reportController.xlsxReport(ReportType.CATEGORY)));
+        app.get("/api/reports/expenses/daterange/xlsx", admissionControl.admit(CostClass.REPORT, reportController.xlsxReport(ReportType.DATE_RANGE)));
+        
+        // Multi-report ZIP bundle endpoint
+        app.get("/api/reports/bundle", admissionControl.admit(CostClass.REPORT, reportBundleController::downloadReportBundle));
+        
+        // Asynchronous report job endpoints
+        app.post("/api/reports/jobs", admissionControl.admit(CostClass.LISTING, reportJobController::submitReportJob));
+        app.get("/api/reports/jobs/{jobId}", admissionControl.admit(CostClass.LISTING, reportJobController::getReportJobStatus));
+        app.get("/api/reports/jobs/{jobId}/download", admissionControl.admit(CostClass.REPORT, reportJobController::downloadReportJob));
+        
+        // Operational endpoints
+        app.get("/api/admin/queries", admissionControl.admit(CostClass.LISTING, adminController::getQueryStatistics));
         
         // Root route - serve manager dashboard
         
-        // Health check endpoint
-        app.get("/health", ctx -> ctx.json(java.util.Map.of(
-            "status", "healthy",
-            "service", "expense-manager-api",
-            "version", "1.0.0"
-        )));
+        // Health check endpoints: liveness for restarts, readiness for routing; /health is readiness
+        app.get("/health/live", healthController::live);
+        app.get("/health/ready", healthController::ready);
+        app.get("/health", healthController::ready);
+        
+        // Public JWT verification keys, for services that verify our tokens (HMAC keys are never published)
+        app.get("/.well-known/jwks.json", ctx -> ctx.json(Map.of("keys", jwtKeySet.getPublicJwks())));
+        
+        // Prometheus scrape endpoint
+        app.get("/metrics", metricsController::scrape);
+        
+        // Approval writes and report streams run inside admitted requests, so draining requests drains them too
+        lifecycleManager.onStopAccepting(admissionControl::stopAdmitting);
+        lifecycleManager.addDrainTask("in-flight requests", admissionControl::awaitIdle);
+        lifecycleManager.addDrainTask("report jobs", reportJobService::drain);
+        lifecycleManager.addResource("web server", app::stop);
+        lifecycleManager.addResource("report bundle readers", reportBundleService::shutdown);
+        lifecycleManager.addResource("password hashing", passwordHasher);
+        lifecycleManager.addResource("user directory", userDirectory);
+        lifecycleManager.addResource("JWT key reloader", jwtKeySet);
+        lifecycleManager.addResource("database", databaseConnection::close);
+        // Last, so shutdown requests are logged too
+        lifecycleManager.addResource("access log", accessLog::close);
+        lifecycleManager.registerShutdownHook();
         
         // Start the server
         app.start(PORT);
+        startupTimer.markServerStarted();
+        
+        // Work nothing needs before the first request runs after the server is up, off the startup path
+        Thread deferredInit = new Thread(() -> {
+            // JVM gauges load the JMX platform beans, which only a metrics scrape needs
+            JvmMetrics.register(metricsRegistry);
+            // Hashes made before calibration finishes use the default iterations, which verify the same way
+            int hashIterations = passwordHasher.calibrate(hashTargetLatency);
+            System.out.println("Password hashing calibrated to " + hashIterations + " PBKDF2 iterations");
+        }, "deferred-init");
+        deferredInit.setDaemon(true);
+        deferredInit.start();
+        
+        // Startup build profile: exercise the server for the AppCDS archive or the startup report, then exit
+        if (StartupTraining.isRequested(args)) {
+            StartupTraining.run(args, PORT);
+            // The shutdown hook stops the server
+            System.exit(0);
+        }
         
         System.out.println("   Expense Manager API (Manager App) started successfully!");
         System.out.println("   Server running on: http://localhost:" + PORT);
-        System.out.println("   Health check: http://localhost:" + PORT + "/health");
+        System.out.println("   Health check: http://localhost:" + PORT + "/health/ready (liveness: /health/live)");
+        System.out.println("   Metrics: http://localhost:" + PORT + "/metrics");
         System.out.println("   API Documentation:");
         System.out.println("   Authentication Status: GET /api/auth/status");
         System.out.println("   Pending Expenses: GET /api/expenses/pending");
@@ -261,5 +526,12 @@ public class Main {
         System.out.println("   Deny Expense: POST /api/expenses/{expenseId}/deny");
         System.out.println("   CSV Reports: GET /api/reports/expenses/csv");
         System.out.println("   More reports available at /api/reports/expenses/...");
+        System.out.println("   Async Report Jobs: POST /api/reports/jobs");
+        System.out.println("   Report Bundle (ZIP): GET /api/reports/bundle?reports=all,pending");
+    }
+    
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isBlank() ? value : defaultValue;
     }
 }
\ No newline at end of file
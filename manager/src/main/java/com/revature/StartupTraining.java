@@ -0,0 +1,108 @@
+package com.revature;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Drives a started server through its main request paths, for the startup build profile.
+ * <p>
+ * In a training run ({@code --cds-training}) the JVM is started with {@code -XX:ArchiveClassesAtExit}, so every
+ * class loaded while serving these requests (Javalin, Jetty, Jackson, JWT, SQLite, report writers) is stored in
+ * the AppCDS archive that later starts load from. In a startup report run ({@code --startup-report}) only the
+ * health check is requested, so the logged time to first healthy response measures startup with the archive.
+ * Either way the process exits afterwards; the archive is written at exit.
+ */
+final class StartupTraining {
+    static final String TRAINING_ARG = "--cds-training";
+    static final String REPORT_ARG = "--startup-report";
+    
+    private static final List<String> TRAINING_PATHS = List.of(
+        "/api/auth/status",
+        "/api/expenses",
+        "/api/expenses/pending",
+        "/api/expenses/employee/1",
+        "/api/reports/expenses/csv",
+        "/api/reports/expenses/pending/csv",
+        "/api/reports/expenses/xlsx",
+        "/api/reports/expenses/arrow",
+        "/api/reports/bundle?reports=all,pending",
+        "/api/admin/queries",
+        "/.well-known/jwks.json",
+        "/metrics",
+        "/"
+    );
+    
+    private final HttpClient client;
+    private final String baseUrl;
+    
+    private StartupTraining(int port) {
+        this.client = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.baseUrl = "http://localhost:" + port;
+    }
+    
+    /**
+     * Check whether the process was started for the startup profile.
+     * @param args the command line arguments
+     * @return true if a training or startup report run was requested
+     */
+    static boolean isRequested(String[] args) {
+        return List.of(args).contains(TRAINING_ARG) || List.of(args).contains(REPORT_ARG);
+    }
+    
+    /**
+     * Send the requests for the run given on the command line. Failed requests are logged and skipped:
+     * a partial workload still produces a usable archive.
+     * @param args the command line arguments
+     * @param port the port the server is listening on
+     */
+    static void run(String[] args, int port) {
+        StartupTraining training = new StartupTraining(port);
+        training.get("/health");
+        if (!List.of(args).contains(TRAINING_ARG)) {
+            return;
+        }
+        
+        // A failed login first, so the rejection path is trained too
+        training.post("/api/auth/login", "{\"username\":\"cds-training\",\"password\":\"invalid\"}");
+        String username = System.getenv().getOrDefault("CDS_TRAINING_USERNAME", "manager1");
+        String password = System.getenv().getOrDefault("CDS_TRAINING_PASSWORD", "password123");
+        training.post("/api/auth/login", "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}");
+        for (String path : TRAINING_PATHS) {
+            training.get(path);
+        }
+        training.post("/api/auth/logout", "");
+    }
+    
+    private void get(String path) {
+        send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+    
+    private void post(String path, String json) {
+        send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json)));
+    }
+    
+    private void send(HttpRequest.Builder request) {
+        HttpRequest built = request.timeout(Duration.ofSeconds(30)).build();
+        try {
+            HttpResponse<Void> response = client.send(built, HttpResponse.BodyHandlers.discarding());
+            System.out.println("Startup training: " + built.method() + " " + built.uri().getPath()
+                + " -> " + response.statusCode());
+        } catch (IOException e) {
+            System.out.println("Startup training: " + built.method() + " " + built.uri().getPath()
+                + " failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.revature.api;
+
+import com.revature.monitoring.AccessLog;
+import com.revature.monitoring.AccessLogRecord;
+import com.revature.repository.User;
+import io.javalin.http.Context;
+
+/**
+ * Feeds every request into the access log.
+ * Only the request line, route, status, timing, client address and user are captured; bodies never are.
+ */
+public class AccessLogMiddleware {
+    private static final String START_ATTRIBUTE = "accessLogStartNanos";
+    
+    /**
+     * Context attribute naming the user a request acted for when no manager session is attached, such as a login.
+     */
+    public static final String USER_ATTRIBUTE = "accessLogUser";
+    
+    private final AccessLog accessLog;
+    
+    public AccessLogMiddleware(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+    
+    /**
+     * Before-handler for all paths: remember when the request started.
+     */
+    public void startTimer(Context ctx) {
+        ctx.attribute(START_ATTRIBUTE, System.nanoTime());
+    }
+    
+    /**
+     * After-handler for all paths: hand the request to the access log.
+     */
+    public void logRequest(Context ctx) {
+        Long start = ctx.attribute(START_ATTRIBUTE);
+        long durationMicros = start == null ? 0 : (System.nanoTime() - start) / 1000;
+        accessLog.log(new AccessLogRecord(
+                System.currentTimeMillis(),
+                ctx.method().name(),
+                ctx.path(),
+                routeOf(ctx),
+                ctx.statusCode(),
+                durationMicros,
+                ctx.ip(),
+                userOf(ctx)));
+    }
+    
+    private static String userOf(Context ctx) {
+        User manager = AuthenticationMiddleware.getAuthenticatedManager(ctx);
+        if (manager != null) {
+            return manager.getUsername();
+        }
+        return ctx.attribute(USER_ATTRIBUTE);
+    }
+    
+    private static String routeOf(Context ctx) {
+        try {
+            String route = ctx.endpointHandlerPath();
+            return route == null || route.isEmpty() || "*".equals(route) ? null : route;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.revature.api;
+
+import com.revature.repository.QueryProfiler;
+import com.revature.repository.QueryStats;
+import io.javalin.http.Context;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for operational endpoints available to managers.
+ */
+public class AdminController {
+    private final QueryProfiler queryProfiler;
+    
+    public AdminController(QueryProfiler queryProfiler) {
+        this.queryProfiler = queryProfiler;
+    }
+    
+    /**
+     * Summarize repository statement timings, most expensive in total first, plus recent slow queries.
+     * GET /api/admin/queries
+     */
+    public void getQueryStatistics(Context ctx) {
+        List<Map<String, Object>> statements = new ArrayList<>();
+        for (QueryStats stats : queryProfiler.getStatistics()) {
+            Map<String, Object> statement = new HashMap<>();
+            statement.put("sqlId", stats.getSqlId());
+            statement.put("sql", stats.getSql().strip());
+            statement.put("calls", stats.getCalls());
+            statement.put("slowCalls", stats.getSlowCalls());
+            statement.put("rows", stats.getRows());
+            statement.put("totalMs", stats.getTotalMillis());
+            statement.put("avgMs", stats.getAverageMillis());
+            statement.put("maxMs", stats.getMaxMillis());
+            statement.put("avgExecuteMs", stats.getAverageExecuteMillis());
+            statement.put("avgFetchMs", stats.getAverageFetchMillis());
+            statement.put("avgRowHandlingMs", stats.getAverageConsumerMillis());
+            statement.put("avgFirstRowMs", stats.getAverageFirstRowMillis());
+            if (stats.getQueryPlan() != null) {
+                statement.put("queryPlan", stats.getQueryPlan());
+            }
+            statements.add(statement);
+        }
+        
+        List<Map<String, Object>> slowQueries = new ArrayList<>();
+        for (QueryProfiler.SlowQuery slowQuery : queryProfiler.getRecentSlowQueries()) {
+            slowQueries.add(Map.of(
+                "sqlId", slowQuery.getSqlId(),
+                "elapsedMs", slowQuery.getElapsedMillis(),
+                "rows", slowQuery.getRows(),
+                "occurredAt", slowQuery.getOccurredAt().toString()
+            ));
+        }
+        
+        ctx.json(Map.of(
+            "success", true,
+            "data", Map.of(
+                "slowQueryThresholdMs", queryProfiler.getSlowQueryThreshold().toMillis(),
+                "statements", statements,
+                "recentSlowQueries", slowQueries
+            )
+        ));
+    }
+}
@@ -0,0 +1,177 @@
+package com.revature.api;
+
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.Gauge;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+import io.javalin.http.Handler;
+import io.javalin.http.ServiceUnavailableResponse;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for API routes.
+ * Each cost class runs at most its concurrency limit of requests at once; further requests wait in a bounded
+ * FIFO queue, and once the queue is full or the wait runs out they are rejected with 503 and Retry-After.
+ */
+public class AdmissionControl {
+    private static final long IDLE_POLL_MILLIS = 20;
+    
+    private final Map<CostClass, Bulkhead> bulkheads = new EnumMap<>(CostClass.class);
+    private final MetricFamily<Counter> requests;
+    private volatile boolean admitting = true;
+    
+    /**
+     * Create admission control with every cost class at its default limits.
+     * @param metricsRegistry registry for the admission counters and gauges
+     */
+    public AdmissionControl(MetricsRegistry metricsRegistry) {
+        this.requests = metricsRegistry.counter("admission_requests_total",
+                "Requests by cost class and admission outcome", "class", "outcome");
+        MetricFamily<Gauge> inFlight = metricsRegistry.gauge("admission_in_flight",
+                "Requests currently admitted, by cost class", "class");
+        MetricFamily<Gauge> queued = metricsRegistry.gauge("admission_queued",
+                "Requests waiting for admission, by cost class", "class");
+        for (CostClass costClass : CostClass.values()) {
+            bulkheads.put(costClass, new Bulkhead(costClass,
+                    costClass.getDefaultConcurrency(), costClass.getDefaultQueueCapacity()));
+            String label = costClass.name().toLowerCase();
+            inFlight.labels(label).set(() -> bulkheads.get(costClass).inFlight());
+            queued.labels(label).set(() -> bulkheads.get(costClass).waiting.get());
+        }
+    }
+    
+    /**
+     * Change the limits of a cost class. Call before routes receive traffic.
+     * @param costClass the cost class
+     * @param concurrency the number of requests run at once
+     * @param queueCapacity the number of requests allowed to wait for a slot
+     */
+    public void configure(CostClass costClass, int concurrency, int queueCapacity) {
+        if (concurrency < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Invalid limits for " + costClass + ": " + concurrency + "/" + queueCapacity);
+        }
+        bulkheads.put(costClass, new Bulkhead(costClass, concurrency, queueCapacity));
+    }
+    
+    /**
+     * Wrap a handler so it only runs once its cost class admits the request.
+     * @param costClass the cost class of the route
+     * @param handler the route handler
+     * @return Javalin Handler enforcing the class limits
+     */
+    public Handler admit(CostClass costClass, Handler handler) {
+        return ctx -> {
+            Bulkhead bulkhead = bulkheads.get(costClass);
+            if (!admitting) {
+                // Close the connection so the client's retry opens one to another instance
+                ctx.header("Connection", "close");
+                ctx.header("Retry-After", String.valueOf(costClass.getRetryAfterSeconds()));
+                throw new ServiceUnavailableResponse("Server is shutting down, please retry");
+            }
+            if (!bulkhead.acquire()) {
+                ctx.header("Retry-After", String.valueOf(costClass.getRetryAfterSeconds()));
+                throw new ServiceUnavailableResponse("Server is busy, please retry later");
+            }
+            try {
+                handler.handle(ctx);
+            } finally {
+                bulkhead.release();
+            }
+        };
+    }
+    
+    /**
+     * Turn away every new request with 503, for shutdown. Requests already admitted or queued still run.
+     */
+    public void stopAdmitting() {
+        admitting = false;
+    }
+    
+    /**
+     * Wait until no request is running or queued in any cost class.
+     * @param timeout the longest time to wait
+     * @return true if idle, false if the timeout passed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            int busy = 0;
+            for (Bulkhead bulkhead : bulkheads.values()) {
+                busy += bulkhead.inFlight() + bulkhead.waiting.get();
+            }
+            if (busy == 0) {
+                return true;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            Thread.sleep(IDLE_POLL_MILLIS);
+        }
+    }
+    
+    /**
+     * Concurrency limit and wait queue for one cost class.
+     */
+    private final class Bulkhead {
+        private final CostClass costClass;
+        private final int concurrency;
+        private final int queueCapacity;
+        // Fair, so queued requests are admitted in arrival order
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Counter admitted;
+        private final Counter queued;
+        private final Counter rejected;
+        private final Counter timedOut;
+        
+        private Bulkhead(CostClass costClass, int concurrency, int queueCapacity) {
+            this.costClass = costClass;
+            this.concurrency = concurrency;
+            this.queueCapacity = queueCapacity;
+            this.permits = new Semaphore(concurrency, true);
+            String label = costClass.name().toLowerCase();
+            this.admitted = requests.labels(label, "admitted");
+            this.queued = requests.labels(label, "queued");
+            this.rejected = requests.labels(label, "rejected");
+            this.timedOut = requests.labels(label, "timed_out");
+        }
+        
+        boolean acquire() throws InterruptedException {
+            // A zero timeout honours fairness, unlike tryAcquire(), so newcomers cannot overtake the queue
+            if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                admitted.inc();
+                return true;
+            }
+            if (waiting.incrementAndGet() > queueCapacity) {
+                waiting.decrementAndGet();
+                rejected.inc();
+                return false;
+            }
+            try {
+                if (permits.tryAcquire(costClass.getMaxQueueWaitMillis(), TimeUnit.MILLISECONDS)) {
+                    queued.inc();
+                    return true;
+                }
+                timedOut.inc();
+                return false;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+        
+        void release() {
+            permits.release();
+        }
+        
+        int inFlight() {
+            return concurrency - permits.availablePermits();
+        }
+    }
+}
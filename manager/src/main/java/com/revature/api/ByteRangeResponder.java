@@ -0,0 +1,198 @@
+package com.revature.api;
+
+import com.revature.util.FileTransfer;
+import io.javalin.http.Context;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Sends materialized report files with HTTP range support.
+ * Handles Range, If-Range and If-None-Match so interrupted downloads can resume
+ * from the last received byte instead of regenerating the report.
+ * Only single byte ranges are served; multi-range requests receive the full file.
+ */
+public class ByteRangeResponder {
+    private static final DateTimeFormatter HTTP_DATE_FORMATTER = DateTimeFormatter.RFC_1123_DATE_TIME;
+    
+    /**
+     * Writes a slice of a materialized file to an output stream.
+     */
+    @FunctionalInterface
+    public interface RangeWriter {
+        void write(long offset, long length, OutputStream out) throws IOException;
+    }
+    
+    /**
+     * An inclusive byte range within a file.
+     */
+    public static final class ByteRange {
+        /** Marker for a syntactically valid range that lies outside the file. */
+        public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+        
+        private final long start;
+        private final long end;
+        
+        public ByteRange(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+        
+        public long getStart() {
+            return start;
+        }
+        
+        public long getEnd() {
+            return end;
+        }
+        
+        public long getLength() {
+            return end - start + 1;
+        }
+    }
+    
+    private ByteRangeResponder() {
+    }
+    
+    /**
+     * Send a file, honouring Range, If-Range and If-None-Match request headers.
+     * Content type and disposition headers should be set by the caller beforehand.
+     * @param ctx Javalin context
+     * @param size total size of the file in bytes
+     * @param etag strong entity tag of the file, quoted
+     * @param lastModified when the file was created
+     * @param writer writes the requested slice of the file
+     * @throws IOException if writing the response fails
+     */
+    public static void send(Context ctx, long size, String etag, Instant lastModified, RangeWriter writer) throws IOException {
+        ctx.header("Accept-Ranges", "bytes");
+        ctx.header("ETag", etag);
+        ctx.header("Last-Modified", formatHttpDate(lastModified));
+        
+        String ifNoneMatch = ctx.header("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(etag))) {
+            ctx.status(304);
+            return;
+        }
+        
+        ByteRange range = null;
+        String ifRange = ctx.header("If-Range");
+        if (ifRange == null || ifRangeMatches(ifRange, etag, lastModified)) {
+            range = parseRange(ctx.header("Range"), size);
+        }
+        
+        if (range == ByteRange.UNSATISFIABLE) {
+            ctx.status(416);
+            ctx.header("Content-Range", "bytes */" + size);
+            return;
+        }
+        
+        long offset = 0;
+        long length = size;
+        if (range != null) {
+            offset = range.getStart();
+            length = range.getLength();
+            ctx.status(206);
+            ctx.header("Content-Range", "bytes " + range.getStart() + "-" + range.getEnd() + "/" + size);
+        }
+        
+        ctx.res().setContentLengthLong(length);
+        // Write to the servlet stream directly so the exact file bytes are sent
+        writer.write(offset, length, ctx.res().getOutputStream());
+    }
+    
+    /**
+     * Send a file from disk, honouring Range, If-Range and If-None-Match request headers.
+     * @param ctx Javalin context
+     * @param path the file to send
+     * @param size total size of the file in bytes
+     * @param etag strong entity tag of the file, quoted
+     * @param lastModified when the file was created
+     * @throws IOException if reading the file or writing the response fails
+     */
+    public static void sendFile(Context ctx, Path path, long size, String etag, Instant lastModified) throws IOException {
+        send(ctx, size, etag, lastModified, (offset, length, out) -> FileTransfer.transfer(path, offset, length, out));
+    }
+    
+    /**
+     * Parse a Range header against a file of the given size.
+     * @param header the Range header value, may be null
+     * @param size total size of the file in bytes
+     * @return the requested range, ByteRange.UNSATISFIABLE if it lies outside the file,
+     *         or null if the whole file should be sent (no, malformed or multi-range header)
+     */
+    public static ByteRange parseRange(String header, long size) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (spec.contains(",") || dash < 0) {
+            return null;
+        }
+        
+        try {
+            String startPart = spec.substring(0, dash).trim();
+            String endPart = spec.substring(dash + 1).trim();
+            
+            if (startPart.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffixLength = Long.parseLong(endPart);
+                if (suffixLength <= 0 || size == 0) {
+                    return ByteRange.UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - suffixLength), size - 1);
+            }
+            
+            long start = Long.parseLong(startPart);
+            long end = endPart.isEmpty() ? size - 1 : Long.parseLong(endPart);
+            if (start >= size) {
+                return ByteRange.UNSATISFIABLE;
+            }
+            if (end < start) {
+                return null;
+            }
+            return new ByteRange(start, Math.min(end, size - 1));
+            
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Check whether an If-Range precondition still matches the file.
+     * @param ifRange the If-Range header value (an entity tag or an HTTP date)
+     * @param etag strong entity tag of the file, quoted
+     * @param lastModified when the file was created
+     * @return true if the Range header should be honoured
+     */
+    public static boolean ifRangeMatches(String ifRange, String etag, Instant lastModified) {
+        String value = ifRange.trim();
+        if (value.startsWith("W/")) {
+            // Weak validators never match for range requests
+            return false;
+        }
+        if (value.startsWith("\"")) {
+            return value.equals(etag);
+        }
+        
+        try {
+            Instant date = ZonedDateTime.parse(value, HTTP_DATE_FORMATTER).toInstant();
+            return date.equals(lastModified.truncatedTo(ChronoUnit.SECONDS));
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+    
+    private static String formatHttpDate(Instant instant) {
+        return HTTP_DATE_FORMATTER.format(instant.atZone(ZoneOffset.UTC));
+    }
+}
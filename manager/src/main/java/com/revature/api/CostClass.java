@@ -0,0 +1,53 @@
+package com.revature.api;
+
+/**
+ * Cost classes used for admission control.
+ * Each class gets its own concurrency limit and wait queue, so a burst of one kind of request
+ * cannot take the threads and database time another kind needs.
+ */
+public enum CostClass {
+    /** Login, logout and session checks */
+    AUTH(8, 64, 2000, 1),
+    /** Expense listings, job status and other short reads */
+    LISTING(8, 64, 2000, 1),
+    /** Report exports and downloads, which scan the whole join */
+    REPORT(2, 4, 5000, 10),
+    /** Approval decisions */
+    WRITE(4, 64, 2000, 1);
+    
+    private final int defaultConcurrency;
+    private final int defaultQueueCapacity;
+    private final long maxQueueWaitMillis;
+    private final int retryAfterSeconds;
+    
+    CostClass(int defaultConcurrency, int defaultQueueCapacity, long maxQueueWaitMillis, int retryAfterSeconds) {
+        this.defaultConcurrency = defaultConcurrency;
+        this.defaultQueueCapacity = defaultQueueCapacity;
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public int getDefaultConcurrency() {
+        return defaultConcurrency;
+    }
+    
+    public int getDefaultQueueCapacity() {
+        return defaultQueueCapacity;
+    }
+    
+    /**
+     * Get how long a queued request waits for a slot before it is shed.
+     * @return the maximum queue wait in milliseconds
+     */
+    public long getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis;
+    }
+    
+    /**
+     * Get the Retry-After value sent when a request of this class is shed.
+     * @return the delay in seconds
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
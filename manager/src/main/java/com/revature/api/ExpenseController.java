@@ -1,25 +1,42 @@
 package com.revature.api;
 
+import com.revature.repository.DatabaseOverloadedException;
+import com.revature.repository.DecisionResult;
 import com.revature.repository.ExpenseWithUser;
 import com.revature.repository.User;
 import com.revature.service.ExpenseService;
 import io.javalin.http.Context;
 import io.javalin.http.BadRequestResponse;
-import io.javalin.http.NotFoundResponse;
+import io.javalin.http.HttpResponseException;
+import io.javalin.http.HttpStatus;
 import io.javalin.http.InternalServerErrorResponse;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * REST controller for expense management operations.
  * Handles expense approval, denial, and viewing operations for managers.
  */
 public class ExpenseController {
+    private static final Set<String> STATUSES = Set.of("pending", "approved", "denied");
+    
     private final ExpenseService expenseService;
+    private final IdempotencyStore idempotencyStore;
     
     public ExpenseController(ExpenseService expenseService) {
+        this(expenseService, null);
+    }
+    
+    /**
+     * Create the controller with Idempotency-Key support on the approve and deny endpoints.
+     * @param expenseService the expense service
+     * @param idempotencyStore stores decision responses for replay, or null to ignore Idempotency-Key
+     */
+    public ExpenseController(ExpenseService expenseService, IdempotencyStore idempotencyStore) {
         this.expenseService = expenseService;
+        this.idempotencyStore = idempotencyStore;
     }
     
     /**
@@ -34,6 +51,8 @@ public class ExpenseController {
                 "data", pendingExpenses,
                 "count", pendingExpenses.size()
             ));
+        } catch (DatabaseOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to retrieve pending expenses: " + e.getMessage());
         }
@@ -42,80 +61,96 @@ public class ExpenseController {
     /**
      * Approve an expense.
      * POST /api/expenses/{expenseId}/approve
-     * Request body: { "comment": "optional comment" }
+     * Request body: { "comment": "optional comment", "expectedStatus": "optional, defaults to pending" }
+     * Returns 409 if another manager decided the expense first. A retry with the same Idempotency-Key
+     * header replays the original response without deciding again.
      */
     public void approveExpense(Context ctx) {
-        try {
-            int expenseId = ctx.pathParamAsClass("expenseId", Integer.class).get();
-            User manager = AuthenticationMiddleware.getAuthenticatedManager(ctx);
-            
-            // Get optional comment from request body
-            String comment = null;
-            try {
-                Map<String, Object> requestBody = ctx.bodyAsClass(Map.class);
-                comment = (String) requestBody.get("comment");
-            } catch (Exception e) {
-                // Ignore - comment is optional
-            }
-            
-            boolean success = expenseService.approveExpense(expenseId, manager.getId(), comment);
-            
-            if (success) {
-                ctx.json(Map.of(
-                    "success", true,
-                    "message", "Expense approved successfully"
-                ));
-            } else {
-                throw new NotFoundResponse("Expense not found or could not be approved");
-            }
-            
-        } catch (NumberFormatException e) {
-            throw new BadRequestResponse("Invalid expense ID format");
-        } catch (Exception e) {
-            if (e instanceof NotFoundResponse) {
-                throw e;
-            }
-            throw new InternalServerErrorResponse("Failed to approve expense: " + e.getMessage());
-        }
+        decide(ctx, "approved", "approve");
     }
     
     /**
      * Deny an expense.
      * POST /api/expenses/{expenseId}/deny
-     * Request body: { "comment": "optional comment" }
+     * Request body: { "comment": "optional comment", "expectedStatus": "optional, defaults to pending" }
+     * Returns 409 if another manager decided the expense first. A retry with the same Idempotency-Key
+     * header replays the original response without deciding again.
      */
     public void denyExpense(Context ctx) {
+        decide(ctx, "denied", "deny");
+    }
+    
+    private void decide(Context ctx, String decision, String verb) {
         try {
             int expenseId = ctx.pathParamAsClass("expenseId", Integer.class).get();
             User manager = AuthenticationMiddleware.getAuthenticatedManager(ctx);
             
-            // Get optional comment from request body
-            String comment = null;
+            // Get optional comment and expected status from request body
+            Map<String, Object> requestBody = Map.of();
             try {
-                Map<String, Object> requestBody = ctx.bodyAsClass(Map.class);
-                comment = (String) requestBody.get("comment");
+                requestBody = ctx.bodyAsClass(Map.class);
             } catch (Exception e) {
-                // Ignore - comment is optional
+                // Ignore - both are optional
+            }
+            String comment = requestBody.get("comment") instanceof String text ? text : null;
+            String expectedStatus = requestBody.get("expectedStatus") instanceof String status ? status : "pending";
+            if (!STATUSES.contains(expectedStatus)) {
+                throw new BadRequestResponse("expectedStatus must be one of " + STATUSES);
             }
             
-            boolean success = expenseService.denyExpense(expenseId, manager.getId(), comment);
-            
-            if (success) {
-                ctx.json(Map.of(
-                    "success", true,
-                    "message", "Expense denied successfully"
-                ));
+            IdempotencyStore.StoredResponse response;
+            String idempotencyKey = ctx.header(IdempotencyStore.HEADER);
+            if (idempotencyKey == null || idempotencyStore == null) {
+                response = applyDecision(expenseId, manager.getId(), decision, expectedStatus, comment);
             } else {
-                throw new NotFoundResponse("Expense not found or could not be denied");
+                if (idempotencyKey.isEmpty() || idempotencyKey.length() > IdempotencyStore.MAX_KEY_LENGTH) {
+                    throw new BadRequestResponse("Idempotency-Key must be 1 to "
+                            + IdempotencyStore.MAX_KEY_LENGTH + " characters");
+                }
+                // Keys are scoped to the manager and the endpoint, so clients cannot collide with each other
+                String scopedKey = manager.getId() + ":" + verb + ":" + expenseId + ":" + idempotencyKey;
+                String fingerprint = expectedStatus + "|" + (comment == null ? "-" : "+" + comment);
+                response = idempotencyStore.execute(scopedKey, fingerprint,
+                        () -> applyDecision(expenseId, manager.getId(), decision, expectedStatus, comment));
+                if (response.isReplayed()) {
+                    ctx.header(IdempotencyStore.REPLAYED_HEADER, "true");
+                }
+            }
+            
+            if (response.isError()) {
+                throw new HttpResponseException(response.getStatus(), response.getMessage(), response.getDetails());
             }
+            ctx.status(response.getStatus()).json(response.getBody());
             
         } catch (NumberFormatException e) {
             throw new BadRequestResponse("Invalid expense ID format");
+        } catch (IdempotencyStore.KeyReusedException e) {
+            throw new BadRequestResponse(e.getMessage());
+        } catch (DatabaseOverloadedException | HttpResponseException e) {
+            throw e;
         } catch (Exception e) {
-            if (e instanceof NotFoundResponse) {
-                throw e;
-            }
-            throw new InternalServerErrorResponse("Failed to deny expense: " + e.getMessage());
+            throw new InternalServerErrorResponse("Failed to " + verb + " expense: " + e.getMessage());
+        }
+    }
+    
+    private IdempotencyStore.StoredResponse applyDecision(int expenseId, int managerId, String decision,
+                                                          String expectedStatus, String comment) {
+        DecisionResult result = expenseService.decideExpense(expenseId, managerId, decision, expectedStatus, comment);
+        
+        switch (result.getOutcome()) {
+            case APPLIED:
+                return IdempotencyStore.StoredResponse.json(HttpStatus.OK.getCode(), Map.of(
+                    "success", true,
+                    "message", "Expense " + decision + " successfully"
+                ));
+            case CONFLICT:
+                return IdempotencyStore.StoredResponse.error(HttpStatus.CONFLICT.getCode(),
+                        "Expense is already " + result.getCurrentStatus(),
+                        Map.of("currentStatus", result.getCurrentStatus()));
+            case NOT_FOUND:
+            default:
+                return IdempotencyStore.StoredResponse.error(HttpStatus.NOT_FOUND.getCode(),
+                        "Expense not found or could not be " + decision, Map.of());
         }
     }
     
@@ -131,6 +166,8 @@ public class ExpenseController {
                 "data", allExpenses,
                 "count", allExpenses.size()
             ));
+        } catch (DatabaseOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to retrieve expenses: " + e.getMessage());
         }
@@ -154,6 +191,8 @@ public class ExpenseController {
             
         } catch (NumberFormatException e) {
             throw new BadRequestResponse("Invalid employee ID format");
+        } catch (DatabaseOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to retrieve expenses for employee: " + e.getMessage());
         }
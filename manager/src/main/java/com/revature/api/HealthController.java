@@ -0,0 +1,177 @@
+package com.revature.api;
+
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.Gauge;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+import com.revature.monitoring.StartupTimer;
+import io.javalin.http.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Liveness and readiness endpoints.
+ * <p>
+ * Liveness only shows the server answers, so an orchestrator restarts the process when it does not.
+ * Readiness runs the registered checks - dependencies, warm-up and shutdown - so traffic is routed
+ * away from an instance that cannot serve it without restarting it. Each check keeps its last result
+ * for its minimum interval, and while one request runs an expired check, concurrent requests get the
+ * previous result, so probing every second costs at most one database probe per interval.
+ */
+public class HealthController {
+    public static final Duration DEFAULT_DATABASE_PROBE_INTERVAL = Duration.ofSeconds(5);
+    
+    /**
+     * A readiness check. It passes by returning, and fails by throwing an exception whose message says why.
+     */
+    @FunctionalInterface
+    public interface Probe {
+        void check() throws Exception;
+    }
+    
+    /**
+     * The outcome of one run of a check.
+     */
+    private static final class Result {
+        private final String failure;
+        private final long checkedAtNanos;
+        
+        private Result(String failure, long checkedAtNanos) {
+            this.failure = failure;
+            this.checkedAtNanos = checkedAtNanos;
+        }
+    }
+    
+    /**
+     * A check with its cached result.
+     */
+    private final class Check {
+        private final Probe probe;
+        private final long intervalNanos;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final Counter passed;
+        private final Counter failed;
+        private volatile Result last;
+        
+        private Check(String name, Probe probe, Duration minInterval) {
+            this.probe = probe;
+            this.intervalNanos = minInterval.toNanos();
+            this.passed = probes.labels(name, "pass");
+            this.failed = probes.labels(name, "fail");
+            checkUp.labels(name).set(() -> {
+                Result result = last;
+                return result != null && result.failure == null ? 1 : 0;
+            });
+        }
+        
+        private Result evaluate() {
+            Result cached = last;
+            long now = nanoClock.getAsLong();
+            if (cached != null && now - cached.checkedAtNanos < intervalNanos) {
+                return cached;
+            }
+            // One caller runs the probe; the others answer from the previous result instead of piling onto it
+            if (!running.compareAndSet(false, true)) {
+                return cached != null ? cached : new Result("check in progress", now);
+            }
+            try {
+                String failure = null;
+                try {
+                    probe.check();
+                    passed.inc();
+                } catch (Exception e) {
+                    failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    failed.inc();
+                }
+                Result result = new Result(failure, nanoClock.getAsLong());
+                last = result;
+                return result;
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+    
+    private final Map<String, Check> checks = new LinkedHashMap<>();
+    private final AtomicBoolean lastReady = new AtomicBoolean();
+    private final StartupTimer startupTimer;
+    private final LongSupplier nanoClock;
+    private final MetricFamily<Counter> probes;
+    private final MetricFamily<Gauge> checkUp;
+    
+    public HealthController(StartupTimer startupTimer, MetricsRegistry metricsRegistry) {
+        this(startupTimer, System::nanoTime, metricsRegistry);
+    }
+    
+    /**
+     * Create a health controller without checks.
+     * @param startupTimer told about the first ready response
+     * @param nanoClock time source in nanoseconds for check intervals
+     * @param metricsRegistry registry for the check counters and gauges
+     */
+    public HealthController(StartupTimer startupTimer, LongSupplier nanoClock, MetricsRegistry metricsRegistry) {
+        this.startupTimer = startupTimer;
+        this.nanoClock = nanoClock;
+        this.probes = metricsRegistry.counter("health_check_probes_total",
+                "Readiness check runs by check and result", "check", "result");
+        this.checkUp = metricsRegistry.gauge("health_check_up",
+                "Whether a readiness check passed when it last ran", "check");
+    }
+    
+    /**
+     * Register a readiness check. Call before routes receive traffic.
+     * @param name the check name shown in responses and metrics
+     * @param minInterval how long a result is reused before the check runs again; zero runs it on every request
+     * @param probe the check
+     */
+    public void addCheck(String name, Duration minInterval, Probe probe) {
+        checks.put(name, new Check(name, probe, minInterval));
+    }
+    
+    /**
+     * Liveness endpoint: answers while the server can handle requests, without touching dependencies.
+     * GET /health/live
+     */
+    public void live(Context ctx) {
+        ctx.json(Map.of("status", "alive"));
+    }
+    
+    /**
+     * Readiness endpoint: 200 when every check passes, otherwise 503 with the failing checks.
+     * GET /health/ready
+     */
+    public void ready(Context ctx) {
+        Map<String, String> results = new LinkedHashMap<>();
+        List<String> failing = new ArrayList<>();
+        for (Map.Entry<String, Check> entry : checks.entrySet()) {
+            Result result = entry.getValue().evaluate();
+            results.put(entry.getKey(), result.failure == null ? "ok" : result.failure);
+            if (result.failure != null) {
+                failing.add(entry.getKey());
+            }
+        }
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", failing.isEmpty() ? "healthy" : "unhealthy");
+        body.put("service", "expense-manager-api");
+        body.put("version", "1.0.0");
+        body.put("checks", results);
+        boolean isReady = failing.isEmpty();
+        // Log transitions only; orchestrators probe every second
+        if (lastReady.getAndSet(isReady) != isReady) {
+            System.out.println(isReady ? "Instance is ready" : "Instance is not ready, failing checks: " + failing);
+        }
+        if (isReady) {
+            startupTimer.markHealthy();
+        } else {
+            ctx.status(503);
+        }
+        ctx.json(body);
+    }
+}
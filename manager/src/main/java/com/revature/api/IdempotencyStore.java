@@ -0,0 +1,257 @@
+package com.revature.api;
+
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of completed requests by their Idempotency-Key, so a client retrying a
+ * request whose response it never received gets the original response back instead of running it again.
+ * The store is bounded: entries expire after a TTL and the oldest are evicted once capacity is reached.
+ * A retry that arrives while the original is still running waits for it and shares its response.
+ */
+public class IdempotencyStore {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+    public static final int DEFAULT_CAPACITY = 10_000;
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+    
+    /**
+     * The response of a completed request: either a JSON body or an HTTP error.
+     */
+    public static final class StoredResponse {
+        private final int status;
+        private final Map<String, Object> body;
+        private final String message;
+        private final Map<String, String> details;
+        private final boolean replayed;
+        
+        private StoredResponse(int status, Map<String, Object> body, String message, Map<String, String> details,
+                               boolean replayed) {
+            this.status = status;
+            this.body = body;
+            this.message = message;
+            this.details = details;
+            this.replayed = replayed;
+        }
+        
+        public static StoredResponse json(int status, Map<String, Object> body) {
+            return new StoredResponse(status, body, null, Map.of(), false);
+        }
+        
+        public static StoredResponse error(int status, String message, Map<String, String> details) {
+            return new StoredResponse(status, null, message, details, false);
+        }
+        
+        private StoredResponse asReplay() {
+            return new StoredResponse(status, body, message, details, true);
+        }
+        
+        public int getStatus() {
+            return status;
+        }
+        
+        public boolean isError() {
+            return body == null;
+        }
+        
+        public Map<String, Object> getBody() {
+            return body;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+        
+        public Map<String, String> getDetails() {
+            return details;
+        }
+        
+        /**
+         * Whether this response was returned from the store rather than produced by this request.
+         */
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+    
+    /**
+     * Thrown when an Idempotency-Key is reused for a request with different parameters.
+     */
+    public static class KeyReusedException extends RuntimeException {
+        public KeyReusedException(String message) {
+            super(message);
+        }
+    }
+    
+    private static final class Entry {
+        private final String fingerprint;
+        private final StoredResponse response;
+        private final Instant storedAt;
+        
+        private Entry(String fingerprint, StoredResponse response, Instant storedAt) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+            this.storedAt = storedAt;
+        }
+    }
+    
+    private static final class Execution {
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        
+        private Execution(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+    
+    private final int capacity;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter reused;
+    private final Counter evicted;
+    
+    // Insertion-ordered, so iteration starts at the entry that expires first. Guarded by "this".
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private final ConcurrentHashMap<String, Execution> inFlight = new ConcurrentHashMap<>();
+    
+    public IdempotencyStore(int capacity, Duration ttl, MetricsRegistry metricsRegistry) {
+        this(capacity, ttl, Clock.systemUTC(), metricsRegistry);
+    }
+    
+    /**
+     * Create an idempotency store.
+     * @param capacity maximum number of stored responses
+     * @param ttl how long a response is replayed after it was stored
+     * @param clock clock the TTL is measured with
+     * @param metricsRegistry registry for the idempotency counters
+     */
+    public IdempotencyStore(int capacity, Duration ttl, Clock clock, MetricsRegistry metricsRegistry) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Idempotency store capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.ttl = ttl;
+        this.clock = clock;
+        MetricFamily<Counter> requests = metricsRegistry.counter("idempotency_requests_total",
+                "Requests carrying an Idempotency-Key, by outcome", "outcome");
+        this.executed = requests.labels("executed");
+        this.replayed = requests.labels("replayed");
+        this.reused = requests.labels("key_reused");
+        this.evicted = metricsRegistry.counter("idempotency_evictions_total",
+                "Stored responses evicted before their TTL because the store was full").labels();
+        metricsRegistry.gauge("idempotency_stored_responses", "Responses held for replay")
+                .labels().set(this::size);
+    }
+    
+    /**
+     * Run a request once per key. If a response is already stored for the key it is returned without
+     * running the action; if the same key is being executed right now, the call waits for that response.
+     * Responses are only stored when the action returns; an exception leaves the key free for a retry.
+     * @param key the scoped idempotency key
+     * @param fingerprint the request parameters; a stored response is only replayed for the same parameters
+     * @param action produces the response
+     * @return the response, marked as replayed if it was not produced by this call
+     * @throws KeyReusedException if the key was used for a request with different parameters
+     */
+    public StoredResponse execute(String key, String fingerprint, Supplier<StoredResponse> action) {
+        Entry stored = lookup(key);
+        if (stored != null) {
+            return replay(stored.fingerprint, fingerprint, stored.response);
+        }
+        
+        Execution execution = new Execution(fingerprint);
+        Execution existing = inFlight.putIfAbsent(key, execution);
+        if (existing != null) {
+            return replay(existing.fingerprint, fingerprint, await(existing));
+        }
+        
+        try {
+            // The original may have completed between the lookup and claiming the key
+            stored = lookup(key);
+            if (stored != null) {
+                StoredResponse response = replay(stored.fingerprint, fingerprint, stored.response);
+                execution.response.complete(stored.response);
+                return response;
+            }
+            
+            StoredResponse response = action.get();
+            insert(key, new Entry(fingerprint, response, clock.instant()));
+            execution.response.complete(response);
+            executed.inc();
+            return response;
+        } catch (RuntimeException | Error e) {
+            execution.response.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    private StoredResponse replay(String storedFingerprint, String fingerprint, StoredResponse response) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            reused.inc();
+            throw new KeyReusedException("Idempotency-Key was already used for a different request");
+        }
+        replayed.inc();
+        return response.asReplay();
+    }
+    
+    private static StoredResponse await(Execution execution) {
+        try {
+            return execution.response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private synchronized Entry lookup(String key) {
+        evictExpired(clock.instant());
+        return entries.get(key);
+    }
+    
+    private synchronized void insert(String key, Entry entry) {
+        evictExpired(entry.storedAt);
+        // Remove first so the entry moves to the end of the expiry order
+        entries.remove(key);
+        entries.put(key, entry);
+        
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evicted.inc();
+        }
+    }
+    
+    private void evictExpired(Instant now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now.isBefore(iterator.next().storedAt.plus(ttl))) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.revature.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orderly shutdown of the server, run once from a JVM shutdown hook (SIGTERM on redeploy).
+ * <p>
+ * Shutdown runs in three phases: the stop-accepting actions run first, so readiness fails and new
+ * requests are turned away; then the drain tasks run in order, all sharing one deadline, so in-flight
+ * requests and background work finish or the deadline passes; then the resources are closed in order,
+ * each even if an earlier one failed. Register everything at startup.
+ */
+public class LifecycleManager {
+    public static final Duration DEFAULT_SHUTDOWN_DEADLINE = Duration.ofSeconds(20);
+    
+    /**
+     * Work to let finish during shutdown.
+     */
+    @FunctionalInterface
+    public interface DrainTask {
+        /**
+         * Wait for the work to finish.
+         * @param timeout the time left before the shutdown deadline
+         * @return true if it finished, false if the timeout passed first
+         */
+        boolean drain(Duration timeout) throws InterruptedException;
+    }
+    
+    private static final class Named<T> {
+        private final String name;
+        private final T task;
+        
+        private Named(String name, T task) {
+            this.name = name;
+            this.task = task;
+        }
+    }
+    
+    private final Duration deadline;
+    private final List<Runnable> stopAccepting = new ArrayList<>();
+    private final List<Named<DrainTask>> drains = new ArrayList<>();
+    private final List<Named<AutoCloseable>> resources = new ArrayList<>();
+    private volatile boolean shuttingDown;
+    
+    /**
+     * Create a lifecycle manager.
+     * @param deadline longest time the drain phase may take; keep it below the orchestrator's grace period
+     */
+    public LifecycleManager(Duration deadline) {
+        this.deadline = deadline;
+    }
+    
+    /**
+     * Register an action that stops new work from being accepted, run first on shutdown.
+     * @param action the action
+     */
+    public void onStopAccepting(Runnable action) {
+        stopAccepting.add(action);
+    }
+    
+    /**
+     * Register work to let finish before resources are closed. Drain tasks run in registration order.
+     * @param name the name used in shutdown logs
+     * @param task the drain task
+     */
+    public void addDrainTask(String name, DrainTask task) {
+        drains.add(new Named<>(name, task));
+    }
+    
+    /**
+     * Register a resource to close after draining. Resources are closed in registration order.
+     * @param name the name used in shutdown logs
+     * @param resource the resource
+     */
+    public void addResource(String name, AutoCloseable resource) {
+        resources.add(new Named<>(name, resource));
+    }
+    
+    /**
+     * Check whether shutdown has started.
+     * @return true once {@link #shutdown} has been called
+     */
+    public boolean isShuttingDown() {
+        return shuttingDown;
+    }
+    
+    /**
+     * Run {@link #shutdown} when the JVM is asked to exit.
+     */
+    public void registerShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "graceful-shutdown"));
+    }
+    
+    /**
+     * Stop accepting work, drain within the deadline, then close the resources. Only the first call has an effect.
+     * @return true if every drain task finished within the deadline
+     */
+    public synchronized boolean shutdown() {
+        if (shuttingDown) {
+            return true;
+        }
+        shuttingDown = true;
+        long start = System.nanoTime();
+        long deadlineNanos = start + deadline.toNanos();
+        System.out.println("Shutting down: no longer accepting requests, draining for up to " + deadline.toMillis() + " ms");
+        for (Runnable action : stopAccepting) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.out.println("Shutdown: stop-accepting action failed: " + e.getMessage());
+            }
+        }
+        
+        boolean drained = true;
+        for (Named<DrainTask> drain : drains) {
+            Duration remaining = Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+            try {
+                if (drain.task.drain(remaining)) {
+                    System.out.println("Shutdown: drained " + drain.name);
+                } else {
+                    drained = false;
+                    System.out.println("Shutdown: gave up waiting for " + drain.name + " at the deadline");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drained = false;
+                System.out.println("Shutdown: interrupted while draining " + drain.name);
+            } catch (RuntimeException e) {
+                drained = false;
+                System.out.println("Shutdown: draining " + drain.name + " failed: " + e.getMessage());
+            }
+        }
+        
+        for (Named<AutoCloseable> resource : resources) {
+            try {
+                resource.task.close();
+            } catch (Exception e) {
+                System.out.println("Shutdown: closing " + resource.name + " failed: " + e.getMessage());
+            }
+        }
+        System.out.println("Shutdown complete in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return drained;
+    }
+}
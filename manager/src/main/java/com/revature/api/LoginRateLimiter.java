@@ -0,0 +1,171 @@
+package com.revature.api;
+
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.Gauge;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limit for login attempts, per client IP and per username, checked before the database is queried.
+ * Each key has a token bucket stored as a single {@link AtomicLong} and updated with one compare-and-set,
+ * so checks never lock. Buckets are held in a bounded map: when it is full, buckets that have refilled
+ * completely are evicted (a new bucket would be identical). If it is still full, keys without a bucket
+ * share one overflow bucket, so a flood of distinct keys cannot grow memory or escape the limit.
+ */
+public class LoginRateLimiter {
+    public static final int DEFAULT_IP_ATTEMPTS_PER_MINUTE = 30;
+    public static final int DEFAULT_USERNAME_ATTEMPTS_PER_MINUTE = 10;
+    public static final int DEFAULT_MAX_KEYS = 100_000;
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    /**
+     * Token buckets for one kind of key.
+     */
+    private static final class KeyedBuckets {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final int maxKeys;
+        private final LongSupplier nanoClock;
+        // Per key, the time at which the bucket will be full again (GCRA form of a token bucket)
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow;
+        private final AtomicLong nextSweep;
+        private final Counter allowed;
+        private final Counter rejected;
+        private final Counter evicted;
+        private final Counter overflowed;
+        
+        private KeyedBuckets(String scope, int attemptsPerMinute, int burst, int maxKeys, LongSupplier nanoClock,
+                             MetricFamily<Counter> attempts, MetricFamily<Counter> evictions,
+                             MetricFamily<Counter> overflows) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / attemptsPerMinute;
+            this.burstNanos = intervalNanos * burst;
+            this.maxKeys = maxKeys;
+            this.nanoClock = nanoClock;
+            this.overflow = new AtomicLong(nanoClock.getAsLong());
+            this.nextSweep = new AtomicLong(nanoClock.getAsLong());
+            this.allowed = attempts.labels(scope, "allowed");
+            this.rejected = attempts.labels(scope, "rejected");
+            this.evicted = evictions.labels(scope);
+            this.overflowed = overflows.labels(scope);
+        }
+        
+        /**
+         * Take a token for a key.
+         * @return 0 if a token was taken, otherwise nanoseconds until one is available
+         */
+        private long tryAcquire(String key) {
+            long now = nanoClock.getAsLong();
+            AtomicLong bucket = bucketFor(key, now);
+            while (true) {
+                long fullAt = bucket.get();
+                long start = fullAt - now > 0 ? fullAt : now;
+                long next = start + intervalNanos;
+                // Taking a token moves the full time one interval later; a bucket can be at most burst intervals behind
+                long wait = next - now - burstNanos;
+                if (wait > 0) {
+                    rejected.inc();
+                    return wait;
+                }
+                if (bucket.compareAndSet(fullAt, next)) {
+                    allowed.inc();
+                    return 0;
+                }
+            }
+        }
+        
+        private AtomicLong bucketFor(String key, long now) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxKeys) {
+                sweep(now);
+                if (buckets.size() >= maxKeys) {
+                    overflowed.inc();
+                    return overflow;
+                }
+            }
+            // A bucket that is full now is a new one
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        
+        private void sweep(long now) {
+            long due = nextSweep.get();
+            // One thread sweeps, at most once per interval, so a full map of active keys does not cost O(n) per request
+            if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+                return;
+            }
+            buckets.entrySet().removeIf(entry -> {
+                if (entry.getValue().get() - now <= 0) {
+                    evicted.inc();
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+    
+    private final KeyedBuckets byIp;
+    private final KeyedBuckets byUsername;
+    
+    public LoginRateLimiter(MetricsRegistry metricsRegistry) {
+        this(DEFAULT_IP_ATTEMPTS_PER_MINUTE, DEFAULT_USERNAME_ATTEMPTS_PER_MINUTE, DEFAULT_MAX_KEYS,
+                System::nanoTime, metricsRegistry);
+    }
+    
+    /**
+     * Create a login rate limiter. Each bucket holds a minute's worth of attempts, so a client may use its
+     * whole allowance at once and then one attempt per refill interval.
+     * @param ipAttemptsPerMinute login attempts allowed per client IP per minute
+     * @param usernameAttemptsPerMinute login attempts allowed per username per minute
+     * @param maxKeys buckets kept per kind of key before idle ones are evicted
+     * @param nanoClock time source in nanoseconds
+     * @param metricsRegistry registry for the limiter counters and gauges
+     */
+    public LoginRateLimiter(int ipAttemptsPerMinute, int usernameAttemptsPerMinute, int maxKeys,
+                            LongSupplier nanoClock, MetricsRegistry metricsRegistry) {
+        if (ipAttemptsPerMinute < 1 || usernameAttemptsPerMinute < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("Invalid login rate limits: " + ipAttemptsPerMinute + "/"
+                    + usernameAttemptsPerMinute + "/" + maxKeys);
+        }
+        MetricFamily<Counter> attempts = metricsRegistry.counter("login_rate_limit_attempts_total",
+                "Login attempts checked by the rate limiter, by key scope and result", "scope", "result");
+        MetricFamily<Counter> evictions = metricsRegistry.counter("login_rate_limit_evictions_total",
+                "Idle login rate limit buckets evicted to stay within the key limit", "scope");
+        MetricFamily<Counter> overflows = metricsRegistry.counter("login_rate_limit_overflow_total",
+                "Login attempts limited by the shared overflow bucket because the key limit was reached", "scope");
+        this.byIp = new KeyedBuckets("ip", ipAttemptsPerMinute, ipAttemptsPerMinute, maxKeys, nanoClock,
+                attempts, evictions, overflows);
+        this.byUsername = new KeyedBuckets("username", usernameAttemptsPerMinute, usernameAttemptsPerMinute,
+                maxKeys, nanoClock, attempts, evictions, overflows);
+        MetricFamily<Gauge> keys = metricsRegistry.gauge("login_rate_limit_keys",
+                "Login rate limit buckets held, by key scope", "scope");
+        keys.labels("ip").set(() -> byIp.buckets.size());
+        keys.labels("username").set(() -> byUsername.buckets.size());
+    }
+    
+    /**
+     * Check a login attempt against the client IP's and the username's buckets.
+     * The username is only charged once the IP is allowed, so a throttled client cannot lock others out further.
+     * Usernames are compared case-insensitively, so case variants share a bucket.
+     * @param clientIp the client IP
+     * @param username the username being logged in to
+     * @return Duration.ZERO if the attempt may proceed, otherwise the time until it may be retried
+     */
+    public Duration tryAcquire(String clientIp, String username) {
+        long wait = byIp.tryAcquire(clientIp == null ? "" : clientIp);
+        if (wait == 0) {
+            wait = byUsername.tryAcquire(username.toLowerCase(Locale.ROOT));
+        }
+        return wait == 0 ? Duration.ZERO : Duration.ofNanos(wait);
+    }
+}
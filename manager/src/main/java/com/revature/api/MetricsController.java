@@ -0,0 +1,61 @@
+package com.revature.api;
+
+import com.revature.monitoring.Histogram;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+import io.javalin.http.Context;
+
+/**
+ * Records per-route request latency and exposes the metrics registry for Prometheus to scrape.
+ */
+public class MetricsController {
+    private static final String START_ATTRIBUTE = "metricsStartNanos";
+    
+    private final MetricsRegistry metricsRegistry;
+    private final MetricFamily<Histogram> requestDuration;
+    
+    public MetricsController(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+        this.requestDuration = metricsRegistry.histogram("http_request_duration_seconds",
+                "HTTP request latency by route template", Histogram.LATENCY_BUCKETS, "method", "route", "status");
+    }
+    
+    /**
+     * Before-handler for all paths: remember when the request started.
+     */
+    public void startTimer(Context ctx) {
+        ctx.attribute(START_ATTRIBUTE, System.nanoTime());
+    }
+    
+    /**
+     * After-handler for all paths: record the request duration under its route template,
+     * so /api/expenses/42/approve and /api/expenses/43/approve share one series.
+     */
+    public void recordRequest(Context ctx) {
+        Long start = ctx.attribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        requestDuration.labels(ctx.method().name(), routeOf(ctx), String.valueOf(ctx.statusCode()))
+                .observeSince(start);
+    }
+    
+    /**
+     * Prometheus scrape endpoint.
+     * GET /metrics
+     */
+    public void scrape(Context ctx) {
+        ctx.contentType("text/plain; version=0.0.4; charset=utf-8");
+        ctx.result(metricsRegistry.scrape());
+    }
+    
+    private static String routeOf(Context ctx) {
+        try {
+            String route = ctx.endpointHandlerPath();
+            // Requests that matched no endpoint would otherwise create one series per URL
+            return route == null || route.isEmpty() || "*".equals(route) ? "unmatched" : route;
+        } catch (RuntimeException e) {
+            return "unmatched";
+        }
+    }
+}
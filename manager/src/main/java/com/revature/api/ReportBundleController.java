@@ -0,0 +1,63 @@
+package com.revature.api;
+
+import com.revature.repository.DatabaseOverloadedException;
+import com.revature.service.ReportBundleService;
+import com.revature.service.ReportFormat;
+import com.revature.service.ReportRequest;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.InternalServerErrorResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST controller for downloading several reports at once as a ZIP archive.
+ */
+public class ReportBundleController {
+    private final ReportBundleService reportBundleService;
+    
+    public ReportBundleController(ReportBundleService reportBundleService) {
+        this.reportBundleService = reportBundleService;
+    }
+    
+    /**
+     * Download a ZIP archive with one entry per requested report.
+     * GET /api/reports/bundle?reports=all,pending,employee:3,category:Travel,daterange:YYYY-MM-DD:YYYY-MM-DD&format=csv
+     * The reports parameter may also be repeated; format is csv (default), arrow or xlsx.
+     */
+    public void downloadReportBundle(Context ctx) {
+        List<ReportRequest> requests = new ArrayList<>();
+        ReportFormat format;
+        try {
+            for (String value : ctx.queryParams("reports")) {
+                for (String spec : value.split(",")) {
+                    if (!spec.trim().isEmpty()) {
+                        requests.add(ReportRequest.parse(spec));
+                    }
+                }
+            }
+            String formatParam = ctx.queryParam("format");
+            format = formatParam == null ? ReportFormat.CSV : ReportFormat.fromExtension(formatParam);
+            if (requests.isEmpty()) {
+                throw new IllegalArgumentException("reports parameter is required (e.g. reports=all,pending)");
+            }
+            if (requests.size() > ReportBundleService.MAX_REPORTS_PER_BUNDLE) {
+                throw new IllegalArgumentException("A bundle can contain at most "
+                        + ReportBundleService.MAX_REPORTS_PER_BUNDLE + " reports");
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestResponse(e.getMessage());
+        }
+        
+        try {
+            ctx.contentType("application/zip");
+            ctx.header("Content-Disposition", "attachment; filename=\"expense_reports_" + format.getExtension() + ".zip\"");
+            reportBundleService.writeBundle(requests, format, ctx.res().getOutputStream());
+        } catch (DatabaseOverloadedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InternalServerErrorResponse("Failed to generate report bundle: " + e.getMessage());
+        }
+    }
+}
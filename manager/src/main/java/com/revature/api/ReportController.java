@@ -1,11 +1,18 @@
 package com.revature.api;
 
+import com.revature.repository.DatabaseOverloadedException;
 import com.revature.repository.ExpenseWithUser;
 import com.revature.service.ExpenseService;
+import com.revature.service.ReportCache;
+import com.revature.service.ReportFormat;
+import com.revature.service.ReportRequest;
+import com.revature.service.ReportType;
 import io.javalin.http.Context;
 import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Handler;
 import io.javalin.http.InternalServerErrorResponse;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -13,14 +20,22 @@ import java.util.List;
 
 /**
  * REST controller for expense reporting operations.
- * Handles CSV report generation by various criteria.
+ * Handles CSV, Apache Arrow and XLSX report generation by various criteria.
+ * When a ReportCache is configured, generated reports are cached per data version and served from the cache
+ * with Range support, so interrupted downloads can be resumed.
  */
 public class ReportController {
     private final ExpenseService expenseService;
+    private final ReportCache reportCache;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     
     public ReportController(ExpenseService expenseService) {
+        this(expenseService, null);
+    }
+    
+    public ReportController(ExpenseService expenseService, ReportCache reportCache) {
         this.expenseService = expenseService;
+        this.reportCache = reportCache;
     }
     
     /**
@@ -29,13 +44,10 @@ public class ReportController {
      */
     public void generateAllExpensesReport(Context ctx) {
         try {
-            List<ExpenseWithUser> expenses = expenseService.getAllExpenses();
-            String csvContent = expenseService.generateCsvReport(expenses);
-            
-            ctx.contentType("text/csv");
-            ctx.header("Content-Disposition", "attachment; filename=\"all_expenses_report.csv\"");
-            ctx.result(csvContent);
+            sendCsvReport(ctx, ReportRequest.all());
             
+        } catch (DatabaseOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to generate expenses report: " + e.getMessage());
         }
@@ -48,15 +60,12 @@ public class ReportController {
     public void generateEmployeeExpensesReport(Context ctx) {
         try {
             int employeeId = ctx.pathParamAsClass("employeeId", Integer.class).get();
-            List<ExpenseWithUser> expenses = expenseService.getExpensesByEmployee(employeeId);
-            String csvContent = expenseService.generateCsvReport(expenses);
-            
-            ctx.contentType("text/csv");
-            ctx.header("Content-Disposition", "attachment; filename=\"employee_" + employeeId + "_expenses_report.csv\"");
-            ctx.result(csvContent);
+            sendCsvReport(ctx, ReportRequest.employee(employeeId));
             
         } catch (NumberFormatException e) {
             throw new BadRequestResponse("Invalid employee ID format");
+        } catch (DatabaseOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to generate employee expenses report: " + e.getMessage());
         }
@@ -74,17 +83,13 @@ public class ReportController {
                 throw new BadRequestResponse("Category parameter is required");
             }
             
-            List<ExpenseWithUser> expenses = expenseService.getExpensesByCategory(category);
-            String csvContent = expenseService.generateCsvReport(expenses);
-            
-            String safeCategory = category.replaceAll("[^a-zA-Z0-9_-]", "_");
-            ctx.contentType("text/csv");
-            ctx.header("Content-Disposition", "attachment; filename=\"category_" + safeCategory + "_expenses_report.csv\"");
-            ctx.result(csvContent);
+            sendCsvReport(ctx, ReportRequest.category(category));
             
+        } catch (DatabaseOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             if (e instanceof BadRequestResponse) {
-                throw e;
+                throw (BadRequestResponse) e;
             }
             throw new InternalServerErrorResponse("Failed to generate category expenses report: " + e.getMessage());
         }
@@ -111,16 +116,13 @@ public class ReportController {
                 throw new BadRequestResponse("Invalid date format. Use YYYY-MM-DD format");
             }
             
-            List<ExpenseWithUser> expenses = expenseService.getExpensesByDateRange(startDateStr, endDateStr);
-            String csvContent = expenseService.generateCsvReport(expenses);
-            
-            ctx.contentType("text/csv");
-            ctx.header("Content-Disposition", "attachment; filename=\"expenses_" + startDateStr + "_to_" + endDateStr + "_report.csv\"");
-            ctx.result(csvContent);
+            sendCsvReport(ctx, ReportRequest.dateRange(startDateStr, endDateStr));
             
+        } catch (DatabaseOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             if (e instanceof BadRequestResponse) {
-                throw e;
+                throw (BadRequestResponse) e;
             }
             throw new InternalServerErrorResponse("Failed to generate date range expenses report: " + e.getMessage());
         }
@@ -132,15 +134,109 @@ public class ReportController {
      */
     public void generatePendingExpensesReport(Context ctx) {
         try {
-            List<ExpenseWithUser> expenses = expenseService.getPendingExpenses();
-            String csvContent = expenseService.generateCsvReport(expenses);
-            
-            ctx.contentType("text/csv");
-            ctx.header("Content-Disposition", "attachment; filename=\"pending_expenses_report.csv\"");
-            ctx.result(csvContent);
+            sendCsvReport(ctx, ReportRequest.pending());
             
+        } catch (DatabaseOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to generate pending expenses report: " + e.getMessage());
         }
     }
+    
+    /**
+     * Handler for Apache Arrow IPC reports, registered next to the CSV endpoints:
+     * GET /api/reports/expenses/arrow
+     * GET /api/reports/expenses/pending/arrow
+     * GET /api/reports/expenses/employee/{employeeId}/arrow
+     * GET /api/reports/expenses/category/{category}/arrow
+     * GET /api/reports/expenses/daterange/arrow?startDate=YYYY-MM-DD&endDate=YYYY-MM-DD
+     * @param type the report type the route serves
+     * @return Javalin Handler for the report
+     */
+    public Handler arrowReport(ReportType type) {
+        return ctx -> handleReport(ctx, type, ReportFormat.ARROW);
+    }
+    
+    /**
+     * Handler for XLSX spreadsheet reports, registered next to the CSV endpoints:
+     * GET /api/reports/expenses/xlsx
+     * GET /api/reports/expenses/pending/xlsx
+     * GET /api/reports/expenses/employee/{employeeId}/xlsx
+     * GET /api/reports/expenses/category/{category}/xlsx
+     * GET /api/reports/expenses/daterange/xlsx?startDate=YYYY-MM-DD&endDate=YYYY-MM-DD
+     * @param type the report type the route serves
+     * @return Javalin Handler for the report
+     */
+    public Handler xlsxReport(ReportType type) {
+        return ctx -> handleReport(ctx, type, ReportFormat.XLSX);
+    }
+    
+    private void handleReport(Context ctx, ReportType type, ReportFormat format) {
+        ReportRequest request;
+        try {
+            request = reportRequestFor(ctx, type);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestResponse(e.getMessage());
+        }
+        
+        try {
+            sendReport(ctx, request, format);
+        } catch (DatabaseOverloadedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InternalServerErrorResponse("Failed to generate " + type.getKey() + " expenses report: " + e.getMessage());
+        }
+    }
+    
+    private ReportRequest reportRequestFor(Context ctx, ReportType type) {
+        switch (type) {
+            case PENDING:
+                return ReportRequest.pending();
+            case EMPLOYEE:
+                try {
+                    return ReportRequest.employee(Integer.parseInt(ctx.pathParam("employeeId")));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid employee ID format");
+                }
+            case CATEGORY:
+                return ReportRequest.category(ctx.pathParam("category"));
+            case DATE_RANGE:
+                return ReportRequest.dateRange(ctx.queryParam("startDate"), ctx.queryParam("endDate"));
+            case ALL:
+            default:
+                return ReportRequest.all();
+        }
+    }
+    
+    private void sendCsvReport(Context ctx, ReportRequest request) throws IOException {
+        if (reportCache == null) {
+            ctx.contentType(ReportFormat.CSV.getContentType());
+            ctx.header("Content-Disposition", "attachment; filename=\"" + request.fileName("csv") + "\"");
+            List<ExpenseWithUser> expenses = expenseService.getExpensesForReport(request);
+            ctx.result(expenseService.generateCsvReport(expenses));
+            return;
+        }
+        
+        sendReport(ctx, request, ReportFormat.CSV);
+    }
+    
+    private void sendReport(Context ctx, ReportRequest request, ReportFormat format) throws IOException {
+        ctx.contentType(format.getContentType());
+        ctx.header("Content-Disposition", "attachment; filename=\"" + request.fileName(format.getExtension()) + "\"");
+        
+        if (reportCache == null) {
+            expenseService.writeReport(request, format, ctx.res().getOutputStream());
+            return;
+        }
+        
+        ReportCache.Entry report = reportCache.getOrCreate(request, format.getExtension(),
+                out -> expenseService.writeReport(request, format, out));
+        
+        try {
+            ByteRangeResponder.send(ctx, report.getSize(), report.getEtag(), report.getCreatedAt(),
+                    (offset, length, out) -> reportCache.transferTo(report, offset, length, out));
+        } finally {
+            reportCache.release(report);
+        }
+    }
 }
\ No newline at end of file
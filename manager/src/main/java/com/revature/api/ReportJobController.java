@@ -0,0 +1,139 @@
+package com.revature.api;
+
+import com.revature.repository.User;
+import com.revature.service.ReportJob;
+import com.revature.service.ReportJobService;
+import com.revature.service.ReportRequest;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.ConflictResponse;
+import io.javalin.http.Context;
+import io.javalin.http.InternalServerErrorResponse;
+import io.javalin.http.NotFoundResponse;
+import io.javalin.http.ServiceUnavailableResponse;
+
+import java.nio.file.NoSuchFileException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * REST controller for asynchronous report jobs.
+ * Reports are queued and generated in the background; clients poll for status and download the result.
+ */
+public class ReportJobController {
+    private final ReportJobService reportJobService;
+    
+    public ReportJobController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+    
+    /**
+     * Queue a report job.
+     * POST /api/reports/jobs
+     * Request body: { "type": "all|pending|employee|category|daterange", "employeeId": 1,
+     *                 "category": "Travel", "startDate": "YYYY-MM-DD", "endDate": "YYYY-MM-DD" }
+     */
+    public void submitReportJob(Context ctx) {
+        Map<String, Object> requestBody;
+        try {
+            requestBody = ctx.bodyAsClass(Map.class);
+        } catch (Exception e) {
+            throw new BadRequestResponse("Invalid request format");
+        }
+        
+        ReportRequest request;
+        try {
+            request = ReportRequest.fromParameters(requestBody);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestResponse(e.getMessage());
+        }
+        
+        User manager = AuthenticationMiddleware.getAuthenticatedManager(ctx);
+        
+        ReportJob job;
+        try {
+            job = reportJobService.submit(request, manager.getId());
+        } catch (RejectedExecutionException e) {
+            ctx.header("Retry-After", "30");
+            throw new ServiceUnavailableResponse("Report queue is full, please retry later");
+        }
+        
+        ctx.status(202);
+        ctx.json(Map.of(
+            "success", true,
+            "jobId", job.getId(),
+            "status", job.getStatus().name().toLowerCase(),
+            "statusUrl", "/api/reports/jobs/" + job.getId(),
+            "downloadUrl", "/api/reports/jobs/" + job.getId() + "/download"
+        ));
+    }
+    
+    /**
+     * Get the status and progress of a report job.
+     * GET /api/reports/jobs/{jobId}
+     */
+    public void getReportJobStatus(Context ctx) {
+        ReportJob job = findOwnedJob(ctx);
+        
+        Map<String, Object> data = new HashMap<>();
+        data.put("jobId", job.getId());
+        data.put("type", job.getRequest().getType().getKey());
+        data.put("status", job.getStatus().name().toLowerCase());
+        data.put("progress", job.getProgressPercent());
+        data.put("rowsWritten", job.getRowsWritten());
+        data.put("totalRows", job.getTotalRows());
+        data.put("createdAt", job.getCreatedAt().toString());
+        if (job.getCompletedAt() != null) {
+            data.put("completedAt", job.getCompletedAt().toString());
+            data.put("expiresAt", reportJobService.getExpiresAt(job).toString());
+        }
+        if (job.getStatus() == ReportJob.Status.COMPLETED) {
+            data.put("sizeBytes", job.getSizeBytes());
+            data.put("downloadUrl", "/api/reports/jobs/" + job.getId() + "/download");
+        }
+        if (job.getError() != null) {
+            data.put("error", job.getError());
+        }
+        
+        ctx.json(Map.of(
+            "success", true,
+            "data", data
+        ));
+    }
+    
+    /**
+     * Download the artifact of a completed report job.
+     * GET /api/reports/jobs/{jobId}/download
+     */
+    public void downloadReportJob(Context ctx) {
+        ReportJob job = findOwnedJob(ctx);
+        
+        if (job.getStatus() == ReportJob.Status.FAILED) {
+            throw new ConflictResponse("Report job failed: " + job.getError());
+        }
+        if (job.getStatus() != ReportJob.Status.COMPLETED) {
+            throw new ConflictResponse("Report job is not complete yet");
+        }
+        
+        try {
+            ctx.contentType("text/csv");
+            ctx.header("Content-Disposition", "attachment; filename=\"" + job.getRequest().fileName("csv") + "\"");
+            // Artifacts never change once written, so the job ID is a strong validator
+            ByteRangeResponder.sendFile(ctx, job.getArtifact(), job.getSizeBytes(), "\"" + job.getId() + "\"",
+                    job.getCompletedAt());
+        } catch (NoSuchFileException e) {
+            throw new NotFoundResponse("Report artifact is no longer available");
+        } catch (Exception e) {
+            throw new InternalServerErrorResponse("Failed to download report: " + e.getMessage());
+        }
+    }
+    
+    private ReportJob findOwnedJob(Context ctx) {
+        String jobId = ctx.pathParam("jobId");
+        User manager = AuthenticationMiddleware.getAuthenticatedManager(ctx);
+        
+        return reportJobService.getJob(jobId)
+                .filter(job -> job.getOwnerId() == manager.getId())
+                .orElseThrow(() -> new NotFoundResponse("Report job not found"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.revature.monitoring;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous structured access log.
+ * Request threads only sample the record and offer it to a lock-free ring buffer; a background thread drains
+ * the buffer in batches and writes one JSON object per line. When the buffer is full the record is dropped and
+ * counted rather than making the request wait for the disk.
+ */
+public class AccessLog {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    
+    private final RingBuffer<AccessLogRecord> buffer;
+    private final Writer out;
+    private final double sampleRate;
+    private final int batchSize;
+    private final Counter written;
+    private final Counter sampledOut;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    
+    /**
+     * Create an access log and start its writer thread.
+     * @param out where log lines are written; flushed after every batch but never closed
+     * @param capacity the number of records buffered before new ones are dropped
+     * @param sampleRate the fraction of successful requests logged; client and server errors are always logged
+     * @param metricsRegistry registry for the written, sampled out and dropped counts
+     */
+    public AccessLog(Writer out, int capacity, double sampleRate, MetricsRegistry metricsRegistry) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1");
+        }
+        this.buffer = new RingBuffer<>(capacity);
+        this.out = out;
+        this.sampleRate = sampleRate;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        MetricFamily<Counter> records = metricsRegistry.counter("access_log_records_total",
+                "Access log records by outcome", "outcome");
+        this.written = records.labels("written");
+        this.sampledOut = records.labels("sampled_out");
+        this.dropped = records.labels("dropped");
+        this.failed = records.labels("failed");
+        
+        this.writerThread = new Thread(this::drainLoop, "access-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+    
+    /**
+     * Log a request. Never blocks.
+     * @param record the request to log
+     */
+    public void log(AccessLogRecord record) {
+        if (!isSampled(record)) {
+            sampledOut.inc();
+            return;
+        }
+        if (!running || !buffer.offer(record)) {
+            dropped.inc();
+        }
+    }
+    
+    /**
+     * Stop accepting records, write out everything already buffered and stop the writer thread.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private boolean isSampled(AccessLogRecord record) {
+        return record.getStatus() >= 400
+                || sampleRate >= 1
+                || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+    
+    private void drainLoop() {
+        List<AccessLogRecord> batch = new ArrayList<>(batchSize);
+        StringBuilder lines = new StringBuilder();
+        while (true) {
+            batch.clear();
+            int count = buffer.drainTo(batch, batchSize);
+            if (count == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            
+            lines.setLength(0);
+            for (AccessLogRecord record : batch) {
+                format(record, lines);
+                lines.append('\n');
+            }
+            try {
+                out.write(lines.toString());
+                out.flush();
+                written.add(count);
+            } catch (IOException e) {
+                failed.add(count);
+            }
+        }
+    }
+    
+    /**
+     * Format a record as a single-line JSON object.
+     */
+    static void format(AccessLogRecord record, StringBuilder line) {
+        line.append("{\"time\":\"").append(Instant.ofEpochMilli(record.getTimestampMillis())).append('"');
+        appendField(line, "method", record.getMethod());
+        appendField(line, "path", record.getPath());
+        appendField(line, "route", record.getRoute());
+        line.append(",\"status\":").append(record.getStatus());
+        line.append(",\"duration_ms\":").append(record.getDurationMicros() / 1000)
+                .append('.').append(String.format("%03d", record.getDurationMicros() % 1000));
+        appendField(line, "client_ip", record.getClientIp());
+        appendField(line, "user", record.getUser());
+        line.append('}');
+    }
+    
+    private static void appendField(StringBuilder line, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,60 @@
+package com.revature.monitoring;
+
+/**
+ * One request in the access log.
+ * Built on the request thread from values the request already holds; formatting happens on the writer thread.
+ */
+public final class AccessLogRecord {
+    private final long timestampMillis;
+    private final String method;
+    private final String path;
+    private final String route;
+    private final int status;
+    private final long durationMicros;
+    private final String clientIp;
+    private final String user;
+    
+    public AccessLogRecord(long timestampMillis, String method, String path, String route, int status,
+                           long durationMicros, String clientIp, String user) {
+        this.timestampMillis = timestampMillis;
+        this.method = method;
+        this.path = path;
+        this.route = route;
+        this.status = status;
+        this.durationMicros = durationMicros;
+        this.clientIp = clientIp;
+        this.user = user;
+    }
+    
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public String getRoute() {
+        return route;
+    }
+    
+    public int getStatus() {
+        return status;
+    }
+    
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+    
+    public String getClientIp() {
+        return clientIp;
+    }
+    
+    public String getUser() {
+        return user;
+    }
+}
@@ -0,0 +1,35 @@
+package com.revature.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonically increasing count.
+ * Backed by a LongAdder, so concurrent increments do not contend on a single memory location.
+ */
+public final class Counter extends Metric {
+    private final LongAdder value = new LongAdder();
+    
+    Counter() {
+    }
+    
+    public void inc() {
+        value.increment();
+    }
+    
+    /**
+     * Add to the counter.
+     * @param amount a non-negative amount
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+    
+    public long get() {
+        return value.sum();
+    }
+    
+    @Override
+    void writeSamples(StringBuilder out, String name, String labels) {
+        writeSample(out, name, labels, Long.toString(value.sum()));
+    }
+}
@@ -0,0 +1,30 @@
+package com.revature.monitoring;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Value read from a callback at scrape time, e.g. heap usage or a queue length.
+ */
+public final class Gauge extends Metric {
+    private volatile DoubleSupplier supplier = () -> 0;
+    
+    Gauge() {
+    }
+    
+    /**
+     * Set the callback supplying this gauge's value.
+     * @param supplier called on every scrape; must be cheap and thread-safe
+     */
+    public void set(DoubleSupplier supplier) {
+        this.supplier = supplier;
+    }
+    
+    public double get() {
+        return supplier.getAsDouble();
+    }
+    
+    @Override
+    void writeSamples(StringBuilder out, String name, String labels) {
+        writeSample(out, name, labels, formatDouble(get()));
+    }
+}
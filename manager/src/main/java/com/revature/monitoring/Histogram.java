@@ -0,0 +1,87 @@
+package com.revature.monitoring;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of observed values in fixed buckets.
+ * Each bucket is a LongAdder holding its own (non-cumulative) count; cumulative counts are
+ * only computed at scrape time, so recording a value is a bucket search and two adder increments.
+ */
+public final class Histogram extends Metric {
+    /** Bucket upper bounds in seconds, suited to request and query latencies. */
+    public static final double[] LATENCY_BUCKETS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    
+    private final double[] upperBounds;
+    private final LongAdder[] buckets;
+    private final DoubleAdder sum = new DoubleAdder();
+    
+    Histogram(double[] upperBounds) {
+        this.upperBounds = upperBounds;
+        // One extra bucket for values above the last bound (+Inf)
+        this.buckets = new LongAdder[upperBounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Record a value.
+     * @param value the observed value, in the unit of the bucket bounds
+     */
+    public void observe(double value) {
+        int index = Arrays.binarySearch(upperBounds, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        buckets[index].increment();
+        sum.add(value);
+    }
+    
+    /**
+     * Record a duration measured with System.nanoTime().
+     * @param nanos the duration in nanoseconds
+     */
+    public void observeNanos(long nanos) {
+        observe(nanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+    
+    /**
+     * Record the time elapsed since a System.nanoTime() reading.
+     * @param startNanos the start time
+     */
+    public void observeSince(long startNanos) {
+        observeNanos(System.nanoTime() - startNanos);
+    }
+    
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+    
+    public double getSum() {
+        return sum.sum();
+    }
+    
+    @Override
+    void writeSamples(StringBuilder out, String name, String labels) {
+        String separator = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < upperBounds.length; i++) {
+            cumulative += buckets[i].sum();
+            writeSample(out, name + "_bucket", separator + "le=\"" + formatDouble(upperBounds[i]) + "\"",
+                    Long.toString(cumulative));
+        }
+        cumulative += buckets[upperBounds.length].sum();
+        writeSample(out, name + "_bucket", separator + "le=\"+Inf\"", Long.toString(cumulative));
+        writeSample(out, name + "_sum", labels, formatDouble(sum.sum()));
+        writeSample(out, name + "_count", labels, Long.toString(cumulative));
+    }
+}
@@ -0,0 +1,49 @@
+package com.revature.monitoring;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Gauges for JVM memory, garbage collection and threads, read from the platform MXBeans at scrape time.
+ */
+public final class JvmMetrics {
+    
+    private JvmMetrics() {
+    }
+    
+    /**
+     * Register the JVM metrics with a registry.
+     * @param registry the registry to register with
+     */
+    public static void register(MetricsRegistry registry) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        MetricFamily<Gauge> used = registry.gauge("jvm_memory_used_bytes", "Used JVM memory", "area");
+        used.labels("heap").set(() -> memory.getHeapMemoryUsage().getUsed());
+        used.labels("nonheap").set(() -> memory.getNonHeapMemoryUsage().getUsed());
+        MetricFamily<Gauge> committed = registry.gauge("jvm_memory_committed_bytes", "Committed JVM memory", "area");
+        committed.labels("heap").set(() -> memory.getHeapMemoryUsage().getCommitted());
+        committed.labels("nonheap").set(() -> memory.getNonHeapMemoryUsage().getCommitted());
+        registry.gauge("jvm_memory_max_bytes", "Maximum JVM heap size, -1 if undefined", "area")
+                .labels("heap").set(() -> memory.getHeapMemoryUsage().getMax());
+        
+        MetricFamily<Gauge> collections = registry.counterFunction("jvm_gc_collections_total",
+                "Garbage collections performed", "gc");
+        MetricFamily<Gauge> collectionTime = registry.counterFunction("jvm_gc_collection_seconds_total",
+                "Time spent in garbage collection", "gc");
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections.labels(collector.getName()).set(collector::getCollectionCount);
+            collectionTime.labels(collector.getName()).set(() -> collector.getCollectionTime() / 1000.0);
+        }
+        
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        registry.gauge("jvm_threads_live", "Live JVM threads").labels().set(threads::getThreadCount);
+        
+        Runtime runtime = Runtime.getRuntime();
+        registry.gauge("process_available_processors", "Processors available to the JVM")
+                .labels().set(runtime::availableProcessors);
+        registry.gauge("process_uptime_seconds", "Time since the JVM started")
+                .labels().set(() -> ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+    }
+}
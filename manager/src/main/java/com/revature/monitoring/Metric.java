@@ -0,0 +1,39 @@
+package com.revature.monitoring;
+
+/**
+ * A single time series, or a group of series sharing the same labels (histogram buckets).
+ */
+public abstract class Metric {
+    
+    Metric() {
+    }
+    
+    /**
+     * Append this metric's samples in the Prometheus text exposition format.
+     * @param out the destination buffer
+     * @param name the metric family name
+     * @param labels rendered label pairs without braces, e.g. {@code method="GET"}, or an empty string
+     */
+    abstract void writeSamples(StringBuilder out, String name, String labels);
+    
+    static void writeSample(StringBuilder out, String name, String labels, String value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+    
+    static String formatDouble(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,84 @@
+package com.revature.monitoring;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A named metric and its children, one per combination of label values.
+ * Callers on hot paths should resolve a child once with {@link #labels(String...)} and keep it.
+ * @param <T> the metric type of the children
+ */
+public final class MetricFamily<T extends Metric> {
+    private final String name;
+    private final String help;
+    private final String type;
+    private final String[] labelNames;
+    private final Class<T> metricClass;
+    private final Supplier<T> factory;
+    private final Map<List<String>, T> children = new ConcurrentHashMap<>();
+    
+    MetricFamily(String name, String help, String type, String[] labelNames, Class<T> metricClass,
+                 Supplier<T> factory) {
+        this.name = name;
+        this.help = help;
+        this.type = type;
+        this.labelNames = labelNames.clone();
+        this.metricClass = metricClass;
+        this.factory = factory;
+    }
+    
+    /**
+     * Get the child for a combination of label values, creating it on first use.
+     * @param labelValues one value per label name, in declaration order
+     * @return the child metric
+     * @throws IllegalArgumentException if the number of values does not match the label names
+     */
+    public T labels(String... labelValues) {
+        if (labelValues.length != labelNames.length) {
+            throw new IllegalArgumentException("Metric " + name + " expects labels " + Arrays.toString(labelNames));
+        }
+        List<String> key = Arrays.asList(labelValues);
+        T child = children.get(key);
+        if (child == null) {
+            child = children.computeIfAbsent(List.copyOf(key), k -> factory.get());
+        }
+        return child;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    String getType() {
+        return type;
+    }
+    
+    Class<T> getMetricClass() {
+        return metricClass;
+    }
+    
+    void write(StringBuilder out) {
+        out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        for (Map.Entry<List<String>, T> child : children.entrySet()) {
+            child.getValue().writeSamples(out, name, renderLabels(child.getKey()));
+        }
+    }
+    
+    private String renderLabels(List<String> labelValues) {
+        StringBuilder rendered = new StringBuilder();
+        for (int i = 0; i < labelNames.length; i++) {
+            if (i > 0) {
+                rendered.append(',');
+            }
+            String value = labelValues.get(i) == null ? "" : labelValues.get(i);
+            rendered.append(labelNames[i]).append("=\"")
+                    .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return rendered.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package com.revature.monitoring;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of application metrics, rendered in the Prometheus text exposition format.
+ * Registering a metric that already exists returns the existing family, so components can
+ * look up their metrics independently. Recording values never takes a lock.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    
+    private final Map<String, MetricFamily<?>> families = new ConcurrentSkipListMap<>();
+    
+    /**
+     * Create an empty registry. The application records into {@link #getDefault()}.
+     */
+    public MetricsRegistry() {
+    }
+    
+    /**
+     * Get the process-wide registry used by the application.
+     * @return the default registry
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+    
+    /**
+     * Register or look up a counter.
+     * @param name metric name, e.g. "http_requests_total"
+     * @param help description shown to scrapers
+     * @param labelNames names of the labels children are keyed by
+     * @return the counter family
+     */
+    public MetricFamily<Counter> counter(String name, String help, String... labelNames) {
+        return register(name, help, "counter", labelNames, Counter.class, Counter::new);
+    }
+    
+    /**
+     * Register or look up a gauge whose value is read from a callback at scrape time.
+     * @param name metric name
+     * @param help description shown to scrapers
+     * @param labelNames names of the labels children are keyed by
+     * @return the gauge family
+     */
+    public MetricFamily<Gauge> gauge(String name, String help, String... labelNames) {
+        return register(name, help, "gauge", labelNames, Gauge.class, Gauge::new);
+    }
+    
+    /**
+     * Register or look up a counter whose value is maintained elsewhere and read at scrape time,
+     * e.g. the JVM's garbage collection counts.
+     * @param name metric name
+     * @param help description shown to scrapers
+     * @param labelNames names of the labels children are keyed by
+     * @return the family; children are gauges holding the callback
+     */
+    public MetricFamily<Gauge> counterFunction(String name, String help, String... labelNames) {
+        return register(name, help, "counter", labelNames, Gauge.class, Gauge::new);
+    }
+    
+    /**
+     * Register or look up a histogram.
+     * @param name metric name, e.g. "http_request_duration_seconds"
+     * @param help description shown to scrapers
+     * @param buckets ascending bucket upper bounds
+     * @param labelNames names of the labels children are keyed by
+     * @return the histogram family
+     */
+    public MetricFamily<Histogram> histogram(String name, String help, double[] buckets, String... labelNames) {
+        double[] bounds = buckets.clone();
+        return register(name, help, "histogram", labelNames, Histogram.class, () -> new Histogram(bounds));
+    }
+    
+    /**
+     * Render every metric in the Prometheus text exposition format (version 0.0.4).
+     * @return the scrape body
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (MetricFamily<?> family : families.values()) {
+            family.write(out);
+        }
+        return out.toString();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T extends Metric> MetricFamily<T> register(String name, String help, String type, String[] labelNames,
+                                                        Class<T> metricClass, Supplier<T> factory) {
+        MetricFamily<?> family = families.computeIfAbsent(name,
+                key -> new MetricFamily<>(name, help, type, labelNames, metricClass, factory));
+        if (!family.getType().equals(type) || family.getMetricClass() != metricClass) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.getType());
+        }
+        return (MetricFamily<T>) family;
+    }
+}
@@ -0,0 +1,98 @@
+package com.revature.monitoring;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * Each slot carries a sequence number telling producers whether it is free and the consumer whether
+ * it has been published, so neither side ever blocks: a full buffer rejects the offer instead.
+ * @param <T> the element type
+ */
+final class RingBuffer<T> {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the consumer thread
+    private long head;
+    
+    /**
+     * Create a ring buffer.
+     * @param capacity the number of slots, rounded up to a power of two of at least two
+     */
+    RingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        // With a single slot, "published at position n" and "free for position n + 1" would be the same sequence
+        int size = 2;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    /**
+     * Add an element without blocking. Safe to call from any thread.
+     * @param element the element to add
+     * @return false if the buffer is full
+     */
+    boolean offer(T element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    // Publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The consumer has not freed this slot since the last lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Move published elements into a list, oldest first. Must only be called from the consumer thread.
+     * @param sink receives the elements
+     * @param maxElements the most elements to move
+     * @return the number of elements moved
+     */
+    int drainTo(List<T> sink, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            sink.add(slots.get(index));
+            slots.lazySet(index, null);
+            // Hands the slot back to producers for the next lap
+            sequences.set(index, head + capacity);
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+    
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,72 @@
+package com.revature.monitoring;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures startup from process launch: until the server accepts connections, and until the first
+ * successful health check response, which is when an orchestrator starts routing traffic.
+ * Both are logged once and exported as gauges. The process start time is read from the OS rather than
+ * the runtime MXBean, so measuring startup does not load JMX during startup.
+ */
+public final class StartupTimer {
+    private final Instant processStart;
+    private final AtomicBoolean healthy = new AtomicBoolean();
+    private volatile double serverStartedSeconds = Double.NaN;
+    private volatile double firstHealthySeconds = Double.NaN;
+    
+    /**
+     * Create a timer measuring from the start of this process.
+     * @param metricsRegistry registry for the startup gauges
+     */
+    public StartupTimer(MetricsRegistry metricsRegistry) {
+        this(ProcessHandle.current().info().startInstant().orElseGet(Instant::now), metricsRegistry);
+    }
+    
+    /**
+     * Create a timer measuring from a given start time.
+     * @param processStart the time startup is measured from
+     * @param metricsRegistry registry for the startup gauges
+     */
+    public StartupTimer(Instant processStart, MetricsRegistry metricsRegistry) {
+        this.processStart = processStart;
+        metricsRegistry.gauge("startup_server_started_seconds",
+                "Time from process start until the server accepted connections").labels().set(() -> serverStartedSeconds);
+        metricsRegistry.gauge("startup_first_healthy_seconds",
+                "Time from process start until the first successful health check response")
+                .labels().set(() -> firstHealthySeconds);
+    }
+    
+    /**
+     * Record that the server has started accepting connections.
+     * @return the time since process start
+     */
+    public Duration markServerStarted() {
+        Duration elapsed = Duration.between(processStart, Instant.now());
+        serverStartedSeconds = elapsed.toNanos() / 1e9;
+        System.out.println("Server started " + elapsed.toMillis() + " ms after process start");
+        return elapsed;
+    }
+    
+    /**
+     * Record a successful health check response. Only the first call is recorded; later calls are a flag check.
+     */
+    public void markHealthy() {
+        if (healthy.get() || !healthy.compareAndSet(false, true)) {
+            return;
+        }
+        Duration elapsed = Duration.between(processStart, Instant.now());
+        firstHealthySeconds = elapsed.toNanos() / 1e9;
+        System.out.println("Time to first healthy response: " + elapsed.toMillis() + " ms");
+    }
+    
+    /**
+     * Get the time from process start until the first healthy response.
+     * @return the duration, or null if there has been no healthy response yet
+     */
+    public Duration getTimeToFirstHealthy() {
+        double seconds = firstHealthySeconds;
+        return Double.isNaN(seconds) ? null : Duration.ofNanos((long) (seconds * 1e9));
+    }
+}
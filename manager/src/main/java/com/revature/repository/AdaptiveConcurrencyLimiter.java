@@ -0,0 +1,127 @@
+package com.revature.repository;
+
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.MetricsRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient-style adaptive concurrency limit for database statements.
+ * Tracks a short-term and a long-term average of statement latency. While the short-term latency stays close
+ * to the long-term baseline the limit grows by roughly its square root per sample; when the database slows
+ * down (for example while the employee app holds the write lock) the ratio drops below one and the limit
+ * shrinks proportionally. Statements beyond the limit are refused instead of queueing for locks.
+ */
+public class AdaptiveConcurrencyLimiter {
+    public static final int DEFAULT_INITIAL_LIMIT = 8;
+    public static final int DEFAULT_MIN_LIMIT = 2;
+    public static final int DEFAULT_MAX_LIMIT = 32;
+    
+    // Latency may rise to this multiple of the baseline before the limit starts shrinking
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 500;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejections;
+    
+    private volatile int limit;
+    // Guarded by this
+    private double estimatedLimit;
+    private double shortLatency;
+    private double longLatency;
+    
+    /**
+     * Create a limiter with the default bounds, reporting to the default metrics registry.
+     */
+    public AdaptiveConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, MetricsRegistry.getDefault());
+    }
+    
+    /**
+     * Create a limiter.
+     * @param initialLimit the limit used until latency samples arrive
+     * @param minLimit the lowest the limit may fall
+     * @param maxLimit the highest the limit may grow
+     * @param metricsRegistry registry for the limit, in-flight and rejection metrics
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, MetricsRegistry metricsRegistry) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.rejections = metricsRegistry.counter("db_concurrency_rejections_total",
+                "Statements refused by the adaptive database concurrency limit").labels();
+        metricsRegistry.gauge("db_concurrency_limit", "Current adaptive database concurrency limit")
+                .labels().set(() -> limit);
+        metricsRegistry.gauge("db_concurrency_in_flight", "Statements currently holding a database permit")
+                .labels().set(inFlight::get);
+    }
+    
+    /**
+     * Take a permit for one statement.
+     * @throws DatabaseOverloadedException if the limit is reached
+     */
+    public void acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejections.inc();
+                throw new DatabaseOverloadedException("Database is busy (" + current + " statements in flight)");
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Return a permit and feed the statement's latency into the limit.
+     * @param latencyNanos the time the statement spent waiting on the database
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(latencyNanos, inFlightBefore);
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    private synchronized void update(long latencyNanos, int inFlightAtSample) {
+        double sample = Math.max(latencyNanos, 1);
+        if (longLatency == 0) {
+            shortLatency = sample;
+            longLatency = sample;
+            return;
+        }
+        shortLatency += (sample - shortLatency) / SHORT_WINDOW;
+        longLatency += (sample - longLatency) / LONG_WINDOW;
+        
+        // After a slow period the baseline is inflated; let it fall back quickly once latency recovers
+        if (longLatency / shortLatency > 2) {
+            longLatency *= 0.95;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longLatency / shortLatency));
+        // Do not grow the limit while callers are not using it
+        if (gradient == 1.0 && inFlightAtSample < estimatedLimit / 2) {
+            return;
+        }
+        
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -14,6 +14,8 @@ import java.util.Optional;
  */
 public class ApprovalRepository {
     private final DatabaseConnection databaseConnection;
+    private final QueryProfiler queryProfiler = QueryProfiler.getDefault();
+    private final WriteExecutor writeExecutor = new WriteExecutor();
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     public ApprovalRepository(DatabaseConnection databaseConnection) {
@@ -28,25 +30,29 @@ public class ApprovalRepository {
     public Optional<Approval> findByExpenseId(int expenseId) {
         String sql = "SELECT id, expense_id, status, reviewer, comment, review_date FROM approvals WHERE expense_id = ?";
         
+        QueryTrace trace = queryProfiler.start(databaseConnection, "ApprovalRepository.findByExpenseId", sql);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, expenseId);
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = trace.executeQuery(stmt);
             
-            if (rs.next()) {
+            if (trace.next(rs)) {
                 return Optional.of(mapRowToApproval(rs));
             }
             
         } catch (SQLException e) {
             throw new RuntimeException("Error finding approval for expense: " + expenseId, e);
+        } finally {
+            trace.finish();
         }
         
         return Optional.empty();
     }
     
     /**
-     * Update approval status for an expense.
+     * Update approval status for an expense, whatever its current status.
+     * Manager decisions go through {@link #decideApproval} so concurrent reviews cannot overwrite each other.
      * @param expenseId the expense ID
      * @param status the new approval status ("approved" or "denied")
      * @param reviewerId the manager's user ID
@@ -62,23 +68,86 @@ public class ApprovalRepository {
         
         String reviewDate = LocalDateTime.now().format(DATE_FORMATTER);
         
-        try (Connection conn = databaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, status);
-            stmt.setInt(2, reviewerId);
-            stmt.setString(3, comment);
-            stmt.setString(4, reviewDate);
-            stmt.setInt(5, expenseId);
-            
-            int updatedRows = stmt.executeUpdate();
-            return updatedRows > 0;
+        try {
+            return writeExecutor.execute("ApprovalRepository.updateApprovalStatus", () -> {
+                // Traced per attempt, so the permit is not held and the latency not sampled across backoff sleeps
+                QueryTrace trace = queryProfiler.start(databaseConnection, "ApprovalRepository.updateApprovalStatus", sql);
+                try (Connection conn = databaseConnection.getWriteConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    
+                    stmt.setString(1, status);
+                    stmt.setInt(2, reviewerId);
+                    stmt.setString(3, comment);
+                    stmt.setString(4, reviewDate);
+                    stmt.setInt(5, expenseId);
+                    
+                    int updatedRows = trace.executeUpdate(stmt);
+                    return updatedRows > 0;
+                } finally {
+                    trace.finish();
+                }
+            });
             
         } catch (SQLException e) {
             throw new RuntimeException("Error updating approval for expense: " + expenseId, e);
         }
     }
     
+    /**
+     * Record a manager's decision only if the approval is still in the expected status.
+     * The status check and the update are one statement, so two managers deciding the same
+     * expense cannot both succeed: the second sees a conflict instead of overwriting the first.
+     * The approval is only read back when the update did not apply, to tell a conflict from a
+     * missing record.
+     * @param expenseId the expense ID
+     * @param status the new approval status ("approved" or "denied")
+     * @param expectedStatus the status the caller last saw, usually "pending"
+     * @param reviewerId the manager's user ID
+     * @param comment optional comment from the manager
+     * @return whether the decision was applied and, if not, the approval's current status
+     */
+    public DecisionResult decideApproval(int expenseId, String status, String expectedStatus,
+                                         int reviewerId, String comment) {
+        String sql = """
+            UPDATE approvals 
+            SET status = ?, reviewer = ?, comment = ?, review_date = ?
+            WHERE expense_id = ? AND status = ?
+            """;
+        
+        String reviewDate = LocalDateTime.now().format(DATE_FORMATTER);
+        
+        boolean applied;
+        try {
+            applied = writeExecutor.execute("ApprovalRepository.decideApproval", () -> {
+                QueryTrace trace = queryProfiler.start(databaseConnection, "ApprovalRepository.decideApproval", sql);
+                try (Connection conn = databaseConnection.getWriteConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    
+                    stmt.setString(1, status);
+                    stmt.setInt(2, reviewerId);
+                    stmt.setString(3, comment);
+                    stmt.setString(4, reviewDate);
+                    stmt.setInt(5, expenseId);
+                    stmt.setString(6, expectedStatus);
+                    
+                    return trace.executeUpdate(stmt) > 0;
+                } finally {
+                    trace.finish();
+                }
+            });
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error deciding approval for expense: " + expenseId, e);
+        }
+        
+        if (applied) {
+            return DecisionResult.applied(status);
+        }
+        return findByExpenseId(expenseId)
+                .map(approval -> DecisionResult.conflict(approval.getStatus()))
+                .orElse(DecisionResult.notFound());
+    }
+    
     /**
      * Create a new approval record for an expense.
      * This should typically be called when an expense is first submitted.
@@ -89,28 +158,35 @@ public class ApprovalRepository {
     public Approval createApproval(int expenseId, String status) {
         String sql = "INSERT INTO approvals (expense_id, status) VALUES (?, ?)";
         
-        try (Connection conn = databaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setInt(1, expenseId);
-            stmt.setString(2, status);
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new RuntimeException("Creating approval failed, no rows affected.");
-            }
-            
-            ResultSet generatedKeys = stmt.getGeneratedKeys();
-            if (generatedKeys.next()) {
-                int approvalId = generatedKeys.getInt(1);
-                Approval approval = new Approval();
-                approval.setId(approvalId);
-                approval.setExpenseId(expenseId);
-                approval.setStatus(status);
-                return approval;
-            } else {
-                throw new RuntimeException("Creating approval failed, no ID obtained.");
-            }
+        try {
+            return writeExecutor.execute("ApprovalRepository.createApproval", () -> {
+                QueryTrace trace = queryProfiler.start(databaseConnection, "ApprovalRepository.createApproval", sql);
+                try (Connection conn = databaseConnection.getWriteConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    
+                    stmt.setInt(1, expenseId);
+                    stmt.setString(2, status);
+                    
+                    int affectedRows = trace.executeUpdate(stmt);
+                    if (affectedRows == 0) {
+                        throw new RuntimeException("Creating approval failed, no rows affected.");
+                    }
+                    
+                    ResultSet generatedKeys = stmt.getGeneratedKeys();
+                    if (generatedKeys.next()) {
+                        int approvalId = generatedKeys.getInt(1);
+                        Approval approval = new Approval();
+                        approval.setId(approvalId);
+                        approval.setExpenseId(expenseId);
+                        approval.setStatus(status);
+                        return approval;
+                    } else {
+                        throw new RuntimeException("Creating approval failed, no ID obtained.");
+                    }
+                } finally {
+                    trace.finish();
+                }
+            });
             
         } catch (SQLException e) {
             throw new RuntimeException("Error creating approval for expense: " + expenseId, e);
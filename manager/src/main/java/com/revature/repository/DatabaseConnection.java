@@ -1,15 +1,40 @@
 package com.revature.repository;
 
+import com.revature.monitoring.Histogram;
+import com.revature.monitoring.MetricsRegistry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
 
 /**
  * Database connection utility for SQLite database.
  * Handles connection management for the shared expense manager database.
  */
 public class DatabaseConnection {
+    // Room for the default report workers plus a couple of direct exports
+    public static final int DEFAULT_MAX_CONCURRENT_SCANS = 4;
+    private static final Histogram ACQUIRE_DURATION = MetricsRegistry.getDefault().histogram(
+            "db_connection_acquire_seconds", "Time spent opening a database connection",
+            Histogram.LATENCY_BUCKETS).labels();
+    // Writes fail fast on a locked database and are retried with jitter by WriteExecutor instead
+    private static final int WRITE_BUSY_TIMEOUT_MS = 50;
+    private static final int PROBE_BUSY_TIMEOUT_MS = 1000;
+    private static final List<String> REQUIRED_TABLES = List.of("users", "expenses", "approvals");
+    
     private final String databasePath;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter();
+    private final Semaphore scanPermits = new Semaphore(DEFAULT_MAX_CONCURRENT_SCANS);
+    private Connection versionConnection;
+    private long versionEpoch;
     
     public DatabaseConnection() {
         // Use environment variable or default path
@@ -30,6 +55,128 @@ public class DatabaseConnection {
      */
     public Connection getConnection() throws SQLException {
         String url = "jdbc:sqlite:" + databasePath;
-        return DriverManager.getConnection(url);
+        long start = System.nanoTime();
+        try {
+            return DriverManager.getConnection(url);
+        } finally {
+            ACQUIRE_DURATION.observeSince(start);
+        }
+    }
+    
+    /**
+     * Get a database connection for writes.
+     * Its busy timeout is short, so lock conflicts surface as SQLITE_BUSY for the caller's retry policy
+     * rather than blocking inside SQLite.
+     * @return SQLite database connection
+     * @throws SQLException if connection fails
+     */
+    public Connection getWriteConnection() throws SQLException {
+        String url = "jdbc:sqlite:" + databasePath;
+        Properties properties = new Properties();
+        properties.setProperty("busy_timeout", String.valueOf(WRITE_BUSY_TIMEOUT_MS));
+        long start = System.nanoTime();
+        try {
+            return DriverManager.getConnection(url, properties);
+        } finally {
+            ACQUIRE_DURATION.observeSince(start);
+        }
+    }
+    
+    /**
+     * Check that the database can be opened and holds the application tables, for readiness probes.
+     * The file must already exist: opening a wrong path would otherwise create an empty database there.
+     * @throws SQLException if the database is missing, cannot be read, or lacks a table
+     */
+    public void checkReachable() throws SQLException {
+        if (!Files.isRegularFile(Path.of(databasePath))) {
+            throw new SQLException("Database file not found: " + databasePath);
+        }
+        Properties properties = new Properties();
+        properties.setProperty("busy_timeout", String.valueOf(PROBE_BUSY_TIMEOUT_MS));
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + databasePath, properties);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table'")) {
+            List<String> missing = new ArrayList<>(REQUIRED_TABLES);
+            while (rs.next()) {
+                missing.remove(rs.getString(1));
+            }
+            if (!missing.isEmpty()) {
+                throw new SQLException("Database " + databasePath + " is missing tables " + missing);
+            }
+        }
+    }
+    
+    /**
+     * Get the limiter bounding how many repository statements run against this database at once.
+     * @return the concurrency limiter
+     */
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+    
+    /**
+     * Get the permits for streamed report scans. A scan holds one of these while the report is encoded,
+     * instead of a concurrency limiter permit, so long exports cannot crowd out short statements.
+     * @return the scan permits
+     */
+    public Semaphore getScanPermits() {
+        return scanPermits;
+    }
+    
+    /**
+     * Get the current data version of the database.
+     * The version changes whenever any connection - including the employee app and
+     * the other repositories - commits a change, so it can be used to key cached results.
+     * Backed by SQLite's PRAGMA data_version on a dedicated long-lived connection.
+     * @return the data version
+     */
+    public synchronized long getDataVersion() {
+        try {
+            if (versionConnection == null || versionConnection.isClosed()) {
+                versionConnection = getConnection();
+                // data_version restarts on a new connection, so move to a fresh epoch
+                versionEpoch++;
+            }
+            
+            try (Statement stmt = versionConnection.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA data_version")) {
+                rs.next();
+                return (versionEpoch << 32) | (rs.getLong(1) & 0xFFFFFFFFL);
+            }
+            
+        } catch (SQLException e) {
+            closeVersionConnection();
+            throw new RuntimeException("Error reading database data version", e);
+        }
+    }
+    
+    /**
+     * Close the long-lived connection and checkpoint the write-ahead log into the database file,
+     * so the next start (or the employee app) does not have to replay it. Call on shutdown after the
+     * last statement. A database that is not in WAL mode is left unchanged.
+     */
+    public synchronized void close() {
+        closeVersionConnection();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(TRUNCATE)")) {
+            // Columns: busy, WAL frames, frames checkpointed; busy means another connection still reads
+            if (rs.next() && rs.getInt(1) != 0) {
+                System.out.println("WAL checkpoint incomplete: the database is still in use by another connection");
+            }
+        } catch (SQLException e) {
+            System.out.println("WAL checkpoint failed: " + e.getMessage());
+        }
+    }
+    
+    private void closeVersionConnection() {
+        if (versionConnection != null) {
+            try {
+                versionConnection.close();
+            } catch (SQLException e) {
+                // Ignore - the connection is discarded either way
+            }
+            versionConnection = null;
+        }
     }
 }
\ No newline at end of file
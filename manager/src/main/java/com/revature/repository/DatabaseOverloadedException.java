@@ -0,0 +1,11 @@
+package com.revature.repository;
+
+/**
+ * Thrown when a repository call is refused because the database is already running
+ * as many statements as its adaptive concurrency limit allows.
+ */
+public class DatabaseOverloadedException extends RuntimeException {
+    public DatabaseOverloadedException(String message) {
+        super(message);
+    }
+}
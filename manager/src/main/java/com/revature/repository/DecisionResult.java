@@ -0,0 +1,57 @@
+package com.revature.repository;
+
+/**
+ * Outcome of a compare-and-set approval decision.
+ * When the decision was not applied because another reviewer got there first,
+ * the approval's current status is carried along so callers do not have to re-read it.
+ */
+public final class DecisionResult {
+    public enum Outcome {
+        APPLIED,
+        CONFLICT,
+        NOT_FOUND
+    }
+    
+    private static final DecisionResult NOT_FOUND = new DecisionResult(Outcome.NOT_FOUND, null);
+    
+    private final Outcome outcome;
+    private final String currentStatus;
+    
+    private DecisionResult(Outcome outcome, String currentStatus) {
+        this.outcome = outcome;
+        this.currentStatus = currentStatus;
+    }
+    
+    public static DecisionResult applied(String status) {
+        return new DecisionResult(Outcome.APPLIED, status);
+    }
+    
+    public static DecisionResult conflict(String currentStatus) {
+        return new DecisionResult(Outcome.CONFLICT, currentStatus);
+    }
+    
+    public static DecisionResult notFound() {
+        return NOT_FOUND;
+    }
+    
+    public Outcome getOutcome() {
+        return outcome;
+    }
+    
+    public boolean isApplied() {
+        return outcome == Outcome.APPLIED;
+    }
+    
+    /**
+     * Get the approval's status after the call: the new status if applied, the status
+     * another reviewer left it in on conflict, or null if there is no approval record.
+     */
+    public String getCurrentStatus() {
+        return currentStatus;
+    }
+    
+    @Override
+    public String toString() {
+        return "DecisionResult{" + outcome + (currentStatus == null ? "" : ", " + currentStatus) + "}";
+    }
+}
@@ -0,0 +1,116 @@
+package com.revature.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Filter for streaming expense queries.
+ * Mirrors the WHERE clauses of the ExpenseRepository finder methods, both as SQL
+ * and as an in-memory predicate with the same semantics as SQLite's comparison rules.
+ */
+public final class ExpenseFilter {
+    private final String kind;
+    private final String whereClause;
+    private final Object[] parameters;
+    private final String description;
+    private final Predicate<ExpenseWithUser> predicate;
+    
+    private ExpenseFilter(String kind, String whereClause, String description,
+                          Predicate<ExpenseWithUser> predicate, Object... parameters) {
+        this.kind = kind;
+        this.whereClause = whereClause;
+        this.description = description;
+        this.predicate = predicate;
+        this.parameters = parameters;
+    }
+    
+    public static ExpenseFilter all() {
+        return new ExpenseFilter("all", "", "all expenses", row -> true);
+    }
+    
+    public static ExpenseFilter pending() {
+        return new ExpenseFilter("pending", "WHERE a.status = 'pending'", "pending expenses",
+                row -> "pending".equals(row.getApproval().getStatus()));
+    }
+    
+    public static ExpenseFilter byUser(int userId) {
+        return new ExpenseFilter("byUser", "WHERE e.user_id = ?", "expenses for user: " + userId,
+                row -> row.getExpense().getUserId() == userId, userId);
+    }
+    
+    public static ExpenseFilter byCategory(String category) {
+        String pattern = "%" + category + "%";
+        Pattern like = likeToRegex(pattern);
+        return new ExpenseFilter("byCategory", "WHERE e.description LIKE ?", "expenses by category: " + category,
+                row -> row.getExpense().getDescription() != null
+                        && like.matcher(row.getExpense().getDescription()).matches(), pattern);
+    }
+    
+    public static ExpenseFilter byDateRange(String startDate, String endDate) {
+        // Dates are stored as TEXT, so SQLite compares them as strings
+        return new ExpenseFilter("byDateRange", "WHERE e.date >= ? AND e.date <= ?",
+                "expenses by date range: " + startDate + " to " + endDate,
+                row -> row.getExpense().getDate() != null
+                        && row.getExpense().getDate().compareTo(startDate) >= 0
+                        && row.getExpense().getDate().compareTo(endDate) <= 0,
+                startDate, endDate);
+    }
+    
+    /**
+     * Check whether a row fetched without this filter would have been returned with it.
+     * @param row the joined expense row
+     * @return true if the row matches
+     */
+    public boolean matches(ExpenseWithUser row) {
+        return predicate.test(row);
+    }
+    
+    /**
+     * Name of the factory that built this filter; filters of the same kind share their SQL text.
+     */
+    String getKind() {
+        return kind;
+    }
+    
+    String getWhereClause() {
+        return whereClause;
+    }
+    
+    void bind(PreparedStatement stmt) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            stmt.setObject(i + 1, parameters[i]);
+        }
+    }
+    
+    /**
+     * Translate a LIKE pattern into a regular expression.
+     * SQLite's LIKE is case-insensitive for ASCII letters only, which is also what CASE_INSENSITIVE does
+     * without UNICODE_CASE.
+     */
+    private static Pattern likeToRegex(String likePattern) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : likePattern.toCharArray()) {
+            if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    }
+    
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -7,13 +7,17 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Repository for expense data access operations.
  * Handles database interactions for expense management and reporting.
  */
 public class ExpenseRepository {
+    private static final int STREAM_FETCH_SIZE = 1000;
+    
     private final DatabaseConnection databaseConnection;
+    private final QueryProfiler queryProfiler = QueryProfiler.getDefault();
     
     public ExpenseRepository(DatabaseConnection databaseConnection) {
         this.databaseConnection = databaseConnection;
@@ -27,18 +31,21 @@ public class ExpenseRepository {
     public Optional<Expense> findById(int expenseId) {
         String sql = "SELECT id, user_id, amount, description, date FROM expenses WHERE id = ?";
         
+        QueryTrace trace = queryProfiler.start(databaseConnection, "ExpenseRepository.findById", sql);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, expenseId);
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = trace.executeQuery(stmt);
             
-            if (rs.next()) {
+            if (trace.next(rs)) {
                 return Optional.of(mapRowToExpense(rs));
             }
             
         } catch (SQLException e) {
             throw new RuntimeException("Error finding expense by ID: " + expenseId, e);
+        } finally {
+            trace.finish();
         }
         
         return Optional.empty();
@@ -62,17 +69,20 @@ public class ExpenseRepository {
         
         List<ExpenseWithUser> results = new ArrayList<>();
         
+        QueryTrace trace = queryProfiler.start(databaseConnection, "ExpenseRepository.findPendingExpensesWithUsers", sql);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = trace.executeQuery(stmt);
             
-            while (rs.next()) {
+            while (trace.next(rs)) {
                 results.add(mapRowToExpenseWithUser(rs));
             }
             
         } catch (SQLException e) {
             throw new RuntimeException("Error finding pending expenses", e);
+        } finally {
+            trace.finish();
         }
         
         return results;
@@ -97,18 +107,21 @@ public class ExpenseRepository {
         
         List<ExpenseWithUser> results = new ArrayList<>();
         
+        QueryTrace trace = queryProfiler.start(databaseConnection, "ExpenseRepository.findExpensesByUser", sql);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = trace.executeQuery(stmt);
             
-            while (rs.next()) {
+            while (trace.next(rs)) {
                 results.add(mapRowToExpenseWithUser(rs));
             }
             
         } catch (SQLException e) {
             throw new RuntimeException("Error finding expenses for user: " + userId, e);
+        } finally {
+            trace.finish();
         }
         
         return results;
@@ -134,19 +147,22 @@ public class ExpenseRepository {
         
         List<ExpenseWithUser> results = new ArrayList<>();
         
+        QueryTrace trace = queryProfiler.start(databaseConnection, "ExpenseRepository.findExpensesByDateRange", sql);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, startDate);
             stmt.setString(2, endDate);
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = trace.executeQuery(stmt);
             
-            while (rs.next()) {
+            while (trace.next(rs)) {
                 results.add(mapRowToExpenseWithUser(rs));
             }
             
         } catch (SQLException e) {
             throw new RuntimeException("Error finding expenses by date range: " + startDate + " to " + endDate, e);
+        } finally {
+            trace.finish();
         }
         
         return results;
@@ -171,18 +187,21 @@ public class ExpenseRepository {
         
         List<ExpenseWithUser> results = new ArrayList<>();
         
+        QueryTrace trace = queryProfiler.start(databaseConnection, "ExpenseRepository.findExpensesByCategory", sql);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, "%" + category + "%");
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = trace.executeQuery(stmt);
             
-            while (rs.next()) {
+            while (trace.next(rs)) {
                 results.add(mapRowToExpenseWithUser(rs));
             }
             
         } catch (SQLException e) {
             throw new RuntimeException("Error finding expenses by category: " + category, e);
+        } finally {
+            trace.finish();
         }
         
         return results;
@@ -205,22 +224,70 @@ public class ExpenseRepository {
         
         List<ExpenseWithUser> results = new ArrayList<>();
         
+        QueryTrace trace = queryProfiler.start(databaseConnection, "ExpenseRepository.findAllExpensesWithUsers", sql);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = trace.executeQuery(stmt);
             
-            while (rs.next()) {
+            while (trace.next(rs)) {
                 results.add(mapRowToExpenseWithUser(rs));
             }
             
         } catch (SQLException e) {
             throw new RuntimeException("Error finding all expenses", e);
+        } finally {
+            trace.finish();
         }
         
         return results;
     }
     
+    /**
+     * Stream expenses with their user and approval information to a consumer, row by row.
+     * Rows are read from the cursor as they are consumed, so memory use does not grow with the result size.
+     * @param filter the filter to apply
+     * @param consumer receives each ExpenseWithUser in date order, newest first
+     * @return the number of rows streamed
+     */
+    public long streamExpensesWithUsers(ExpenseFilter filter, Consumer<ExpenseWithUser> consumer) {
+        String sql = """
+            SELECT e.id, e.user_id, e.amount, e.description, e.date,
+                   u.username, u.role,
+                   a.id as approval_id, a.status, a.reviewer, a.comment, a.review_date
+            FROM expenses e
+            JOIN users u ON e.user_id = u.id
+            JOIN approvals a ON e.id = a.expense_id
+            %s
+            ORDER BY e.date DESC
+            """.formatted(filter.getWhereClause());
+        
+        long rows = 0;
+        
+        // One sqlId per filter kind, so stats and the captured plan belong to a single WHERE clause
+        QueryTrace trace = queryProfiler.startScan(databaseConnection,
+                "ExpenseRepository.streamExpensesWithUsers." + filter.getKind(), sql);
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            filter.bind(stmt);
+            ResultSet rs = trace.executeQuery(stmt);
+            
+            while (trace.next(rs)) {
+                consumer.accept(mapRowToExpenseWithUser(rs));
+                rows++;
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error streaming " + filter, e);
+        } finally {
+            trace.finish();
+        }
+        
+        return rows;
+    }
+    
     private Expense mapRowToExpense(ResultSet rs) throws SQLException {
         Expense expense = new Expense();
         expense.setId(rs.getInt("id"));
@@ -0,0 +1,47 @@
+package com.revature.repository;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one repository statement execution.
+ * Emitted by QueryTrace; its fields are filled in only when the event will be committed.
+ */
+@Name("com.revature.Query")
+@Label("Repository Query")
+@Category({"Expense Manager", "Database"})
+@Description("A statement executed by a repository method")
+@StackTrace(false)
+final class QueryEvent extends jdk.jfr.Event {
+    @Label("SQL ID")
+    String sqlId;
+    
+    @Label("SQL")
+    String sql;
+    
+    @Label("Rows")
+    @Description("Rows read, or rows affected by an update")
+    long rows;
+    
+    @Label("Execute Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long executeTime;
+    
+    @Label("Fetch Time")
+    @Description("Time spent stepping the cursor")
+    @Timespan(Timespan.NANOSECONDS)
+    long fetchTime;
+    
+    @Label("Row Handling Time")
+    @Description("Time spent by the caller between rows")
+    @Timespan(Timespan.NANOSECONDS)
+    long rowHandlingTime;
+    
+    @Label("Slow")
+    @Description("Whether the execution exceeded the slow query threshold")
+    boolean slow;
+}
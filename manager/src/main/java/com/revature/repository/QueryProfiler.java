@@ -0,0 +1,262 @@
+package com.revature.repository;
+
+import com.revature.monitoring.Histogram;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-statement profiler for the repository layer.
+ * Every repository statement runs inside a {@link QueryTrace}; finished traces are aggregated per SQL id
+ * and exported as the db_query_duration_seconds histogram. Statements slower than the threshold are logged
+ * together with their EXPLAIN QUERY PLAN, which is captured once per statement on a background thread so
+ * the slow request is not delayed further.
+ */
+public final class QueryProfiler {
+    public static final Duration DEFAULT_SLOW_THRESHOLD = Duration.ofMillis(200);
+    private static final int RECENT_SLOW_QUERY_LIMIT = 50;
+    private static final QueryProfiler DEFAULT = new QueryProfiler(MetricsRegistry.getDefault());
+    
+    /**
+     * A statement execution that exceeded the slow query threshold.
+     */
+    public static final class SlowQuery {
+        private final String sqlId;
+        private final double elapsedMillis;
+        private final long rows;
+        private final Instant occurredAt;
+        
+        private SlowQuery(String sqlId, double elapsedMillis, long rows, Instant occurredAt) {
+            this.sqlId = sqlId;
+            this.elapsedMillis = elapsedMillis;
+            this.rows = rows;
+            this.occurredAt = occurredAt;
+        }
+        
+        public String getSqlId() {
+            return sqlId;
+        }
+        
+        public double getElapsedMillis() {
+            return elapsedMillis;
+        }
+        
+        public long getRows() {
+            return rows;
+        }
+        
+        public Instant getOccurredAt() {
+            return occurredAt;
+        }
+    }
+    
+    private final MetricFamily<Histogram> queryDuration;
+    private final Map<String, QueryStats> statistics = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> plansInFlight = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> recentSlowQueries = new ArrayDeque<>();
+    private final ThreadPoolExecutor slowQueryLogger;
+    private volatile long slowThresholdNanos = DEFAULT_SLOW_THRESHOLD.toNanos();
+    
+    /**
+     * Create a profiler. The repositories record into {@link #getDefault()}.
+     * @param metricsRegistry registry the query duration histogram is registered with
+     */
+    public QueryProfiler(MetricsRegistry metricsRegistry) {
+        this.queryDuration = metricsRegistry.histogram("db_query_duration_seconds",
+                "Repository statement duration, including connection, execution and row handling",
+                Histogram.LATENCY_BUCKETS, "repository", "method");
+        // Logging and EXPLAIN run off the request thread; when they fall behind, entries are dropped
+        this.slowQueryLogger = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-logger");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+    
+    /**
+     * Get the process-wide profiler used by the repositories.
+     * @return the default profiler
+     */
+    public static QueryProfiler getDefault() {
+        return DEFAULT;
+    }
+    
+    /**
+     * Start tracing a statement. The caller must call {@link QueryTrace#finish()}, typically in a finally block.
+     * Takes a permit from the connection's concurrency limiter, which the trace returns when it finishes.
+     * @param databaseConnection connection factory used to capture the query plan if the statement is slow
+     * @param sqlId stable identifier of the statement, "Repository.method" or "Repository.method.variant"
+     * @param sql the statement text
+     * @return the trace
+     * @throws DatabaseOverloadedException if the database concurrency limit is reached
+     */
+    public QueryTrace start(DatabaseConnection databaseConnection, String sqlId, String sql) {
+        AdaptiveConcurrencyLimiter limiter = databaseConnection == null ? null
+                : databaseConnection.getConcurrencyLimiter();
+        if (limiter != null) {
+            limiter.acquire();
+        }
+        return new QueryTrace(this, databaseConnection, limiter, null, sqlId, sql);
+    }
+    
+    /**
+     * Start tracing a streamed scan whose rows are handed to a slow consumer, such as a report encoder.
+     * The concurrency limiter permit only covers the database producing the first row; from then on the scan
+     * holds one of the connection's scan permits until it finishes, so writes and logins are not starved
+     * while reports are encoded.
+     * @param databaseConnection connection factory used to capture the query plan if the statement is slow
+     * @param sqlId stable identifier of the statement, "Repository.method" or "Repository.method.variant"
+     * @param sql the statement text
+     * @return the trace
+     * @throws DatabaseOverloadedException if every scan permit is taken or the database concurrency limit is reached
+     */
+    public QueryTrace startScan(DatabaseConnection databaseConnection, String sqlId, String sql) {
+        Semaphore scanPermits = databaseConnection == null ? null : databaseConnection.getScanPermits();
+        if (scanPermits == null) {
+            return start(databaseConnection, sqlId, sql);
+        }
+        if (!scanPermits.tryAcquire()) {
+            throw new DatabaseOverloadedException("Database is busy (" + DatabaseConnection.DEFAULT_MAX_CONCURRENT_SCANS
+                    + " report scans in progress)");
+        }
+        AdaptiveConcurrencyLimiter limiter = databaseConnection.getConcurrencyLimiter();
+        try {
+            if (limiter != null) {
+                limiter.acquire();
+            }
+        } catch (DatabaseOverloadedException e) {
+            scanPermits.release();
+            throw e;
+        }
+        return new QueryTrace(this, databaseConnection, limiter, scanPermits, sqlId, sql);
+    }
+    
+    /**
+     * Set the duration above which statements are logged as slow.
+     * @param threshold the slow query threshold
+     */
+    public void setSlowQueryThreshold(Duration threshold) {
+        this.slowThresholdNanos = threshold.toNanos();
+    }
+    
+    public Duration getSlowQueryThreshold() {
+        return Duration.ofNanos(slowThresholdNanos);
+    }
+    
+    /**
+     * Get the statistics of every statement seen so far, most expensive in total first.
+     * @return the statement statistics
+     */
+    public List<QueryStats> getStatistics() {
+        List<QueryStats> sorted = new ArrayList<>(statistics.values());
+        sorted.sort(Comparator.comparingDouble(QueryStats::getTotalMillis).reversed());
+        return sorted;
+    }
+    
+    /**
+     * Get the most recent slow statement executions, newest first.
+     * @return up to 50 slow queries
+     */
+    public synchronized List<SlowQuery> getRecentSlowQueries() {
+        return new ArrayList<>(recentSlowQueries);
+    }
+    
+    /**
+     * Forget all statistics and slow queries.
+     */
+    public synchronized void reset() {
+        statistics.clear();
+        recentSlowQueries.clear();
+    }
+    
+    /**
+     * Add a finished trace to its statement's statistics.
+     * @return true if the execution was slow
+     */
+    boolean record(QueryTrace trace, long elapsedNanos) {
+        QueryStats stats = statistics.get(trace.getSqlId());
+        if (stats == null) {
+            stats = statistics.computeIfAbsent(trace.getSqlId(), id -> newStats(id, trace.getSql()));
+        }
+        
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        stats.record(trace, elapsedNanos, slow);
+        if (slow) {
+            recordSlowQuery(trace, stats, elapsedNanos);
+        }
+        return slow;
+    }
+    
+    private QueryStats newStats(String sqlId, String sql) {
+        int dot = sqlId.indexOf('.');
+        String repository = dot < 0 ? sqlId : sqlId.substring(0, dot);
+        String method = dot < 0 ? "" : sqlId.substring(dot + 1);
+        return new QueryStats(sqlId, sql, queryDuration.labels(repository, method));
+    }
+    
+    private void recordSlowQuery(QueryTrace trace, QueryStats stats, long elapsedNanos) {
+        SlowQuery slowQuery = new SlowQuery(trace.getSqlId(), elapsedNanos / 1_000_000.0, trace.getRows(), Instant.now());
+        synchronized (this) {
+            recentSlowQueries.addFirst(slowQuery);
+            if (recentSlowQueries.size() > RECENT_SLOW_QUERY_LIMIT) {
+                recentSlowQueries.removeLast();
+            }
+        }
+        
+        DatabaseConnection databaseConnection = trace.getDatabaseConnection();
+        slowQueryLogger.execute(() -> {
+            if (stats.getQueryPlan() == null && databaseConnection != null
+                    && plansInFlight.putIfAbsent(stats.getSqlId(), Boolean.TRUE) == null) {
+                try {
+                    stats.setQueryPlan(explain(databaseConnection, stats.getSql()));
+                } finally {
+                    plansInFlight.remove(stats.getSqlId());
+                }
+            }
+            System.out.printf("Slow query %s: %.1f ms (execute %.1f ms, fetch %.1f ms, row handling %.1f ms), %d rows%n"
+                            + "  plan: %s%n",
+                    slowQuery.getSqlId(), slowQuery.getElapsedMillis(),
+                    trace.getExecuteNanos() / 1_000_000.0, trace.getFetchNanos() / 1_000_000.0,
+                    trace.getConsumerNanos() / 1_000_000.0, slowQuery.getRows(),
+                    stats.getQueryPlan() == null ? "unavailable" : stats.getQueryPlan());
+        });
+    }
+    
+    private static String explain(DatabaseConnection databaseConnection, String sql) {
+        // Unbound parameters are treated as NULL, which does not change the plan's index choices
+        try (Connection conn = databaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                if (plan.length() > 0) {
+                    plan.append(" | ");
+                }
+                plan.append(rs.getString("detail"));
+            }
+            return plan.toString();
+            
+        } catch (SQLException e) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+}
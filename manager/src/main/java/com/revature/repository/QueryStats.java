@@ -0,0 +1,132 @@
+package com.revature.repository;
+
+import com.revature.monitoring.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated timings of one statement, identified by its SQL id (e.g. "ExpenseRepository.findById").
+ * Updated lock-free by concurrent queries; read as a summary on the admin endpoint.
+ */
+public final class QueryStats {
+    private final String sqlId;
+    private final String sql;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder executeNanos = new LongAdder();
+    private final LongAdder fetchNanos = new LongAdder();
+    private final LongAdder consumerNanos = new LongAdder();
+    private final LongAdder firstRowNanos = new LongAdder();
+    private final LongAdder firstRowSamples = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final Histogram duration;
+    private volatile String queryPlan;
+    
+    QueryStats(String sqlId, String sql, Histogram duration) {
+        this.sqlId = sqlId;
+        this.sql = sql;
+        this.duration = duration;
+    }
+    
+    void record(QueryTrace trace, long elapsedNanos, boolean slow) {
+        calls.increment();
+        rows.add(trace.getRows());
+        totalNanos.add(elapsedNanos);
+        executeNanos.add(trace.getExecuteNanos());
+        fetchNanos.add(trace.getFetchNanos());
+        consumerNanos.add(trace.getConsumerNanos());
+        if (trace.getFirstRowNanos() >= 0) {
+            firstRowNanos.add(trace.getFirstRowNanos());
+            firstRowSamples.increment();
+        }
+        maxNanos.accumulate(elapsedNanos);
+        duration.observeNanos(elapsedNanos);
+        if (slow) {
+            slowCalls.increment();
+        }
+    }
+    
+    void setQueryPlan(String queryPlan) {
+        this.queryPlan = queryPlan;
+    }
+    
+    public String getSqlId() {
+        return sqlId;
+    }
+    
+    public String getSql() {
+        return sql;
+    }
+    
+    public long getCalls() {
+        return calls.sum();
+    }
+    
+    public long getSlowCalls() {
+        return slowCalls.sum();
+    }
+    
+    public long getRows() {
+        return rows.sum();
+    }
+    
+    public double getTotalMillis() {
+        return millis(totalNanos.sum());
+    }
+    
+    public double getMaxMillis() {
+        return millis(maxNanos.get());
+    }
+    
+    public double getAverageMillis() {
+        return average(totalNanos.sum(), calls.sum());
+    }
+    
+    /**
+     * Average time spent executing the statement.
+     */
+    public double getAverageExecuteMillis() {
+        return average(executeNanos.sum(), calls.sum());
+    }
+    
+    /**
+     * Average time spent stepping the cursor, i.e. inside SQLite after execution.
+     */
+    public double getAverageFetchMillis() {
+        return average(fetchNanos.sum(), calls.sum());
+    }
+    
+    /**
+     * Average time the caller spent between rows, e.g. mapping rows to objects.
+     */
+    public double getAverageConsumerMillis() {
+        return average(consumerNanos.sum(), calls.sum());
+    }
+    
+    /**
+     * Average time from the start of the statement to the first row, over calls that returned rows.
+     */
+    public double getAverageFirstRowMillis() {
+        return average(firstRowNanos.sum(), firstRowSamples.sum());
+    }
+    
+    /**
+     * Get the EXPLAIN QUERY PLAN output captured the first time this statement was slow.
+     * @return the plan, or null if the statement has not been slow
+     */
+    public String getQueryPlan() {
+        return queryPlan;
+    }
+    
+    private static double average(long nanos, long count) {
+        return count == 0 ? 0 : millis(nanos) / count;
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,172 @@
+package com.revature.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Timing of a single statement execution, split into the phases a repository method goes through:
+ * executing the statement, stepping the cursor (time spent inside SQLite) and the caller's work
+ * between rows (mapping, or encoding for streamed reports).
+ * Created by {@link QueryProfiler#start} or {@link QueryProfiler#startScan}; not thread-safe.
+ */
+public final class QueryTrace {
+    private final QueryProfiler profiler;
+    private final DatabaseConnection databaseConnection;
+    private final AdaptiveConcurrencyLimiter limiter;
+    // Only set for streamed scans, which give back the limiter permit at the first row and hold this instead
+    private final Semaphore scanPermits;
+    private final String sqlId;
+    private final String sql;
+    private final long startNanos;
+    private final QueryEvent event;
+    
+    private long executeNanos;
+    private long fetchNanos;
+    private long consumerNanos;
+    private long firstRowNanos = -1;
+    private long rows;
+    private long lastReturnNanos;
+    private boolean limiterReleased;
+    private boolean finished;
+    
+    QueryTrace(QueryProfiler profiler, DatabaseConnection databaseConnection, AdaptiveConcurrencyLimiter limiter,
+               Semaphore scanPermits, String sqlId, String sql) {
+        this.profiler = profiler;
+        this.databaseConnection = databaseConnection;
+        this.limiter = limiter;
+        this.scanPermits = scanPermits;
+        this.sqlId = sqlId;
+        this.sql = sql;
+        this.event = new QueryEvent();
+        this.event.begin();
+        this.startNanos = System.nanoTime();
+    }
+    
+    /**
+     * Execute a query, timing the execution.
+     * @param stmt the prepared statement with its parameters bound
+     * @return the result set
+     * @throws SQLException if execution fails
+     */
+    public ResultSet executeQuery(PreparedStatement stmt) throws SQLException {
+        long before = System.nanoTime();
+        try {
+            return stmt.executeQuery();
+        } finally {
+            lastReturnNanos = System.nanoTime();
+            executeNanos += lastReturnNanos - before;
+        }
+    }
+    
+    /**
+     * Execute an update, timing the execution.
+     * @param stmt the prepared statement with its parameters bound
+     * @return the number of affected rows, which is recorded as the trace's row count
+     * @throws SQLException if execution fails
+     */
+    public int executeUpdate(PreparedStatement stmt) throws SQLException {
+        long before = System.nanoTime();
+        try {
+            int affected = stmt.executeUpdate();
+            rows += affected;
+            return affected;
+        } finally {
+            lastReturnNanos = System.nanoTime();
+            executeNanos += lastReturnNanos - before;
+        }
+    }
+    
+    /**
+     * Advance the cursor, attributing the time since the previous call to the caller's row handling
+     * and the time inside {@link ResultSet#next()} to fetching.
+     * @param rs the result set returned by {@link #executeQuery}
+     * @return true if a row is available
+     * @throws SQLException if the cursor cannot be advanced
+     */
+    public boolean next(ResultSet rs) throws SQLException {
+        long before = System.nanoTime();
+        if (rows > 0) {
+            consumerNanos += before - lastReturnNanos;
+        }
+        boolean hasRow = rs.next();
+        lastReturnNanos = System.nanoTime();
+        fetchNanos += lastReturnNanos - before;
+        if (hasRow && rows++ == 0) {
+            firstRowNanos = lastReturnNanos - startNanos;
+            if (scanPermits != null) {
+                releaseLimiter(firstRowNanos);
+            }
+        }
+        return hasRow;
+    }
+    
+    /**
+     * Record the trace with the profiler. Safe to call more than once; only the first call counts.
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        event.end();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        // Time until the database produced its first row (or finished), excluding the caller's row handling,
+        // so long report scans do not read as a slow database
+        releaseLimiter(firstRowNanos >= 0 ? firstRowNanos : elapsedNanos - consumerNanos);
+        if (scanPermits != null) {
+            scanPermits.release();
+        }
+        boolean slow = profiler.record(this, elapsedNanos);
+        if (event.shouldCommit()) {
+            event.sqlId = sqlId;
+            event.sql = sql;
+            event.rows = rows;
+            event.executeTime = executeNanos;
+            event.fetchTime = fetchNanos;
+            event.rowHandlingTime = consumerNanos;
+            event.slow = slow;
+            event.commit();
+        }
+    }
+    
+    private void releaseLimiter(long latencyNanos) {
+        if (limiter != null && !limiterReleased) {
+            limiterReleased = true;
+            limiter.release(latencyNanos);
+        }
+    }
+    
+    DatabaseConnection getDatabaseConnection() {
+        return databaseConnection;
+    }
+    
+    String getSqlId() {
+        return sqlId;
+    }
+    
+    String getSql() {
+        return sql;
+    }
+    
+    long getExecuteNanos() {
+        return executeNanos;
+    }
+    
+    long getFetchNanos() {
+        return fetchNanos;
+    }
+    
+    long getConsumerNanos() {
+        return consumerNanos;
+    }
+    
+    long getFirstRowNanos() {
+        return firstRowNanos;
+    }
+    
+    long getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,248 @@
+package com.revature.repository;
+
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of the users table, so authentication lookups do not query the database.
+ * A background thread polls the database data version and reloads the table only when it moved;
+ * rows that did not change keep their existing entries. Lookups read an immutable snapshot and never block.
+ * Users added or changed by another application become visible within one poll interval.
+ */
+public class UserDirectory implements AutoCloseable {
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(1);
+    
+    private static final class Snapshot {
+        private final Map<Integer, User> byId;
+        private final Map<String, User> byUsername;
+        private final long dataVersion;
+        
+        private Snapshot(Map<Integer, User> byId, Map<String, User> byUsername, long dataVersion) {
+            this.byId = byId;
+            this.byUsername = byUsername;
+            this.dataVersion = dataVersion;
+        }
+    }
+    
+    private final Supplier<List<User>> loader;
+    private final LongSupplier dataVersionSource;
+    private final Counter unchanged;
+    private final Counter reloaded;
+    private final Counter failed;
+    private final Counter added;
+    private final Counter updated;
+    private final Counter removed;
+    private final List<IntConsumer> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile BiPredicate<String, String> samePassword = (previous, current) -> false;
+    private volatile Snapshot snapshot;
+    private volatile long lastVerifiedNanos;
+    private ScheduledExecutorService poller;
+    
+    /**
+     * Create a directory and load it. Call {@link #start} to keep it current.
+     * @param loader reads every user from the database
+     * @param dataVersionSource supplies the current database data version
+     * @param metricsRegistry registry for the directory metrics
+     */
+    public UserDirectory(Supplier<List<User>> loader, LongSupplier dataVersionSource, MetricsRegistry metricsRegistry) {
+        this.loader = loader;
+        this.dataVersionSource = dataVersionSource;
+        MetricFamily<Counter> refreshes = metricsRegistry.counter("user_directory_refreshes_total",
+                "User directory polls by result", "result");
+        this.unchanged = refreshes.labels("unchanged");
+        this.reloaded = refreshes.labels("reloaded");
+        this.failed = refreshes.labels("failed");
+        MetricFamily<Counter> changes = metricsRegistry.counter("user_directory_changes_total",
+                "User rows picked up by directory reloads", "change");
+        this.added = changes.labels("added");
+        this.updated = changes.labels("updated");
+        this.removed = changes.labels("removed");
+        metricsRegistry.gauge("user_directory_users", "Users held in the directory")
+                .labels().set(() -> snapshot == null ? 0 : snapshot.byId.size());
+        metricsRegistry.gauge("user_directory_staleness_seconds",
+                "Time since the directory was last confirmed to match the database")
+                .labels().set(() -> getStaleness().toNanos() / 1e9);
+        
+        this.snapshot = new Snapshot(Map.of(), Map.of(), Long.MIN_VALUE);
+        refresh();
+    }
+    
+    /**
+     * Poll the database data version on a background thread.
+     * @param pollInterval time between polls
+     */
+    public synchronized void start(Duration pollInterval) {
+        if (poller != null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-directory-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, pollInterval.toMillis());
+        poller.scheduleWithFixedDelay(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Register a callback for users whose row changed or was deleted, called with the user ID
+     * on the refresh thread after the new snapshot is visible.
+     * @param listener receives the ID of each changed or removed user
+     */
+    public void addChangeListener(IntConsumer listener) {
+        changeListeners.add(listener);
+    }
+    
+    /**
+     * Tell the directory when a changed password column still holds the same password, e.g. a plaintext
+     * password replaced by its hash. Users whose row changed only that way are not reported to change listeners.
+     * @param samePassword tests the previous and current stored values
+     */
+    public void setPasswordEquivalence(BiPredicate<String, String> samePassword) {
+        this.samePassword = samePassword;
+    }
+    
+    /**
+     * Find a user by their ID.
+     * @param userId the user ID
+     * @return Optional containing a copy of the user if found, empty otherwise
+     */
+    public Optional<User> findById(int userId) {
+        return copyOf(snapshot.byId.get(userId));
+    }
+    
+    /**
+     * Find a user by their username. Matching is case-sensitive, like the database lookup.
+     * @param username the username
+     * @return Optional containing a copy of the user if found, empty otherwise
+     */
+    public Optional<User> findByUsername(String username) {
+        return username == null ? Optional.empty() : copyOf(snapshot.byUsername.get(username));
+    }
+    
+    /**
+     * Bring the directory up to date if the database changed since the last refresh.
+     * Failures keep the current snapshot; staleness keeps growing until a refresh succeeds.
+     * @return true if the users were reloaded
+     */
+    public boolean refresh() {
+        try {
+            // Read the version first: a change committed during the load is picked up by the next poll
+            long dataVersion = dataVersionSource.getAsLong();
+            Snapshot current = snapshot;
+            if (dataVersion == current.dataVersion) {
+                lastVerifiedNanos = System.nanoTime();
+                unchanged.inc();
+                return false;
+            }
+            
+            List<Integer> changedIds = new ArrayList<>();
+            snapshot = merge(current, loader.get(), dataVersion, changedIds);
+            lastVerifiedNanos = System.nanoTime();
+            reloaded.inc();
+            for (int userId : changedIds) {
+                for (IntConsumer listener : changeListeners) {
+                    listener.accept(userId);
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            failed.inc();
+            System.out.println("User directory refresh failed, serving the previous snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    public int size() {
+        return snapshot.byId.size();
+    }
+    
+    /**
+     * Check whether the users have been loaded at least once.
+     * @return false while the directory still holds the empty placeholder from a failed initial load
+     */
+    public boolean isLoaded() {
+        return snapshot.dataVersion != Long.MIN_VALUE;
+    }
+    
+    /**
+     * Get how long ago the directory was last confirmed to match the database.
+     * @return the staleness
+     */
+    public Duration getStaleness() {
+        return Duration.ofNanos(System.nanoTime() - lastVerifiedNanos);
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+    
+    private Snapshot merge(Snapshot current, List<User> rows, long dataVersion, List<Integer> changedIds) {
+        Map<Integer, User> byId = new HashMap<>(rows.size() * 2);
+        Map<String, User> byUsername = new HashMap<>(rows.size() * 2);
+        for (User row : rows) {
+            User existing = current.byId.get(row.getId());
+            User entry = row;
+            if (existing == null) {
+                added.inc();
+            } else if (sameRow(existing, row)) {
+                entry = existing;
+            } else {
+                updated.inc();
+                if (!onlyPasswordEncodingChanged(existing, row)) {
+                    changedIds.add(row.getId());
+                }
+            }
+            byId.put(entry.getId(), entry);
+            if (entry.getUsername() != null) {
+                byUsername.put(entry.getUsername(), entry);
+            }
+        }
+        for (Integer id : current.byId.keySet()) {
+            if (!byId.containsKey(id)) {
+                removed.inc();
+                changedIds.add(id);
+            }
+        }
+        return new Snapshot(Map.copyOf(byId), Map.copyOf(byUsername), dataVersion);
+    }
+    
+    private static boolean sameRow(User a, User b) {
+        return Objects.equals(a.getUsername(), b.getUsername())
+                && Objects.equals(a.getPassword(), b.getPassword())
+                && Objects.equals(a.getRole(), b.getRole());
+    }
+    
+    private boolean onlyPasswordEncodingChanged(User previous, User current) {
+        return Objects.equals(previous.getUsername(), current.getUsername())
+                && Objects.equals(previous.getRole(), current.getRole())
+                && samePassword.test(previous.getPassword(), current.getPassword());
+    }
+    
+    private static Optional<User> copyOf(User user) {
+        // Callers get their own copy, so the shared snapshot cannot be modified through a setter
+        return user == null ? Optional.empty()
+                : Optional.of(new User(user.getId(), user.getUsername(), user.getPassword(), user.getRole()));
+    }
+}
@@ -1,37 +1,69 @@
 package com.revature.repository;
 
+import com.revature.monitoring.MetricsRegistry;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository for user data access operations.
  * Handles database interactions for user authentication and information retrieval.
+ * Once {@link #enableDirectory} is called, lookups by ID and username are answered from an in-memory
+ * {@link UserDirectory} instead of the database.
  */
 public class UserRepository {
     private final DatabaseConnection databaseConnection;
+    private final QueryProfiler queryProfiler = QueryProfiler.getDefault();
+    private final WriteExecutor writeExecutor = new WriteExecutor();
+    private volatile UserDirectory directory;
     
     public UserRepository(DatabaseConnection databaseConnection) {
         this.databaseConnection = databaseConnection;
     }
     
+    /**
+     * Load the users table into memory and serve lookups from it from now on.
+     * The directory polls the database data version and reloads when it changes.
+     * @param pollInterval time between data version polls
+     * @param metricsRegistry registry for the directory metrics
+     * @return the directory, to be closed on shutdown
+     */
+    public synchronized UserDirectory enableDirectory(Duration pollInterval, MetricsRegistry metricsRegistry) {
+        if (directory == null) {
+            UserDirectory created = new UserDirectory(this::findAll, databaseConnection::getDataVersion, metricsRegistry);
+            created.start(pollInterval);
+            directory = created;
+        }
+        return directory;
+    }
+    
     /**
      * Find a user by their ID.
      * @param userId the user ID
      * @return Optional containing the user if found, empty otherwise
      */
     public Optional<User> findById(int userId) {
+        UserDirectory cached = directory;
+        if (cached != null) {
+            return cached.findById(userId);
+        }
+        
         String sql = "SELECT id, username, password, role FROM users WHERE id = ?";
         
+        QueryTrace trace = queryProfiler.start(databaseConnection, "UserRepository.findById", sql);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = trace.executeQuery(stmt);
             
-            if (rs.next()) {
+            if (trace.next(rs)) {
                 User user = new User();
                 user.setId(rs.getInt("id"));
                 user.setUsername(rs.getString("username"));
@@ -42,6 +74,8 @@ public class UserRepository {
             
         } catch (SQLException e) {
             throw new RuntimeException("Error finding user by ID: " + userId, e);
+        } finally {
+            trace.finish();
         }
         
         return Optional.empty();
@@ -53,15 +87,21 @@ public class UserRepository {
      * @return Optional containing the user if found, empty otherwise
      */
     public Optional<User> findByUsername(String username) {
+        UserDirectory cached = directory;
+        if (cached != null) {
+            return cached.findByUsername(username);
+        }
+        
         String sql = "SELECT id, username, password, role FROM users WHERE username = ?";
         
+        QueryTrace trace = queryProfiler.start(databaseConnection, "UserRepository.findByUsername", sql);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = trace.executeQuery(stmt);
             
-            if (rs.next()) {
+            if (trace.next(rs)) {
                 User user = new User();
                 user.setId(rs.getInt("id"));
                 user.setUsername(rs.getString("username"));
@@ -72,8 +112,77 @@ public class UserRepository {
             
         } catch (SQLException e) {
             throw new RuntimeException("Error finding user by username: " + username, e);
+        } finally {
+            trace.finish();
         }
         
         return Optional.empty();
     }
+    
+    /**
+     * Get every user, always from the database.
+     * @return List of all users, ordered by ID
+     */
+    public List<User> findAll() {
+        String sql = "SELECT id, username, password, role FROM users ORDER BY id";
+        
+        List<User> users = new ArrayList<>();
+        
+        QueryTrace trace = queryProfiler.start(databaseConnection, "UserRepository.findAll", sql);
+        try (Connection conn = databaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            ResultSet rs = trace.executeQuery(stmt);
+            
+            while (trace.next(rs)) {
+                User user = new User();
+                user.setId(rs.getInt("id"));
+                user.setUsername(rs.getString("username"));
+                user.setPassword(rs.getString("password"));
+                user.setRole(rs.getString("role"));
+                users.add(user);
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding all users", e);
+        } finally {
+            trace.finish();
+        }
+        
+        return users;
+    }
+    
+    /**
+     * Replace a user's stored password, only if it still holds the expected value.
+     * Used to upgrade a password to a hash on login without overwriting a password changed in the meantime.
+     * The directory, if enabled, picks the change up on its next poll.
+     * @param userId the user ID
+     * @param expectedPassword the stored value the password was verified against
+     * @param newPassword the new stored value
+     * @return true if the password was replaced, false if the user is gone or the password changed
+     */
+    public boolean updatePassword(int userId, String expectedPassword, String newPassword) {
+        String sql = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+        
+        try {
+            return writeExecutor.execute("UserRepository.updatePassword", () -> {
+                // One trace per attempt: backoff between attempts holds no database permit
+                QueryTrace trace = queryProfiler.start(databaseConnection, "UserRepository.updatePassword", sql);
+                try (Connection conn = databaseConnection.getWriteConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    
+                    stmt.setString(1, newPassword);
+                    stmt.setInt(2, userId);
+                    stmt.setString(3, expectedPassword);
+                    
+                    return trace.executeUpdate(stmt) > 0;
+                } finally {
+                    trace.finish();
+                }
+            });
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error updating password for user: " + userId, e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.revature.repository;
+
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.Histogram;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs database writes, retrying them while SQLite reports the database as busy or locked.
+ * The employee app writes to the same file, so short lock conflicts are expected; they are retried with
+ * exponential backoff and full jitter until a deadline, after which the last error is thrown.
+ * Any other error is thrown immediately.
+ */
+public class WriteExecutor {
+    public static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_BASE_BACKOFF = Duration.ofMillis(10);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofMillis(250);
+    
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+    
+    /**
+     * A write to run, typically opening a connection and executing one statement.
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface Write<T> {
+        T run() throws SQLException;
+    }
+    
+    private final long deadlineNanos;
+    private final long baseBackoffNanos;
+    private final long maxBackoffNanos;
+    private final MetricFamily<Counter> retries;
+    private final MetricFamily<Counter> failures;
+    private final MetricFamily<Histogram> lockWait;
+    
+    /**
+     * Create a write executor with the default deadline and backoff, reporting to the default metrics registry.
+     */
+    public WriteExecutor() {
+        this(DEFAULT_DEADLINE, DEFAULT_BASE_BACKOFF, DEFAULT_MAX_BACKOFF, MetricsRegistry.getDefault());
+    }
+    
+    /**
+     * Create a write executor.
+     * @param deadline how long a write may keep retrying
+     * @param baseBackoff the backoff before the first retry, doubled for each further retry
+     * @param maxBackoff the largest backoff between retries
+     * @param metricsRegistry registry for the retry counters and lock wait histogram
+     */
+    public WriteExecutor(Duration deadline, Duration baseBackoff, Duration maxBackoff, MetricsRegistry metricsRegistry) {
+        this.deadlineNanos = deadline.toNanos();
+        this.baseBackoffNanos = baseBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.retries = metricsRegistry.counter("db_write_retries_total",
+                "Writes retried because the database was busy or locked", "operation");
+        this.failures = metricsRegistry.counter("db_write_contention_failures_total",
+                "Writes abandoned because the database stayed busy or locked past the deadline", "operation");
+        this.lockWait = metricsRegistry.histogram("db_write_lock_wait_seconds",
+                "Time writes spent on busy attempts and backoff before completing", Histogram.LATENCY_BUCKETS,
+                "operation");
+    }
+    
+    /**
+     * Run a write, retrying busy and locked errors until the deadline.
+     * @param operation the statement id, "Repository.method", used to label metrics
+     * @param write the write to run
+     * @param <T> the result type
+     * @return the write's result
+     * @throws SQLException the error of the last attempt if it was not transient or the deadline passed
+     */
+    public <T> T execute(String operation, Write<T> write) throws SQLException {
+        long start = System.nanoTime();
+        int attempt = 0;
+        while (true) {
+            try {
+                T result = write.run();
+                if (attempt > 0) {
+                    lockWait.labels(operation).observeSince(start);
+                }
+                return result;
+            } catch (SQLException e) {
+                if (!isBusy(e)) {
+                    throw e;
+                }
+                long remaining = deadlineNanos - (System.nanoTime() - start);
+                long backoff = Math.min(maxBackoffNanos, baseBackoffNanos << Math.min(attempt, 20));
+                long sleep = Math.min(remaining, ThreadLocalRandom.current().nextLong(backoff + 1));
+                if (remaining <= 0 || !sleep(sleep)) {
+                    failures.labels(operation).inc();
+                    lockWait.labels(operation).observeSince(start);
+                    throw e;
+                }
+                attempt++;
+                retries.labels(operation).inc();
+            }
+        }
+    }
+    
+    /**
+     * Check whether an error is transient lock contention: SQLITE_BUSY or SQLITE_LOCKED,
+     * including their extended result codes.
+     * @param e the error
+     * @return true if the write may succeed when retried
+     */
+    public static boolean isBusy(SQLException e) {
+        int primaryCode = e.getErrorCode() & 0xFF;
+        if (primaryCode == SQLITE_BUSY || primaryCode == SQLITE_LOCKED) {
+            return true;
+        }
+        String message = e.getMessage();
+        return message != null && (message.contains("SQLITE_BUSY") || message.contains("SQLITE_LOCKED"));
+    }
+    
+    private static boolean sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
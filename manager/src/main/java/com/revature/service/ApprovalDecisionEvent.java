@@ -0,0 +1,35 @@
+package com.revature.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a manager approving or denying an expense.
+ */
+@Name("com.revature.ApprovalDecision")
+@Label("Approval Decision")
+@Category({"Expense Manager", "Approvals"})
+@Description("An expense approved or denied by a manager")
+final class ApprovalDecisionEvent extends jdk.jfr.Event {
+    @Label("Expense ID")
+    int expenseId;
+    
+    @Label("Manager ID")
+    int managerId;
+    
+    @Label("Decision")
+    String decision;
+    
+    @Label("Applied")
+    @Description("Whether the approval record was updated")
+    boolean applied;
+    
+    @Label("Outcome")
+    @Description("applied, conflict, not_found or failed")
+    String outcome;
+    
+    @Label("Comment Length")
+    int commentLength;
+}
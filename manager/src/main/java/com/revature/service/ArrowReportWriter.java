@@ -0,0 +1,210 @@
+package com.revature.service;
+
+import com.revature.repository.ExpenseWithUser;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampSecVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Streaming Apache Arrow IPC encoder for expense reports.
+ * Rows are appended one at a time and written as record batches of a fixed size,
+ * so only one batch is held in memory regardless of the report size.
+ * Columns keep their types: amounts as float64, dates as date32 and review dates as timestamps.
+ */
+public class ArrowReportWriter implements ReportRowWriter {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    
+    private static final DateTimeFormatter REVIEW_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final long MAX_ALLOCATION_PER_REPORT = 256L * 1024 * 1024;
+    
+    static final Schema SCHEMA = new Schema(List.of(
+        Field.notNullable("expense_id", new ArrowType.Int(32, true)),
+        Field.notNullable("employee_id", new ArrowType.Int(32, true)),
+        Field.nullable("employee", ArrowType.Utf8.INSTANCE),
+        Field.notNullable("amount", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+        Field.nullable("description", ArrowType.Utf8.INSTANCE),
+        Field.nullable("date", new ArrowType.Date(DateUnit.DAY)),
+        Field.nullable("status", ArrowType.Utf8.INSTANCE),
+        Field.nullable("reviewer", new ArrowType.Int(32, true)),
+        Field.nullable("comment", ArrowType.Utf8.INSTANCE),
+        Field.nullable("review_date", new ArrowType.Timestamp(TimeUnit.SECOND, null))
+    ));
+    
+    private static final class RootAllocatorHolder {
+        // Created on first export so startup does not pay for Arrow's memory subsystem
+        static final RootAllocator ROOT = new RootAllocator();
+    }
+    
+    private final int batchSize;
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final ArrowStreamWriter writer;
+    
+    private final IntVector expenseId;
+    private final IntVector employeeId;
+    private final VarCharVector employee;
+    private final Float8Vector amount;
+    private final VarCharVector description;
+    private final DateDayVector date;
+    private final VarCharVector status;
+    private final IntVector reviewer;
+    private final VarCharVector comment;
+    private final TimeStampSecVector reviewDate;
+    
+    private int batchRows;
+    private long totalRows;
+    
+    /**
+     * Start an Arrow IPC stream.
+     * @param out the destination stream; it is closed when this writer is closed
+     * @param batchSize number of rows per record batch
+     * @throws IOException if the stream header cannot be written
+     */
+    public ArrowReportWriter(OutputStream out, int batchSize) throws IOException {
+        this.batchSize = batchSize;
+        this.allocator = RootAllocatorHolder.ROOT.newChildAllocator("expense-report", 0, MAX_ALLOCATION_PER_REPORT);
+        this.root = VectorSchemaRoot.create(SCHEMA, allocator);
+        this.writer = new ArrowStreamWriter(root, null, out);
+        
+        this.expenseId = (IntVector) root.getVector("expense_id");
+        this.employeeId = (IntVector) root.getVector("employee_id");
+        this.employee = (VarCharVector) root.getVector("employee");
+        this.amount = (Float8Vector) root.getVector("amount");
+        this.description = (VarCharVector) root.getVector("description");
+        this.date = (DateDayVector) root.getVector("date");
+        this.status = (VarCharVector) root.getVector("status");
+        this.reviewer = (IntVector) root.getVector("reviewer");
+        this.comment = (VarCharVector) root.getVector("comment");
+        this.reviewDate = (TimeStampSecVector) root.getVector("review_date");
+        
+        root.allocateNew();
+        writer.start();
+    }
+    
+    /**
+     * Append an expense to the current batch, writing the batch once it is full.
+     * @param expenseWithUser the expense to append
+     * @throws IOException if a full batch cannot be written
+     */
+    public void append(ExpenseWithUser expenseWithUser) throws IOException {
+        int row = batchRows;
+        
+        expenseId.setSafe(row, expenseWithUser.getExpense().getId());
+        employeeId.setSafe(row, expenseWithUser.getExpense().getUserId());
+        setString(employee, row, expenseWithUser.getUser().getUsername());
+        amount.setSafe(row, expenseWithUser.getExpense().getAmount());
+        setString(description, row, expenseWithUser.getExpense().getDescription());
+        
+        Integer epochDay = parseEpochDay(expenseWithUser.getExpense().getDate());
+        if (epochDay != null) {
+            date.setSafe(row, epochDay);
+        } else {
+            date.setNull(row);
+        }
+        
+        setString(status, row, expenseWithUser.getApproval().getStatus());
+        
+        Integer reviewerId = expenseWithUser.getApproval().getReviewer();
+        if (reviewerId != null) {
+            reviewer.setSafe(row, reviewerId);
+        } else {
+            reviewer.setNull(row);
+        }
+        
+        setString(comment, row, expenseWithUser.getApproval().getComment());
+        
+        Long reviewEpochSecond = parseEpochSecond(expenseWithUser.getApproval().getReviewDate());
+        if (reviewEpochSecond != null) {
+            reviewDate.setSafe(row, reviewEpochSecond);
+        } else {
+            reviewDate.setNull(row);
+        }
+        
+        batchRows++;
+        totalRows++;
+        if (batchRows == batchSize) {
+            flushBatch();
+        }
+    }
+    
+    public long getTotalRows() {
+        return totalRows;
+    }
+    
+    /**
+     * Write the final partial batch and the end-of-stream marker, then release Arrow memory.
+     * @throws IOException if the stream cannot be finished
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (batchRows > 0) {
+                flushBatch();
+            }
+            writer.end();
+        } finally {
+            writer.close();
+            root.close();
+            allocator.close();
+        }
+    }
+    
+    private void flushBatch() throws IOException {
+        root.setRowCount(batchRows);
+        writer.writeBatch();
+        root.allocateNew();
+        batchRows = 0;
+    }
+    
+    private static void setString(VarCharVector vector, int row, String value) {
+        if (value != null) {
+            vector.setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+        } else {
+            vector.setNull(row);
+        }
+    }
+    
+    private static Integer parseEpochDay(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return (int) LocalDate.parse(value).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    private static Long parseEpochSecond(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value, REVIEW_DATE_FORMATTER).toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
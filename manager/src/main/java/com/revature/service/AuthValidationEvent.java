@@ -0,0 +1,28 @@
+package com.revature.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one JWT validation, from signature check to user lookup.
+ */
+@Name("com.revature.AuthValidation")
+@Label("Auth Validation")
+@Category({"Expense Manager", "Authentication"})
+@Description("Validation of a JWT session token")
+@StackTrace(false)
+final class AuthValidationEvent extends jdk.jfr.Event {
+    @Label("Outcome")
+    @Description("valid, invalid, revoked or unknown user")
+    String outcome;
+    
+    @Label("User ID")
+    int userId;
+    
+    @Label("Failure")
+    @Description("Why the token was rejected")
+    String failure;
+}
@@ -1,34 +1,56 @@
 package com.revature.service;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.revature.monitoring.Histogram;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
 import com.revature.repository.User;
 import com.revature.repository.UserRepository;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Service for handling authentication and authorization logic.
  * Uses JWT tokens stored in HTTP-only cookies for secure authentication.
+ * By default the user behind a token is looked up on every request; with stateless validation enabled
+ * the principal is built from the token's verified claims, and revoked tokens are rejected using the
+ * {@link TokenRevocationList}. Tokens are signed and verified with the keys of a {@link JwtKeySet}.
  */
 public class AuthenticationService {
+    public static final Duration TOKEN_LIFETIME = Duration.ofHours(24);
+    
     private final UserRepository userRepository;
-    private final Algorithm jwtAlgorithm;
-    private final JWTVerifier jwtVerifier;
+    private final JwtKeySet keySet = new JwtKeySet(JWT_ISSUER);
+    private final TokenRevocationList revocationList = new TokenRevocationList(TOKEN_LIFETIME);
+    private volatile boolean statelessValidation;
+    private volatile PasswordHasher passwordHasher;
     private static final String JWT_SECRET = "your-secret-key-change-in-production";
     private static final String JWT_ISSUER = "expense-manager";
     
+    private static final MetricFamily<Histogram> JWT_VALIDATION_DURATION = MetricsRegistry.getDefault().histogram(
+            "auth_jwt_validation_seconds", "Time spent verifying JWT signatures and claims",
+            Histogram.LATENCY_BUCKETS, "result");
+    private static final Histogram JWT_VALID = JWT_VALIDATION_DURATION.labels("valid");
+    private static final Histogram JWT_INVALID = JWT_VALIDATION_DURATION.labels("invalid");
+    
     public AuthenticationService(UserRepository userRepository) {
         this.userRepository = userRepository;
-        this.jwtAlgorithm = Algorithm.HMAC256(JWT_SECRET);
-        this.jwtVerifier = JWT.require(jwtAlgorithm)
-                .withIssuer(JWT_ISSUER)
-                .build();
+        // Signs until configured keys are activated, and keeps verifying tokens issued before key IDs
+        keySet.addHmacKey(JwtKeySet.LEGACY_KEY_ID, JWT_SECRET);
+        keySet.activate(JwtKeySet.LEGACY_KEY_ID);
+    }
+    
+    /**
+     * Get the keys tokens are signed and verified with, to load or rotate keys.
+     * @return the key set
+     */
+    public JwtKeySet getKeySet() {
+        return keySet;
     }
     
     /**
@@ -37,14 +59,66 @@ public class AuthenticationService {
      * @return JWT token string
      */
     public String createJwtToken(User user) {
+        JwtKeySet.SigningKey signingKey = keySet.getSigningKey();
         return JWT.create()
+                .withKeyId(signingKey.getKeyId())
                 .withIssuer(JWT_ISSUER)
                 .withSubject(String.valueOf(user.getId()))
+                .withJWTId(UUID.randomUUID().toString())
                 .withClaim("username", user.getUsername())
                 .withClaim("role", user.getRole())
                 .withIssuedAt(new Date())
-                .withExpiresAt(Date.from(Instant.now().plus(24, ChronoUnit.HOURS)))
-                .sign(jwtAlgorithm);
+                .withExpiresAt(Date.from(Instant.now().plus(TOKEN_LIFETIME)))
+                .sign(signingKey.getAlgorithm());
+    }
+    
+    /**
+     * Build the principal from the verified token claims instead of loading the user on every request.
+     * Role changes and logouts then take effect through the revocation list rather than a database read.
+     */
+    public void enableStatelessValidation() {
+        this.statelessValidation = true;
+    }
+    
+    public boolean isStatelessValidation() {
+        return statelessValidation;
+    }
+    
+    /**
+     * Verify hashed passwords with the given hasher, and replace legacy plaintext passwords with hashes
+     * when their users next log in successfully. Without a hasher, passwords are compared as plaintext.
+     * @param passwordHasher the hasher, whose pool bounds the CPU logins can use
+     */
+    public void enablePasswordHashing(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+    
+    /**
+     * Revoke a token so it is rejected until it expires, e.g. on logout.
+     * Tokens that are invalid anyway, or were issued without a token ID, are ignored.
+     * @param jwtToken the JWT token from HTTP-only cookie
+     */
+    public void revokeToken(String jwtToken) {
+        if (jwtToken == null || jwtToken.trim().isEmpty()) {
+            return;
+        }
+        try {
+            DecodedJWT decodedJWT = keySet.verify(jwtToken);
+            if (decodedJWT.getId() != null && decodedJWT.getExpiresAtAsInstant() != null) {
+                revocationList.revokeToken(decodedJWT.getId(), decodedJWT.getExpiresAtAsInstant());
+            }
+        } catch (JWTVerificationException e) {
+            // Nothing to revoke
+        }
+    }
+    
+    /**
+     * Revoke every token issued to a user so far, so changed roles or credentials take effect
+     * without waiting for the tokens to expire.
+     * @param userId the user ID
+     */
+    public void revokeUserTokens(int userId) {
+        revocationList.revokeUser(userId);
     }
     
     /**
@@ -57,14 +131,63 @@ public class AuthenticationService {
             return Optional.empty();
         }
         
+        AuthValidationEvent event = new AuthValidationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int userId = 0;
+        String outcome = "invalid";
+        Exception failure = null;
         try {
-            DecodedJWT decodedJWT = jwtVerifier.verify(jwtToken);
+            DecodedJWT decodedJWT;
+            try {
+                decodedJWT = keySet.verify(jwtToken);
+                JWT_VALID.observeSince(start);
+            } catch (JWTVerificationException e) {
+                JWT_INVALID.observeSince(start);
+                throw e;
+            }
             String userIdStr = decodedJWT.getSubject();
-            int userId = Integer.parseInt(userIdStr);
-            return userRepository.findById(userId);
+            userId = Integer.parseInt(userIdStr);
+            if (revocationList.isRevoked(decodedJWT.getId(), userId, decodedJWT.getIssuedAtAsInstant())) {
+                outcome = "revoked";
+                return Optional.empty();
+            }
+            
+            User principal = statelessValidation ? principalFromClaims(decodedJWT, userId) : null;
+            if (principal != null) {
+                outcome = "valid";
+                return Optional.of(principal);
+            }
+            
+            Optional<User> user = userRepository.findById(userId);
+            outcome = user.isPresent() ? "valid" : "unknown user";
+            return user;
         } catch (JWTVerificationException | NumberFormatException e) {
+            failure = e;
             return Optional.empty();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.outcome = outcome;
+                event.userId = userId;
+                event.failure = failure == null ? null : failure.getMessage();
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Build a user from verified token claims.
+     * Tokens issued before token IDs were added cannot be revoked individually, so they are not trusted
+     * on their claims alone and null is returned for them, as for tokens missing a claim.
+     */
+    private static User principalFromClaims(DecodedJWT decodedJWT, int userId) {
+        String username = decodedJWT.getClaim("username").asString();
+        String role = decodedJWT.getClaim("role").asString();
+        if (decodedJWT.getId() == null || username == null || role == null) {
+            return null;
         }
+        return new User(userId, username, null, role);
     }
     
     /**
@@ -100,6 +223,7 @@ public class AuthenticationService {
     
     /**
      * Validate that the authenticated user is a manager using JWT token.
+     * With stateless validation the role is taken from the token, so this does not access the database.
      * @param jwtToken the JWT token from HTTP-only cookie
      * @return Optional containing the manager user if valid, empty otherwise
      */
@@ -144,14 +268,30 @@ public class AuthenticationService {
      * @param username the username
      * @param password the password
      * @return Optional containing the user if authentication successful, empty otherwise
+     * @throws PasswordHashingOverloadedException if password hashing is enabled and its pool is saturated
      */
     public Optional<User> authenticateUser(String username, String password) {
         Optional<User> userOpt = userRepository.findByUsername(username);
+        PasswordHasher hasher = passwordHasher;
         
-        if (userOpt.isPresent()) {
+        if (userOpt.isEmpty() && hasher != null) {
+            // Hash anyway, so an unknown username is not answered faster than a wrong password
+            hasher.verifyDummy(password);
+        } else if (userOpt.isPresent()) {
             User user = userOpt.get();
-            // Simple password comparison - in production, passwords should be hashed
-            if (password.equals(user.getPassword())) {
+            if (hasher == null) {
+                // Simple password comparison - used when password hashing is not enabled
+                if (password.equals(user.getPassword())) {
+                    return userOpt;
+                }
+            } else if (!PasswordHasher.isHash(user.getPassword())) {
+                // A legacy plaintext row compares instantly; hash anyway so it answers as slowly as the others
+                hasher.verifyDummy(password);
+                if (hasher.verify(password, user.getPassword())) {
+                    upgradePassword(hasher, user, password);
+                    return userOpt;
+                }
+            } else if (hasher.verify(password, user.getPassword())) {
                 return userOpt;
             }
         }
@@ -159,6 +299,18 @@ public class AuthenticationService {
         return Optional.empty();
     }
     
+    /**
+     * Replace a legacy plaintext password with its hash. The login has already succeeded,
+     * so a saturated hashing pool or a failed write only postpones the upgrade to the next login.
+     */
+    private void upgradePassword(PasswordHasher hasher, User user, String password) {
+        try {
+            userRepository.updatePassword(user.getId(), user.getPassword(), hasher.hash(password));
+        } catch (RuntimeException e) {
+            System.out.println("Password upgrade for user " + user.getId() + " postponed: " + e.getMessage());
+        }
+    }
+    
     /**
      * Authenticate manager login with username and password.
      * Only allows login if user is a manager.
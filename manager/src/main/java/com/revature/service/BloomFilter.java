@@ -0,0 +1,104 @@
+package com.revature.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings and ints.
+ * Membership tests read the bit array without locking and without allocating: the key is hashed
+ * in place and k bit positions are derived from two 64-bit hashes (Kirsch-Mitzenmacher double hashing).
+ * A negative answer is definite; a positive answer may be false with roughly the configured probability
+ * while no more than the expected number of keys have been added.
+ */
+final class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    
+    /**
+     * Create an empty filter.
+     * @param expectedInsertions number of keys the filter is sized for
+     * @param falsePositiveRate target false positive probability at that size
+     */
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+    
+    void put(CharSequence key) {
+        long hash = fnv1a(key);
+        setBits(mix(hash), mix(hash ^ 0x9E3779B97F4A7C15L));
+    }
+    
+    boolean mightContain(CharSequence key) {
+        long hash = fnv1a(key);
+        return testBits(mix(hash), mix(hash ^ 0x9E3779B97F4A7C15L));
+    }
+    
+    void put(int key) {
+        setBits(mix(key), mix(key ^ 0x9E3779B97F4A7C15L));
+    }
+    
+    boolean mightContain(int key) {
+        return testBits(mix(key), mix(key ^ 0x9E3779B97F4A7C15L));
+    }
+    
+    int getHashCount() {
+        return hashCount;
+    }
+    
+    long getBitCount() {
+        return bitCount;
+    }
+    
+    private void setBits(long h1, long h2) {
+        // An odd step is never zero, which would test the same bit k times
+        long step = h2 | 1;
+        long combined = h1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitCount;
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word = words.get(index);
+            while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                word = words.get(index);
+            }
+            combined += step;
+        }
+    }
+    
+    private boolean testBits(long h1, long h2) {
+        long step = h2 | 1;
+        long combined = h1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += step;
+        }
+        return true;
+    }
+    
+    private static long fnv1a(CharSequence key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    // MurmurHash3 fmix64 finalizer, so nearby keys set unrelated bits
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
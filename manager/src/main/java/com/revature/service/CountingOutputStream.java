@@ -0,0 +1,32 @@
+package com.revature.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that counts the bytes written through it.
+ */
+final class CountingOutputStream extends FilterOutputStream {
+    private long count;
+    
+    CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+    
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+    
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+    
+    long getCount() {
+        return count;
+    }
+}
@@ -1,19 +1,36 @@
 package com.revature.service;
 
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.MetricsRegistry;
 import com.revature.repository.ApprovalRepository;
+import com.revature.repository.DecisionResult;
 import com.revature.repository.ExpenseRepository;
 import com.revature.repository.ExpenseWithUser;
 import com.revature.repository.User;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service for expense management business logic.
  * Handles expense approvals, reporting, and related operations.
  */
 public class ExpenseService {
+    private static final String CSV_HEADER = "Expense ID,Employee,Amount,Description,Date,Status,Reviewer,Comment,Review Date\n";
+    private static final Counter CSV_ROWS_WRITTEN = MetricsRegistry.getDefault()
+            .counter("report_csv_rows_written_total", "Expense rows written to CSV reports").labels();
+    private static final Counter CSV_BYTES_WRITTEN = MetricsRegistry.getDefault()
+            .counter("report_csv_bytes_written_total", "UTF-8 bytes written to CSV reports").labels();
+    
     private final ExpenseRepository expenseRepository;
     private final ApprovalRepository approvalRepository;
     
@@ -31,7 +48,8 @@ public class ExpenseService {
     }
     
     /**
-     * Approve an expense.
+     * Approve an expense, whatever its current status.
+     * Overwrites a decision another manager already made; manager decisions go through {@link #decideExpense}.
      * @param expenseId the expense ID to approve
      * @param managerId the manager's user ID
      * @param comment optional comment from manager
@@ -42,7 +60,8 @@ public class ExpenseService {
     }
     
     /**
-     * Deny an expense.
+     * Deny an expense, whatever its current status.
+     * Overwrites a decision another manager already made; manager decisions go through {@link #decideExpense}.
      * @param expenseId the expense ID to deny
      * @param managerId the manager's user ID
      * @param comment optional comment from manager
@@ -52,6 +71,37 @@ public class ExpenseService {
         return approvalRepository.updateApprovalStatus(expenseId, "denied", managerId, comment);
     }
     
+    /**
+     * Approve or deny an expense, provided nobody has decided it since the manager looked at it.
+     * @param expenseId the expense ID
+     * @param managerId the manager's user ID
+     * @param decision "approved" or "denied"
+     * @param expectedStatus the status the manager saw, usually "pending"
+     * @param comment optional comment from manager
+     * @return the outcome; on conflict it carries the status the expense is now in
+     */
+    public DecisionResult decideExpense(int expenseId, int managerId, String decision,
+                                        String expectedStatus, String comment) {
+        ApprovalDecisionEvent event = new ApprovalDecisionEvent();
+        event.begin();
+        DecisionResult result = null;
+        try {
+            result = approvalRepository.decideApproval(expenseId, decision, expectedStatus, managerId, comment);
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.expenseId = expenseId;
+                event.managerId = managerId;
+                event.decision = decision;
+                event.applied = result != null && result.isApplied();
+                event.outcome = result == null ? "failed" : result.getOutcome().name().toLowerCase();
+                event.commentLength = comment == null ? 0 : comment.length();
+                event.commit();
+            }
+        }
+    }
+    
     /**
      * Get expenses for a specific employee.
      * @param employeeId the employee's user ID
@@ -88,50 +138,220 @@ public class ExpenseService {
         return expenseRepository.findAllExpensesWithUsers();
     }
     
+    /**
+     * Get the expenses a report request covers.
+     * @param request the report request
+     * @return List of expenses matching the request's filters
+     */
+    public List<ExpenseWithUser> getExpensesForReport(ReportRequest request) {
+        switch (request.getType()) {
+            case PENDING:
+                return getPendingExpenses();
+            case EMPLOYEE:
+                return getExpensesByEmployee(request.getEmployeeId());
+            case CATEGORY:
+                return getExpensesByCategory(request.getCategory());
+            case DATE_RANGE:
+                return getExpensesByDateRange(request.getStartDate(), request.getEndDate());
+            case ALL:
+            default:
+                return getAllExpenses();
+        }
+    }
+    
+    /**
+     * Stream the expenses a report request covers, row by row, straight from the database cursor.
+     * @param request the report request
+     * @param consumer receives each matching expense
+     * @return the number of rows streamed
+     */
+    public long streamExpensesForReport(ReportRequest request, Consumer<ExpenseWithUser> consumer) {
+        return expenseRepository.streamExpensesWithUsers(request.toFilter(), consumer);
+    }
+    
+    /**
+     * Write a report in the given format.
+     * @param request the report request
+     * @param format the output format
+     * @param out the destination stream
+     * @throws IOException if writing fails
+     */
+    public void writeReport(ReportRequest request, ReportFormat format, OutputStream out) throws IOException {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
+        // Counting costs a call per write, so only pay for it while the event is recorded
+        CountingOutputStream counter = event.isEnabled() ? new CountingOutputStream(out) : null;
+        OutputStream target = counter == null ? out : counter;
+        long rows = 0;
+        boolean failed = true;
+        try {
+            switch (format) {
+                case ARROW:
+                    rows = writeArrowReport(request, target);
+                    break;
+                case XLSX:
+                    rows = writeXlsxReport(request, target);
+                    break;
+                case CSV:
+                default:
+                    List<ExpenseWithUser> expenses = getExpensesForReport(request);
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+                    writeCsvReport(expenses, writer);
+                    writer.flush();
+                    rows = expenses.size();
+                    break;
+            }
+            failed = false;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.report = request.toString();
+                event.format = format.getExtension();
+                event.rows = rows;
+                event.bytes = counter == null ? 0 : counter.getCount();
+                event.batchSize = 1;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Write a report as an Apache Arrow IPC stream.
+     * Rows are encoded in record batches as they are read from the database cursor.
+     * @param request the report request
+     * @param out the destination stream
+     * @return the number of rows written
+     * @throws IOException if writing fails
+     */
+    public long writeArrowReport(ReportRequest request, OutputStream out) throws IOException {
+        try (ArrowReportWriter arrowWriter = new ArrowReportWriter(out, ArrowReportWriter.DEFAULT_BATCH_SIZE)) {
+            return streamExpensesForReport(request, expense -> {
+                try {
+                    arrowWriter.append(expense);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Write a report as an XLSX workbook.
+     * Rows are read from the database cursor and only a small window of them is held in memory at a time.
+     * @param request the report request
+     * @param out the destination stream
+     * @return the number of rows written
+     * @throws IOException if writing fails
+     */
+    public long writeXlsxReport(ReportRequest request, OutputStream out) throws IOException {
+        try (XlsxReportWriter xlsxWriter = new XlsxReportWriter(out, XlsxReportWriter.DEFAULT_ROW_WINDOW)) {
+            return streamExpensesForReport(request, expense -> {
+                try {
+                    xlsxWriter.append(expense);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
     /**
      * Generate a CSV report of expenses.
      * @param expenses the list of expenses to include in the report
      * @return CSV string representation of the expenses
      */
     public String generateCsvReport(List<ExpenseWithUser> expenses) {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         StringWriter csvWriter = new StringWriter();
         
-        // CSV Header
-        csvWriter.append("Expense ID,Employee,Amount,Description,Date,Status,Reviewer,Comment,Review Date\n");
+        try {
+            writeCsvReport(expenses, csvWriter);
+        } catch (IOException e) {
+            // StringWriter never throws
+            throw new UncheckedIOException(e);
+        }
         
-        // CSV Data
+        String csv = csvWriter.toString();
+        event.end();
+        if (event.shouldCommit()) {
+            event.format = ReportFormat.CSV.getExtension();
+            event.rows = expenses.size();
+            event.bytes = utf8Length(csv);
+            event.batchSize = 1;
+            event.commit();
+        }
+        return csv;
+    }
+    
+    /**
+     * Write a CSV report of expenses to a writer.
+     * @param expenses the expenses to include in the report
+     * @param csvWriter the destination writer
+     * @throws IOException if writing fails
+     */
+    public void writeCsvReport(Iterable<ExpenseWithUser> expenses, Writer csvWriter) throws IOException {
+        writeCsvHeader(csvWriter);
         for (ExpenseWithUser expenseWithUser : expenses) {
-            csvWriter.append(String.valueOf(expenseWithUser.getExpense().getId())).append(",");
-            csvWriter.append(escapeCsvValue(expenseWithUser.getUser().getUsername())).append(",");
-            csvWriter.append(String.valueOf(expenseWithUser.getExpense().getAmount())).append(",");
-            csvWriter.append(escapeCsvValue(expenseWithUser.getExpense().getDescription())).append(",");
-            csvWriter.append(expenseWithUser.getExpense().getDate()).append(",");
-            csvWriter.append(expenseWithUser.getApproval().getStatus()).append(",");
-            
-            // Reviewer (might be null for pending expenses)
-            Integer reviewerId = expenseWithUser.getApproval().getReviewer();
-            if (reviewerId != null) {
-                csvWriter.append(String.valueOf(reviewerId));
-            }
-            csvWriter.append(",");
-            
-            // Comment (might be null)
-            String comment = expenseWithUser.getApproval().getComment();
-            if (comment != null) {
-                csvWriter.append(escapeCsvValue(comment));
-            }
-            csvWriter.append(",");
-            
-            // Review Date (might be null for pending expenses)
-            String reviewDate = expenseWithUser.getApproval().getReviewDate();
-            if (reviewDate != null) {
-                csvWriter.append(reviewDate);
-            }
-            
-            csvWriter.append("\n");
+            writeCsvRow(csvWriter, expenseWithUser);
         }
+    }
+    
+    /**
+     * Write the CSV report header line.
+     * @param csvWriter the destination writer
+     * @throws IOException if writing fails
+     */
+    public void writeCsvHeader(Writer csvWriter) throws IOException {
+        csvWriter.append(CSV_HEADER);
+        CSV_BYTES_WRITTEN.add(CSV_HEADER.length());
+    }
+    
+    /**
+     * Write a single expense as a CSV report line.
+     * @param csvWriter the destination writer
+     * @param expenseWithUser the expense to write
+     * @throws IOException if writing fails
+     */
+    public void writeCsvRow(Writer csvWriter, ExpenseWithUser expenseWithUser) throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        line.append(String.valueOf(expenseWithUser.getExpense().getId())).append(",");
+        line.append(escapeCsvValue(expenseWithUser.getUser().getUsername())).append(",");
+        line.append(String.valueOf(expenseWithUser.getExpense().getAmount())).append(",");
+        line.append(escapeCsvValue(expenseWithUser.getExpense().getDescription())).append(",");
+        line.append(expenseWithUser.getExpense().getDate()).append(",");
+        line.append(expenseWithUser.getApproval().getStatus()).append(",");
+        
+        // Reviewer (might be null for pending expenses)
+        Integer reviewerId = expenseWithUser.getApproval().getReviewer();
+        if (reviewerId != null) {
+            line.append(String.valueOf(reviewerId));
+        }
+        line.append(",");
+        
+        // Comment (might be null)
+        String comment = expenseWithUser.getApproval().getComment();
+        if (comment != null) {
+            line.append(escapeCsvValue(comment));
+        }
+        line.append(",");
         
-        return csvWriter.toString();
+        // Review Date (might be null for pending expenses)
+        String reviewDate = expenseWithUser.getApproval().getReviewDate();
+        if (reviewDate != null) {
+            line.append(reviewDate);
+        }
+        
+        line.append("\n");
+        
+        csvWriter.append(line);
+        CSV_ROWS_WRITTEN.inc();
+        CSV_BYTES_WRITTEN.add(utf8Length(line));
     }
     
     /**
@@ -151,4 +371,23 @@ public class ExpenseService {
         
         return value;
     }
+    
+    private static long utf8Length(CharSequence text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // A surrogate pair encodes one 4-byte code point
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,408 @@
+package com.revature.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The keys JWTs are signed and verified with, identified by key ID (the {@code kid} header).
+ * One key signs new tokens; every key in the set verifies them, so the signing key can be rotated
+ * without invalidating tokens that are still in use. A verifier is built once per key and cached,
+ * and a token is checked only against the verifier of the key it names.
+ * <p>
+ * Keys are HMAC secrets (HS256), or RSA (RS256) and P-256 EC (ES256) key pairs. Only the public half
+ * of a key pair is needed to verify, so other services can check tokens without being able to issue them.
+ * <p>
+ * Keys can be loaded from a directory holding {@code <kid>.secret} (HMAC secret), {@code <kid>.pub.pem}
+ * (X.509 public key) and {@code <kid>.pem} (PKCS#8 private key) files, plus an {@code active} file naming
+ * the signing key. Rotation: add the new key everywhere, switch {@code active} once every instance has
+ * picked it up, and remove the old key after the token lifetime.
+ */
+public class JwtKeySet implements AutoCloseable {
+    public static final String LEGACY_KEY_ID = "legacy";
+    public static final String ACTIVE_KEY_FILE = "active";
+    public static final Duration DEFAULT_RELOAD_INTERVAL = Duration.ofSeconds(30);
+    private static final int MIN_SECRET_BYTES = 32;
+    
+    /**
+     * A key that can sign tokens, with the ID to put in their header.
+     */
+    public static final class SigningKey {
+        private final String keyId;
+        private final Algorithm algorithm;
+        
+        private SigningKey(String keyId, Algorithm algorithm) {
+            this.keyId = keyId;
+            this.algorithm = algorithm;
+        }
+        
+        public String getKeyId() {
+            return keyId;
+        }
+        
+        public Algorithm getAlgorithm() {
+            return algorithm;
+        }
+    }
+    
+    private static final class Entry {
+        private final Algorithm algorithm;
+        private final JWTVerifier verifier;
+        private final PublicKey publicKey;
+        private final boolean canSign;
+        // File contents the key was loaded from, so an unchanged key keeps its cached verifier on reload
+        private final String source;
+        
+        private Entry(Algorithm algorithm, JWTVerifier verifier, PublicKey publicKey, boolean canSign, String source) {
+            this.algorithm = algorithm;
+            this.verifier = verifier;
+            this.publicKey = publicKey;
+            this.canSign = canSign;
+            this.source = source;
+        }
+    }
+    
+    private final String issuer;
+    private final Map<String, Entry> keys = new ConcurrentHashMap<>();
+    private volatile SigningKey signingKey;
+    private ScheduledExecutorService reloader;
+    
+    /**
+     * Create an empty key set.
+     * @param issuer the issuer every verified token must carry
+     */
+    public JwtKeySet(String issuer) {
+        this.issuer = issuer;
+    }
+    
+    /**
+     * Add or replace an HS256 key.
+     * @param keyId the key ID
+     * @param secret the shared secret
+     */
+    public void addHmacKey(String keyId, String secret) {
+        putKey(keyId, Algorithm.HMAC256(secret), null, true, null);
+    }
+    
+    /**
+     * Add or replace an RS256 or ES256 key, chosen by the type of the keys.
+     * @param keyId the key ID
+     * @param publicKey the RSA or P-256 EC public key
+     * @param privateKey the matching private key, or null for a key that only verifies
+     */
+    public void addKeyPair(String keyId, PublicKey publicKey, PrivateKey privateKey) {
+        putKey(keyId, algorithmFor(publicKey, privateKey), publicKey, privateKey != null, null);
+    }
+    
+    /**
+     * Sign new tokens with a key already in the set.
+     * @param keyId the key ID
+     * @throws IllegalArgumentException if the key is unknown or has no private key
+     */
+    public synchronized void activate(String keyId) {
+        Entry entry = keys.get(keyId);
+        if (entry == null || !entry.canSign) {
+            throw new IllegalArgumentException("No signing key with ID " + keyId);
+        }
+        signingKey = new SigningKey(keyId, entry.algorithm);
+    }
+    
+    /**
+     * Stop accepting tokens signed with a key. The signing key cannot be removed.
+     * @param keyId the key ID
+     * @return true if the key was removed
+     */
+    public synchronized boolean removeKey(String keyId) {
+        SigningKey current = signingKey;
+        if (current != null && current.keyId.equals(keyId)) {
+            return false;
+        }
+        return keys.remove(keyId) != null;
+    }
+    
+    /**
+     * Get the key new tokens are signed with.
+     * @return the signing key
+     * @throws IllegalStateException if no key has been activated
+     */
+    public SigningKey getSigningKey() {
+        SigningKey current = signingKey;
+        if (current == null) {
+            throw new IllegalStateException("No JWT signing key is active");
+        }
+        return current;
+    }
+    
+    /**
+     * Verify a token against the key named in its header. Tokens without a key ID were issued before
+     * key IDs existed and are verified with the {@link #LEGACY_KEY_ID} key.
+     * @param token the JWT
+     * @return the verified token
+     * @throws JWTVerificationException if the token is malformed, names an unknown key or fails verification
+     */
+    public DecodedJWT verify(String token) {
+        DecodedJWT decoded = JWT.decode(token);
+        String keyId = decoded.getKeyId() == null ? LEGACY_KEY_ID : decoded.getKeyId();
+        Entry entry = keys.get(keyId);
+        if (entry == null) {
+            throw new JWTVerificationException("Unknown JWT key ID: " + keyId);
+        }
+        // The verifier also rejects a token whose alg header does not match the key's algorithm
+        return entry.verifier.verify(decoded);
+    }
+    
+    public boolean containsKey(String keyId) {
+        return keys.containsKey(keyId);
+    }
+    
+    /**
+     * Get the public keys as a JSON Web Key Set, for services that verify our tokens.
+     * HMAC keys are secret and not included.
+     * @return the keys, each as a JWK map
+     */
+    public List<Map<String, Object>> getPublicJwks() {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        keys.forEach((keyId, entry) -> {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            if (entry.publicKey instanceof RSAPublicKey rsa) {
+                jwk.put("kty", "RSA");
+                jwk.put("n", base64Url(rsa.getModulus(), 0));
+                jwk.put("e", base64Url(rsa.getPublicExponent(), 0));
+            } else if (entry.publicKey instanceof ECPublicKey ec) {
+                jwk.put("kty", "EC");
+                jwk.put("crv", "P-256");
+                jwk.put("x", base64Url(ec.getW().getAffineX(), 32));
+                jwk.put("y", base64Url(ec.getW().getAffineY(), 32));
+            } else {
+                return;
+            }
+            jwk.put("kid", keyId);
+            jwk.put("use", "sig");
+            jwk.put("alg", entry.algorithm.getName());
+            jwks.add(jwk);
+        });
+        return jwks;
+    }
+    
+    /**
+     * Load the keys in a directory, replacing the keys previously loaded from it.
+     * Keys whose files did not change keep their cached verifiers; keys whose files were removed are dropped.
+     * Keys added in code, such as the legacy key, are not touched.
+     * @param directory the key directory
+     * @return the number of keys loaded
+     * @throws IOException if the directory or a key file cannot be read
+     * @throws GeneralSecurityException if a key file does not hold a supported key
+     */
+    public synchronized int loadDirectory(Path directory) throws IOException, GeneralSecurityException {
+        Map<String, String> secrets = new HashMap<>();
+        Map<String, String> publicKeys = new HashMap<>();
+        Map<String, String> privateKeys = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".secret")) {
+                    secrets.put(stripSuffix(name, ".secret"), Files.readString(file, StandardCharsets.UTF_8).trim());
+                } else if (name.endsWith(".pub.pem")) {
+                    publicKeys.put(stripSuffix(name, ".pub.pem"), Files.readString(file, StandardCharsets.US_ASCII));
+                } else if (name.endsWith(".pem")) {
+                    privateKeys.put(stripSuffix(name, ".pem"), Files.readString(file, StandardCharsets.US_ASCII));
+                }
+            }
+        }
+        
+        // Parse everything before changing the set, so a bad file leaves the current keys in place
+        Map<String, Entry> loaded = new HashMap<>();
+        for (Map.Entry<String, String> secret : secrets.entrySet()) {
+            byte[] bytes = secret.getValue().getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < MIN_SECRET_BYTES) {
+                throw new GeneralSecurityException("HMAC secret " + secret.getKey() + " is shorter than "
+                        + MIN_SECRET_BYTES + " bytes");
+            }
+            loaded.put(secret.getKey(), reuseOrBuild(secret.getKey(), "secret:" + secret.getValue(),
+                    () -> Algorithm.HMAC256(bytes), null, true));
+        }
+        for (Map.Entry<String, String> publicPem : publicKeys.entrySet()) {
+            String keyId = publicPem.getKey();
+            String privatePem = privateKeys.get(keyId);
+            PublicKey publicKey = parsePublicKey(publicPem.getValue());
+            PrivateKey privateKey = privatePem == null ? null : parsePrivateKey(privatePem, publicKey.getAlgorithm());
+            loaded.put(keyId, reuseOrBuild(keyId, publicPem.getValue() + privatePem,
+                    () -> algorithmFor(publicKey, privateKey), publicKey, privateKey != null));
+        }
+        for (String keyId : privateKeys.keySet()) {
+            if (!publicKeys.containsKey(keyId)) {
+                throw new GeneralSecurityException("Private key " + keyId + " has no " + keyId + ".pub.pem");
+            }
+        }
+        
+        Path activeFile = directory.resolve(ACTIVE_KEY_FILE);
+        String activeKeyId = Files.exists(activeFile) ? Files.readString(activeFile, StandardCharsets.UTF_8).trim() : null;
+        if (activeKeyId != null && !activeKeyId.isEmpty()) {
+            Entry active = loaded.getOrDefault(activeKeyId, keys.get(activeKeyId));
+            if (active == null || !active.canSign) {
+                throw new GeneralSecurityException("Active JWT key " + activeKeyId + " has no private key or secret");
+            }
+        }
+        
+        keys.entrySet().removeIf(key -> key.getValue().source != null && !loaded.containsKey(key.getKey())
+                && (signingKey == null || !signingKey.keyId.equals(key.getKey())));
+        keys.putAll(loaded);
+        if (activeKeyId != null && !activeKeyId.isEmpty()) {
+            activate(activeKeyId);
+        } else if (signingKey != null && keys.containsKey(signingKey.keyId)) {
+            // The signing key was replaced in place; sign with its new algorithm instance
+            activate(signingKey.keyId);
+        }
+        return loaded.size();
+    }
+    
+    /**
+     * Reload a key directory on a background thread, so keys can be rotated without a restart.
+     * A reload that fails keeps the current keys.
+     * @param directory the key directory
+     * @param interval time between reloads
+     */
+    public synchronized void startReloading(Path directory, Duration interval) {
+        if (reloader != null) {
+            return;
+        }
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-key-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, interval.toMillis());
+        reloader.scheduleWithFixedDelay(() -> {
+            try {
+                loadDirectory(directory);
+            } catch (IOException | GeneralSecurityException | RuntimeException e) {
+                System.out.println("JWT key reload failed, keeping the current keys: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+            reloader = null;
+        }
+    }
+    
+    private interface AlgorithmFactory {
+        Algorithm create() throws GeneralSecurityException;
+    }
+    
+    private Entry reuseOrBuild(String keyId, String source, AlgorithmFactory factory, PublicKey publicKey,
+                               boolean canSign) throws GeneralSecurityException {
+        Entry existing = keys.get(keyId);
+        if (existing != null && source.equals(existing.source)) {
+            return existing;
+        }
+        Algorithm algorithm = factory.create();
+        return new Entry(algorithm, buildVerifier(algorithm), publicKey, canSign, source);
+    }
+    
+    private synchronized void putKey(String keyId, Algorithm algorithm, PublicKey publicKey, boolean canSign,
+                                     String source) {
+        SigningKey current = signingKey;
+        boolean signing = current != null && current.keyId.equals(keyId);
+        if (signing && !canSign) {
+            throw new IllegalStateException("The signing key " + keyId + " cannot be replaced by a verification-only key");
+        }
+        keys.put(keyId, new Entry(algorithm, buildVerifier(algorithm), publicKey, canSign, source));
+        if (signing) {
+            signingKey = new SigningKey(keyId, algorithm);
+        }
+    }
+    
+    private JWTVerifier buildVerifier(Algorithm algorithm) {
+        return JWT.require(algorithm)
+                .withIssuer(issuer)
+                .build();
+    }
+    
+    private static Algorithm algorithmFor(PublicKey publicKey, PrivateKey privateKey) {
+        if (publicKey instanceof RSAPublicKey rsa) {
+            return Algorithm.RSA256(rsa, (RSAPrivateKey) privateKey);
+        }
+        if (publicKey instanceof ECPublicKey ec) {
+            if (ec.getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new IllegalArgumentException("Only P-256 EC keys are supported (ES256)");
+            }
+            return Algorithm.ECDSA256(ec, (ECPrivateKey) privateKey);
+        }
+        throw new IllegalArgumentException("Unsupported JWT key type: " + publicKey.getAlgorithm());
+    }
+    
+    private static PublicKey parsePublicKey(String pem) throws GeneralSecurityException {
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(pemBody(pem));
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(spec);
+        } catch (GeneralSecurityException e) {
+            return KeyFactory.getInstance("EC").generatePublic(spec);
+        }
+    }
+    
+    private static PrivateKey parsePrivateKey(String pem, String keyAlgorithm) throws GeneralSecurityException {
+        return KeyFactory.getInstance(keyAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(pemBody(pem)));
+    }
+    
+    private static byte[] pemBody(String pem) throws GeneralSecurityException {
+        StringBuilder body = new StringBuilder();
+        for (String line : pem.split("\\R")) {
+            if (!line.startsWith("-----")) {
+                body.append(line.trim());
+            }
+        }
+        try {
+            return Base64.getDecoder().decode(body.toString());
+        } catch (IllegalArgumentException e) {
+            throw new GeneralSecurityException("Key file is not valid PEM", e);
+        }
+    }
+    
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        // Drop the sign byte BigInteger adds, and left-pad EC coordinates to the curve size
+        int offset = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int size = Math.max(bytes.length - offset, length);
+        byte[] unsigned = new byte[size];
+        System.arraycopy(bytes, offset, unsigned, size - (bytes.length - offset), bytes.length - offset);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+    }
+    
+    private static String stripSuffix(String name, String suffix) {
+        return name.substring(0, name.length() - suffix.length());
+    }
+}
@@ -0,0 +1,274 @@
+package com.revature.service;
+
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.Histogram;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes and verifies passwords with PBKDF2-HMAC-SHA256, stored as
+ * {@code pbkdf2-sha256$<iterations>$<salt>$<hash>} (Base64), a format the employee app can verify too.
+ * <p>
+ * Hashing is deliberately slow, so it runs on a small dedicated pool instead of request threads:
+ * a login burst then queues here rather than stalling every other endpoint. The queue is bounded, and a
+ * task that waited longer than the queue timeout is dropped without hashing; both cases throw
+ * {@link PasswordHashingOverloadedException}. The iteration count is calibrated to a target latency on the
+ * actual hardware in the background once the server is up, so logins served before that use the initial count.
+ * Stored values without the prefix are legacy plaintext passwords.
+ */
+public class PasswordHasher implements AutoCloseable {
+    public static final String PREFIX = "pbkdf2-sha256$";
+    public static final int DEFAULT_ITERATIONS = 310_000;
+    public static final int MIN_ITERATIONS = 100_000;
+    public static final int MAX_ITERATIONS = 10_000_000;
+    public static final Duration DEFAULT_TARGET_LATENCY = Duration.ofMillis(100);
+    public static final Duration DEFAULT_QUEUE_TIMEOUT = Duration.ofSeconds(2);
+    public static final int DEFAULT_QUEUE_CAPACITY = 32;
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    // Salt and hash of the stand-in checked when a login names an unknown user; nothing derives to all zeros
+    private static final String DUMMY_SALT_AND_HASH = Base64.getEncoder().withoutPadding().encodeToString(new byte[SALT_BYTES])
+            + "$" + Base64.getEncoder().withoutPadding().encodeToString(new byte[HASH_BITS / 8]);
+    
+    private final ThreadPoolExecutor executor;
+    private final long queueTimeoutNanos;
+    private final SecureRandom random = new SecureRandom();
+    private volatile int iterations;
+    private final Histogram hashDuration;
+    private final Histogram verifyDuration;
+    private final Histogram queueWait;
+    private final Counter queueFull;
+    private final Counter queueTimedOut;
+    
+    /**
+     * Create a hasher with its own thread pool.
+     * @param iterations PBKDF2 iterations for new hashes until {@link #calibrate} is called
+     * @param threads hashing threads, which bounds the CPU logins can use
+     * @param queueCapacity hashing tasks that may wait for a thread before new ones are rejected
+     * @param queueTimeout longest time a task may wait for a thread before it is dropped
+     * @param metricsRegistry registry for the hashing metrics
+     */
+    public PasswordHasher(int iterations, int threads, int queueCapacity, Duration queueTimeout,
+                          MetricsRegistry metricsRegistry) {
+        this.iterations = iterations;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        
+        MetricFamily<Histogram> durations = metricsRegistry.histogram("password_hash_seconds",
+                "Time spent computing password hashes", Histogram.LATENCY_BUCKETS, "operation");
+        this.hashDuration = durations.labels("hash");
+        this.verifyDuration = durations.labels("verify");
+        this.queueWait = metricsRegistry.histogram("password_hash_queue_wait_seconds",
+                "Time password hashing tasks waited for a hashing thread", Histogram.LATENCY_BUCKETS).labels();
+        MetricFamily<Counter> rejections = metricsRegistry.counter("password_hash_rejections_total",
+                "Password hashing tasks refused because the hashing pool was saturated", "reason");
+        this.queueFull = rejections.labels("queue_full");
+        this.queueTimedOut = rejections.labels("queue_timeout");
+        metricsRegistry.gauge("password_hash_queue_depth", "Password hashing tasks waiting for a thread")
+                .labels().set(() -> executor.getQueue().size());
+        metricsRegistry.gauge("password_hash_iterations", "PBKDF2 iterations used for new password hashes")
+                .labels().set(() -> this.iterations);
+    }
+    
+    /**
+     * Pick the iteration count so one hash takes about the target latency on this machine,
+     * within {@link #MIN_ITERATIONS} and {@link #MAX_ITERATIONS}. Runs on the calling thread and may run while
+     * logins are served: until it returns, new hashes use the previous count. Existing hashes keep the iteration
+     * count they were created with.
+     * @param targetLatency the time one hash should take
+     * @return the chosen iteration count
+     */
+    public int calibrate(Duration targetLatency) {
+        char[] sample = "calibration-password".toCharArray();
+        byte[] salt = newSalt();
+        int probe = 20_000;
+        // The first runs are interpreted; measure once the JIT has compiled the HMAC loop
+        for (int i = 0; i < 5; i++) {
+            derive(sample, salt, probe);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            derive(sample, salt, probe);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double nanosPerIteration = (double) Math.max(1, best) / probe;
+        long calibrated = Math.round(targetLatency.toNanos() / nanosPerIteration);
+        iterations = (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, calibrated));
+        return iterations;
+    }
+    
+    public int getIterations() {
+        return iterations;
+    }
+    
+    /**
+     * Hash a password on the hashing pool, waiting for the result.
+     * @param password the plaintext password
+     * @return the stored form of the hash
+     * @throws PasswordHashingOverloadedException if the hashing pool is saturated
+     */
+    public String hash(String password) {
+        int cost = iterations;
+        return runOnPool(() -> {
+            long start = System.nanoTime();
+            byte[] salt = newSalt();
+            byte[] hash = derive(password.toCharArray(), salt, cost);
+            hashDuration.observeSince(start);
+            Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+            return PREFIX + cost + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(hash);
+        });
+    }
+    
+    /**
+     * Check a password against its stored form. Hashes are verified on the hashing pool; legacy plaintext
+     * values are compared in constant time on the calling thread.
+     * @param password the password given at login
+     * @param stored the stored hash or legacy plaintext password
+     * @return true if the password matches
+     * @throws PasswordHashingOverloadedException if the hashing pool is saturated
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHash(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        return runOnPool(() -> {
+            long start = System.nanoTime();
+            boolean matches = matchesHash(password, stored);
+            verifyDuration.observeSince(start);
+            return matches;
+        });
+    }
+    
+    /**
+     * Verify a password against a stand-in hash at the current iteration count, which never matches.
+     * Called when a login names an unknown user or one with a legacy plaintext password, so every login costs
+     * one hash verification and response times do not reveal which usernames exist.
+     * @param password the password given at login
+     * @throws PasswordHashingOverloadedException if the hashing pool is saturated
+     */
+    public void verifyDummy(String password) {
+        verify(password == null ? "" : password, PREFIX + iterations + "$" + DUMMY_SALT_AND_HASH);
+    }
+    
+    /**
+     * Check whether a stored value was replaced by a hash of the same password, i.e. a legacy plaintext
+     * password was upgraded. Runs on the calling thread.
+     * @param previous the previously stored value
+     * @param current the currently stored value
+     * @return true if previous is plaintext and current is a hash of it
+     */
+    public boolean isRehashOf(String previous, String current) {
+        return previous != null && !isHash(previous) && isHash(current) && matchesHash(previous, current);
+    }
+    
+    /**
+     * Check whether a stored value is a hash rather than a legacy plaintext password.
+     * @param stored the stored value
+     * @return true for hashes in this hasher's format
+     */
+    public static boolean isHash(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+    
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+    
+    private <T> T runOnPool(Callable<T> work) {
+        long enqueued = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - enqueued;
+                queueWait.observeNanos(waited);
+                if (waited > queueTimeoutNanos) {
+                    queueTimedOut.inc();
+                    throw new PasswordHashingOverloadedException("Password hashing queue wait exceeded the timeout");
+                }
+                return work.call();
+            });
+        } catch (RejectedExecutionException e) {
+            queueFull.inc();
+            throw new PasswordHashingOverloadedException("Password hashing queue is full");
+        }
+        
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingOverloadedException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+    
+    private static boolean matchesHash(String password, String stored) {
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int cost = Integer.parseInt(parts[0]);
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            if (cost < 1 || cost > MAX_ITERATIONS) {
+                return false;
+            }
+            return MessageDigest.isEqual(derive(password.toCharArray(), salt, cost), expected);
+        } catch (IllegalArgumentException e) {
+            // Corrupt stored value: treat as a mismatch rather than failing the login with a 500
+            return false;
+        }
+    }
+    
+    private byte[] newSalt() {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return salt;
+    }
+    
+    private static byte[] derive(char[] password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
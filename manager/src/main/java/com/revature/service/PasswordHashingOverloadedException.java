@@ -0,0 +1,11 @@
+package com.revature.service;
+
+/**
+ * Thrown when a password cannot be hashed or verified because the hashing pool is saturated:
+ * its queue is full, or the task waited longer than the queue timeout.
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+    public PasswordHashingOverloadedException(String message) {
+        super(message);
+    }
+}
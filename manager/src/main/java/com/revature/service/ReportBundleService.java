@@ -0,0 +1,251 @@
+package com.revature.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service for building several reports into one ZIP archive.
+ * Cached reports are served as they are; reports that still have to be generated share a single scan
+ * of the expense table through the ReportEngine, which runs on a bounded read pool. Entries are written
+ * in the order requested, so the archive streams to the client while the scan is still running.
+ */
+public class ReportBundleService {
+    public static final int MAX_REPORTS_PER_BUNDLE = 10;
+    
+    private final ReportCache reportCache;
+    private final ReportEngine reportEngine;
+    private final ExecutorService readPool;
+    
+    /**
+     * Create a report bundle service.
+     * @param expenseService service used to query and encode reports
+     * @param reportCache cache to serve and store reports through, or null to generate into temporary files
+     * @param readThreads number of bundle scans run concurrently
+     */
+    public ReportBundleService(ExpenseService expenseService, ReportCache reportCache, int readThreads) {
+        this.reportCache = reportCache;
+        this.reportEngine = new ReportEngine(expenseService);
+        this.readPool = Executors.newFixedThreadPool(readThreads, namedDaemonThreads("report-reader"));
+    }
+    
+    /**
+     * Write a ZIP archive containing one entry per distinct report request.
+     * The output stream is finished but not closed.
+     * @param requests the reports to include, in archive order
+     * @param format the format every report is encoded in
+     * @param out the destination stream
+     * @throws IOException if a report cannot be generated or written
+     * @throws IllegalArgumentException if no reports or too many reports are requested
+     */
+    public void writeBundle(List<ReportRequest> requests, ReportFormat format, OutputStream out) throws IOException {
+        Set<ReportRequest> distinct = new LinkedHashSet<>(requests);
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("At least one report is required");
+        }
+        if (distinct.size() > MAX_REPORTS_PER_BUNDLE) {
+            throw new IllegalArgumentException("A bundle can contain at most " + MAX_REPORTS_PER_BUNDLE + " reports");
+        }
+        
+        Map<ReportRequest, Future<Map<ReportRequest, GeneratedReport>>> pending = new HashMap<>();
+        List<Path> tempFiles = new ArrayList<>();
+        try {
+            List<ReportRequest> misses = new ArrayList<>();
+            for (ReportRequest request : distinct) {
+                ReportCache.Entry cached = reportCache == null ? null
+                        : reportCache.getIfPresent(request, format.getExtension());
+                if (cached != null) {
+                    pending.put(request, CompletableFuture.completedFuture(
+                            Map.of(request, new GeneratedReport(cached, null))));
+                } else {
+                    misses.add(request);
+                }
+            }
+            
+            if (!misses.isEmpty()) {
+                Map<ReportRequest, Path> outputs = new LinkedHashMap<>();
+                for (ReportRequest request : misses) {
+                    Path tempFile = Files.createTempFile("expense-bundle-", "." + format.getExtension());
+                    tempFiles.add(tempFile);
+                    outputs.put(request, tempFile);
+                }
+                Future<Map<ReportRequest, GeneratedReport>> scan = readPool.submit(() -> generate(outputs, format));
+                for (ReportRequest request : misses) {
+                    pending.put(request, scan);
+                }
+            }
+            
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out));
+            Set<String> entryNames = new HashSet<>();
+            for (ReportRequest request : distinct) {
+                GeneratedReport report = await(pending.get(request)).get(request);
+                zip.putNextEntry(new ZipEntry(uniqueName(entryNames, request.fileName(format.getExtension()))));
+                report.writeTo(zip);
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            for (Future<?> future : pending.values()) {
+                future.cancel(true);
+            }
+            releaseCached(pending.values());
+            for (Path tempFile : tempFiles) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+    
+    /**
+     * Stop the read pool. Bundles still being generated are abandoned.
+     */
+    public void shutdown() {
+        readPool.shutdownNow();
+    }
+    
+    /**
+     * Generate the reports into their temporary files with one scan and, when caching, hand them to the cache.
+     */
+    private Map<ReportRequest, GeneratedReport> generate(Map<ReportRequest, Path> outputs, ReportFormat format)
+            throws IOException {
+        // Read before the scan, so a change committed while scanning invalidates these entries
+        long dataVersion = reportCache == null ? 0 : reportCache.currentDataVersion();
+        
+        List<ReportEngine.ReportSink> sinks = new ArrayList<>();
+        List<OutputStream> streams = new ArrayList<>();
+        try {
+            for (Map.Entry<ReportRequest, Path> output : outputs.entrySet()) {
+                OutputStream stream = new BufferedOutputStream(Files.newOutputStream(output.getValue()));
+                streams.add(stream);
+                sinks.add(new ReportEngine.ReportSink(output.getKey(), format, stream));
+            }
+            reportEngine.run(sinks);
+        } finally {
+            for (OutputStream stream : streams) {
+                stream.close();
+            }
+        }
+        
+        Map<ReportRequest, GeneratedReport> generated = new HashMap<>();
+        try {
+            for (Map.Entry<ReportRequest, Path> output : outputs.entrySet()) {
+                Path tempFile = output.getValue();
+                if (reportCache != null) {
+                    ReportCache.Entry entry = reportCache.getOrCreate(output.getKey(), format.getExtension(),
+                            dataVersion, out -> Files.copy(tempFile, out));
+                    generated.put(output.getKey(), new GeneratedReport(entry, null));
+                } else {
+                    generated.put(output.getKey(), new GeneratedReport(null, tempFile));
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Report bundle abandoned");
+            }
+        } catch (IOException | RuntimeException e) {
+            // Nobody will read these entries, so give them back here
+            if (reportCache != null) {
+                generated.values().forEach(report -> reportCache.release(report.entry));
+            }
+            throw e;
+        }
+        return generated;
+    }
+    
+    /**
+     * Give the cache entries of finished generations back to the report cache.
+     */
+    private void releaseCached(Collection<Future<Map<ReportRequest, GeneratedReport>>> futures) {
+        if (reportCache == null) {
+            return;
+        }
+        // Misses share one scan future, so release each generation once
+        for (Future<Map<ReportRequest, GeneratedReport>> future : new HashSet<>(futures)) {
+            if (future.isDone() && !future.isCancelled()) {
+                try {
+                    future.get().values().forEach(report -> reportCache.release(report.entry));
+                } catch (InterruptedException | ExecutionException e) {
+                    // Failed generations hold no entries
+                }
+            }
+        }
+    }
+    
+    private static Map<ReportRequest, GeneratedReport> await(Future<Map<ReportRequest, GeneratedReport>> future)
+            throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating report bundle", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to generate report", cause);
+        }
+    }
+    
+    private static String uniqueName(Set<String> entryNames, String fileName) {
+        String name = fileName;
+        int dot = fileName.lastIndexOf('.');
+        for (int suffix = 2; !entryNames.add(name); suffix++) {
+            name = fileName.substring(0, dot) + "_" + suffix + fileName.substring(dot);
+        }
+        return name;
+    }
+    
+    private static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    /**
+     * A generated report, either held by the report cache or in a temporary file owned by the bundle.
+     */
+    private final class GeneratedReport {
+        private final ReportCache.Entry entry;
+        private final Path tempFile;
+        
+        private GeneratedReport(ReportCache.Entry entry, Path tempFile) {
+            this.entry = entry;
+            this.tempFile = tempFile;
+        }
+        
+        void writeTo(OutputStream out) throws IOException {
+            if (entry != null) {
+                reportCache.transferTo(entry, out);
+            } else {
+                Files.copy(tempFile, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.revature.service;
+
+import com.revature.util.FileTransfer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of generated report files.
+ * Entries are keyed by report type, report parameters, output format and the database data version,
+ * so any committed change to the database makes older entries unreachable. Every entry is stored on disk;
+ * small entries are also kept in memory. Both tiers are bounded and evicted in least-recently-used order.
+ * <p>
+ * Entries handed out by {@link #getOrCreate} and {@link #getIfPresent} are reference counted: the caller must
+ * pass each one to {@link #release} once it has been sent. An evicted or outdated entry's file is deleted only
+ * when its last reader releases it, so a download started before an approval bumped the data version completes.
+ */
+public class ReportCache {
+    // <sha256 of the key>-<uuid>.<format>, plus .part while being written
+    private static final Pattern CACHE_FILE_NAME = Pattern.compile(
+            "[0-9a-f]{64}-[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\.[a-z0-9]+(\\.part)?");
+    
+    /**
+     * Writes an encoded report to an output stream.
+     */
+    @FunctionalInterface
+    public interface ReportEncoder {
+        void encode(OutputStream out) throws IOException;
+    }
+    
+    /**
+     * A materialized report held by the cache.
+     */
+    public static final class Entry {
+        private final String key;
+        private final long dataVersion;
+        private final Path path;
+        private final long size;
+        private final String etag;
+        private final Instant createdAt;
+        private volatile byte[] bytes;
+        // Guarded by the cache
+        private int references;
+        private boolean removed;
+        private boolean deleted;
+        
+        private Entry(String key, long dataVersion, Path path, long size, String etag, Instant createdAt) {
+            this.key = key;
+            this.dataVersion = dataVersion;
+            this.path = path;
+            this.size = size;
+            this.etag = etag;
+            this.createdAt = createdAt;
+        }
+        
+        public Path getPath() {
+            return path;
+        }
+        
+        public long getSize() {
+            return size;
+        }
+        
+        /**
+         * Get the strong entity tag of this report, quoted for use in an ETag header.
+         * It is derived from the file's content, so it changes whenever a regenerated report's bytes do.
+         * @return the ETag value
+         */
+        public String getEtag() {
+            return etag;
+        }
+        
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+    }
+    
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final long maxMemoryBytes;
+    private final long maxMemoryEntryBytes;
+    private final LongSupplier dataVersionSource;
+    
+    // Access-ordered, so iteration starts at the least recently used entry. Guarded by "this".
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private long diskBytes;
+    private long memoryBytes;
+    private long currentDataVersion = Long.MIN_VALUE;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    /**
+     * Create a report cache.
+     * @param directory directory cached report files are written to; cache files left in it by a previous run are removed
+     * @param maxDiskBytes maximum total size of cached report files
+     * @param maxMemoryBytes maximum total size of reports also held in memory
+     * @param maxMemoryEntryBytes largest report that is held in memory
+     * @param dataVersionSource supplies the current database data version
+     */
+    public ReportCache(Path directory, long maxDiskBytes, long maxMemoryBytes, long maxMemoryEntryBytes,
+                       LongSupplier dataVersionSource) {
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxMemoryEntryBytes = maxMemoryEntryBytes;
+        this.dataVersionSource = dataVersionSource;
+        
+        try {
+            Files.createDirectories(directory);
+            // The index lives in memory, so files left over from a previous run are unreachable.
+            // Only the cache's own files are removed, in case the directory is shared.
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, path ->
+                    Files.isRegularFile(path) && CACHE_FILE_NAME.matcher(path.getFileName().toString()).matches())) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to prepare report cache directory: " + directory, e);
+        }
+    }
+    
+    /**
+     * Get a cached report, generating it if it is not cached for the current data version.
+     * Concurrent requests for the same report share a single generation. Pass the entry to {@link #release}
+     * when done with it.
+     * @param request the report request
+     * @param format the output format (e.g. "csv"), used in the key and file extension
+     * @param encoder writes the report when it is not cached
+     * @return the cached report
+     * @throws IOException if the report cannot be written to the cache
+     */
+    public Entry getOrCreate(ReportRequest request, String format, ReportEncoder encoder) throws IOException {
+        return getOrCreate(request, format, dataVersionSource.getAsLong(), encoder);
+    }
+    
+    /**
+     * Get a cached report for a known data version, generating it if it is not cached.
+     * Used when the report content was produced before it is handed to the cache.
+     * Pass the entry to {@link #release} when done with it.
+     * @param request the report request
+     * @param format the output format (e.g. "csv"), used in the key and file extension
+     * @param dataVersion the data version read before the report's data was queried
+     * @param encoder writes the report when it is not cached
+     * @return the cached report
+     * @throws IOException if the report cannot be written to the cache
+     */
+    public Entry getOrCreate(ReportRequest request, String format, long dataVersion, ReportEncoder encoder)
+            throws IOException {
+        String key = request.cacheKey() + "|" + format + "|" + dataVersion;
+        
+        Entry cached = lookup(key, dataVersion);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        
+        CompletableFuture<Entry> generation = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = inFlight.putIfAbsent(key, generation);
+        if (existing != null) {
+            hits.incrementAndGet();
+            Entry generated = awaitGeneration(existing);
+            if (retain(generated)) {
+                return generated;
+            }
+            // Outdated and released by everyone else before this thread got to it
+            return getOrCreate(request, format, dataVersion, encoder);
+        }
+        
+        misses.incrementAndGet();
+        try {
+            Entry created = materialize(key, dataVersion, format, encoder);
+            insert(created);
+            generation.complete(created);
+            return created;
+        } catch (IOException | RuntimeException e) {
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, generation);
+        }
+    }
+    
+    /**
+     * Get a report if it is cached for the current data version, without generating it.
+     * Pass a returned entry to {@link #release} when done with it.
+     * @param request the report request
+     * @param format the output format (e.g. "csv")
+     * @return the cached report, or null if it is not cached
+     */
+    public Entry getIfPresent(ReportRequest request, String format) {
+        long dataVersion = dataVersionSource.getAsLong();
+        Entry cached = lookup(request.cacheKey() + "|" + format + "|" + dataVersion, dataVersion);
+        if (cached != null) {
+            hits.incrementAndGet();
+        }
+        return cached;
+    }
+    
+    /**
+     * Give back an entry obtained from {@link #getOrCreate} or {@link #getIfPresent}. Its file is deleted if the
+     * entry has left the cache and no other reader holds it.
+     * @param entry the entry, or null
+     */
+    public synchronized void release(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        entry.references--;
+        if (entry.removed && entry.references == 0) {
+            delete(entry);
+        }
+    }
+    
+    /**
+     * Get the current database data version.
+     * @return the data version
+     */
+    public long currentDataVersion() {
+        return dataVersionSource.getAsLong();
+    }
+    
+    /**
+     * Copy a cached report to an output stream.
+     * @param entry the cached report
+     * @param out the destination stream
+     * @throws IOException if reading or writing fails
+     */
+    public void transferTo(Entry entry, OutputStream out) throws IOException {
+        transferTo(entry, 0, entry.size, out);
+    }
+    
+    /**
+     * Copy a slice of a cached report to an output stream.
+     * Reports held in memory are written directly; others are streamed from disk by {@link FileTransfer}.
+     * @param entry the cached report
+     * @param offset first byte to copy
+     * @param length number of bytes to copy
+     * @param out the destination stream
+     * @throws IOException if reading or writing fails
+     */
+    public void transferTo(Entry entry, long offset, long length, OutputStream out) throws IOException {
+        byte[] bytes = entry.bytes;
+        if (bytes != null) {
+            out.write(bytes, (int) offset, (int) length);
+            return;
+        }
+        FileTransfer.transfer(entry.path, offset, length, out);
+    }
+    
+    /**
+     * Remove every entry from the cache. Files are deleted once no reader holds them.
+     */
+    public synchronized void clear() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            remove(entry);
+        }
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    public long getEvictions() {
+        return evictions.get();
+    }
+    
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+    
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+    
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+    
+    private synchronized Entry lookup(String key, long dataVersion) {
+        if (dataVersion > currentDataVersion) {
+            // The database changed, so entries for older versions can never be hit again
+            currentDataVersion = dataVersion;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.dataVersion != dataVersion) {
+                    iterator.remove();
+                    remove(entry);
+                }
+            }
+        }
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.references++;
+        }
+        return entry;
+    }
+    
+    private synchronized boolean retain(Entry entry) {
+        if (entry.deleted) {
+            return false;
+        }
+        entry.references++;
+        return true;
+    }
+    
+    // Inserts a new entry on behalf of the thread that generated it, which holds the first reference
+    private synchronized void insert(Entry entry) {
+        entry.references++;
+        Entry previous = entries.put(entry.key, entry);
+        if (previous != null) {
+            remove(previous);
+        }
+        diskBytes += entry.size;
+        if (entry.bytes != null) {
+            memoryBytes += entry.size;
+        }
+        
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (diskBytes > maxDiskBytes && entries.size() > 1 && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (eldest == entry) {
+                continue;
+            }
+            iterator.remove();
+            remove(eldest);
+            evictions.incrementAndGet();
+        }
+        
+        iterator = entries.values().iterator();
+        while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (eldest.bytes != null) {
+                memoryBytes -= eldest.size;
+                eldest.bytes = null;
+            }
+        }
+    }
+    
+    // Called with the lock held after the entry was removed from the map. Its file stays until the last reader
+    // releases it; it no longer counts against the budget, since the cache cannot hand it out again.
+    private void remove(Entry entry) {
+        entry.removed = true;
+        diskBytes -= entry.size;
+        if (entry.bytes != null) {
+            memoryBytes -= entry.size;
+        }
+        if (entry.references == 0) {
+            delete(entry);
+        }
+    }
+    
+    private void delete(Entry entry) {
+        entry.deleted = true;
+        try {
+            Files.deleteIfExists(entry.path);
+        } catch (IOException e) {
+            // Ignore - the file is unreachable and will be removed on the next start
+        }
+    }
+    
+    private Entry materialize(String key, long dataVersion, String format, ReportEncoder encoder) throws IOException {
+        Path target = directory.resolve(sha256Hex(key) + "-" + UUID.randomUUID() + "." + format);
+        Path partial = directory.resolve(target.getFileName() + ".part");
+        
+        // The ETag is a hash of the bytes written, not of the key: a report regenerated for the same key and
+        // data version (after eviction or a restart) can differ, e.g. XLSX embeds its creation time, and
+        // If-Range must not resume a download into a different file
+        MessageDigest contentDigest = newSha256();
+        try (OutputStream out = new DigestOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(partial)), contentDigest)) {
+            encoder.encode(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        String contentHash = HexFormat.of().formatHex(contentDigest.digest());
+        
+        long size = Files.size(target);
+        Entry entry = new Entry(key, dataVersion, target, size, "\"" + contentHash.substring(0, 32) + "\"", Instant.now());
+        if (size <= maxMemoryEntryBytes) {
+            entry.bytes = Files.readAllBytes(target);
+        }
+        return entry;
+    }
+    
+    private static Entry awaitGeneration(CompletableFuture<Entry> generation) throws IOException {
+        try {
+            return generation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private static String sha256Hex(String value) {
+        return HexFormat.of().formatHex(newSha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
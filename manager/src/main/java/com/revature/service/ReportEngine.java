@@ -0,0 +1,259 @@
+package com.revature.service;
+
+import com.revature.repository.ExpenseFilter;
+import com.revature.repository.ExpenseWithUser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Generates several reports from a single database scan.
+ * The joined expense table is read once and every row is offered to each sink, which applies its own
+ * filter and encoder, so a batch of N reports costs one query instead of N.
+ */
+public class ReportEngine {
+    
+    /**
+     * One report produced by a scan: the rows it selects, how they are encoded and where they are written.
+     */
+    public static final class ReportSink {
+        private final ReportRequest request;
+        private final ReportFormat format;
+        private final OutputStream out;
+        private final ExpenseFilter filter;
+        private ReportRowWriter writer;
+        private long rowsWritten;
+        private IOException failure;
+        private ReportGenerationEvent event;
+        private CountingOutputStream counter;
+        
+        /**
+         * Create a sink.
+         * @param request the report this sink produces
+         * @param format the encoding of the report
+         * @param out the destination stream; some encoders close it when the report is finished,
+         *            otherwise the caller closes it after the scan
+         */
+        public ReportSink(ReportRequest request, ReportFormat format, OutputStream out) {
+            this.request = request;
+            this.format = format;
+            this.out = out;
+            this.filter = request.toFilter();
+        }
+        
+        public ReportRequest getRequest() {
+            return request;
+        }
+        
+        public ReportFormat getFormat() {
+            return format;
+        }
+        
+        /**
+         * Get the number of rows written to this sink.
+         * @return the row count
+         */
+        public long getRowsWritten() {
+            ReportRowWriter current = writer;
+            return current == null ? rowsWritten : current.getTotalRows();
+        }
+        
+        /**
+         * Get the error that stopped this sink, if any.
+         * @return the failure, or null if the sink completed
+         */
+        public IOException getFailure() {
+            return failure;
+        }
+        
+        private boolean isLive() {
+            return failure == null;
+        }
+    }
+    
+    private final ExpenseService expenseService;
+    
+    public ReportEngine(ExpenseService expenseService) {
+        this.expenseService = expenseService;
+    }
+    
+    /**
+     * Run a single scan feeding every sink.
+     * A sink whose encoder fails stops receiving rows without affecting the others; the scan is abandoned
+     * only once every sink has failed.
+     * @param sinks the reports to produce
+     * @return the number of rows scanned
+     * @throws IOException the first sink failure, with any further failures suppressed
+     */
+    public long run(List<ReportSink> sinks) throws IOException {
+        if (sinks.isEmpty()) {
+            return 0;
+        }
+        
+        for (ReportSink sink : sinks) {
+            sink.event = new ReportGenerationEvent();
+            sink.event.begin();
+            OutputStream target = sink.out;
+            if (sink.event.isEnabled()) {
+                sink.counter = new CountingOutputStream(sink.out);
+                target = sink.counter;
+            }
+            try {
+                sink.writer = newRowWriter(sink.format, target);
+            } catch (IOException e) {
+                sink.failure = e;
+            }
+        }
+        
+        long rows = 0;
+        try {
+            rows = expenseService.streamExpensesForReport(scanRequest(sinks), row -> dispatch(sinks, row));
+        } catch (AllSinksFailedException e) {
+            // Every sink already holds its failure
+        } finally {
+            for (ReportSink sink : sinks) {
+                closeQuietly(sink);
+                commitEvent(sink, sinks.size());
+            }
+        }
+        
+        IOException failure = null;
+        for (ReportSink sink : sinks) {
+            if (sink.failure == null) {
+                continue;
+            }
+            if (failure == null) {
+                failure = sink.failure;
+            } else if (failure != sink.failure) {
+                failure.addSuppressed(sink.failure);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return rows;
+    }
+    
+    /**
+     * Pick the query for the scan: a batch of one report keeps its own WHERE clause,
+     * anything else reads the whole join once.
+     */
+    private static ReportRequest scanRequest(List<ReportSink> sinks) {
+        ReportRequest first = sinks.get(0).request;
+        for (ReportSink sink : sinks) {
+            if (!sink.request.equals(first)) {
+                return ReportRequest.all();
+            }
+        }
+        return first;
+    }
+    
+    private static void dispatch(List<ReportSink> sinks, ExpenseWithUser row) {
+        boolean anyLive = false;
+        for (ReportSink sink : sinks) {
+            if (!sink.isLive()) {
+                continue;
+            }
+            anyLive = true;
+            if (!sink.filter.matches(row)) {
+                continue;
+            }
+            try {
+                sink.writer.append(row);
+            } catch (IOException e) {
+                sink.failure = e;
+                closeQuietly(sink);
+            }
+        }
+        if (!anyLive) {
+            throw new AllSinksFailedException();
+        }
+    }
+    
+    private static void commitEvent(ReportSink sink, int batchSize) {
+        ReportGenerationEvent event = sink.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.report = sink.request.toString();
+            event.format = sink.format.getExtension();
+            event.rows = sink.getRowsWritten();
+            event.bytes = sink.counter == null ? 0 : sink.counter.getCount();
+            event.batchSize = batchSize;
+            event.failed = sink.failure != null;
+            event.commit();
+        }
+    }
+    
+    private static void closeQuietly(ReportSink sink) {
+        ReportRowWriter writer = sink.writer;
+        if (writer == null) {
+            return;
+        }
+        sink.writer = null;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (sink.failure == null) {
+                sink.failure = e;
+            }
+        } finally {
+            sink.rowsWritten = writer.getTotalRows();
+        }
+    }
+    
+    private ReportRowWriter newRowWriter(ReportFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case ARROW:
+                return new ArrowReportWriter(out, ArrowReportWriter.DEFAULT_BATCH_SIZE);
+            case XLSX:
+                return new XlsxReportWriter(out, XlsxReportWriter.DEFAULT_ROW_WINDOW);
+            case CSV:
+            default:
+                return new CsvRowWriter(out);
+        }
+    }
+    
+    /**
+     * CSV encoder using the same header and row layout as ExpenseService.generateCsvReport.
+     */
+    private final class CsvRowWriter implements ReportRowWriter {
+        private final Writer writer;
+        private long totalRows;
+        
+        private CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            expenseService.writeCsvHeader(writer);
+        }
+        
+        @Override
+        public void append(ExpenseWithUser expenseWithUser) throws IOException {
+            expenseService.writeCsvRow(writer, expenseWithUser);
+            totalRows++;
+        }
+        
+        @Override
+        public long getTotalRows() {
+            return totalRows;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+    
+    /**
+     * Thrown from the row callback to stop a scan nobody is listening to anymore.
+     */
+    private static final class AllSinksFailedException extends UncheckedIOException {
+        private AllSinksFailedException() {
+            super(new IOException("All report sinks failed"));
+        }
+    }
+}
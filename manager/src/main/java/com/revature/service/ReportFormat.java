@@ -0,0 +1,47 @@
+package com.revature.service;
+
+/**
+ * Output formats reports can be generated in.
+ */
+public enum ReportFormat {
+    CSV("csv", "text/csv"),
+    ARROW("arrow", "application/vnd.apache.arrow.stream"),
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+    
+    private final String extension;
+    private final String contentType;
+    
+    ReportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+    
+    /**
+     * Get the file extension for this format, without a leading dot.
+     * @return the file extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    /**
+     * Look up a format by its file extension.
+     * @param extension the extension, case-insensitive
+     * @return the matching format
+     * @throws IllegalArgumentException if no format uses the extension
+     */
+    public static ReportFormat fromExtension(String extension) {
+        if (extension != null) {
+            for (ReportFormat format : values()) {
+                if (format.extension.equalsIgnoreCase(extension.trim())) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown report format: " + extension);
+    }
+}
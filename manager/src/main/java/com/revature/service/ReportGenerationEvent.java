@@ -0,0 +1,39 @@
+package com.revature.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one generated report.
+ * Reports generated together by the ReportEngine each get an event spanning the shared scan.
+ */
+@Name("com.revature.ReportGeneration")
+@Label("Report Generation")
+@Category({"Expense Manager", "Reports"})
+@Description("Generation of a CSV, Arrow or XLSX expense report")
+@StackTrace(false)
+final class ReportGenerationEvent extends jdk.jfr.Event {
+    @Label("Report")
+    String report;
+    
+    @Label("Format")
+    String format;
+    
+    @Label("Rows")
+    long rows;
+    
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+    
+    @Label("Batch Size")
+    @Description("Number of reports generated by the same scan")
+    int batchSize;
+    
+    @Label("Failed")
+    boolean failed;
+}
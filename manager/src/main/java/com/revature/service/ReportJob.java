@@ -0,0 +1,149 @@
+package com.revature.service;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of an asynchronous report job.
+ * Jobs are created by ReportJobService and updated by its worker threads,
+ * so mutable fields are volatile or atomic and safe to read from request threads.
+ */
+public class ReportJob {
+    
+    /**
+     * Lifecycle states of a report job.
+     */
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+    
+    private final String id;
+    private final ReportRequest request;
+    private final int ownerId;
+    private final Instant createdAt;
+    private final AtomicLong rowsWritten = new AtomicLong();
+    
+    private volatile Status status = Status.QUEUED;
+    private volatile long totalRows = -1;
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+    private volatile Path artifact;
+    private volatile long sizeBytes;
+    private volatile String error;
+    
+    public ReportJob(String id, ReportRequest request, int ownerId, Instant createdAt) {
+        this.id = id;
+        this.request = request;
+        this.ownerId = ownerId;
+        this.createdAt = createdAt;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public ReportRequest getRequest() {
+        return request;
+    }
+    
+    public int getOwnerId() {
+        return ownerId;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+    
+    /**
+     * Get the number of rows the report will contain.
+     * @return the total row count, or -1 if the query has not run yet
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+    
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+    
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+    
+    public Path getArtifact() {
+        return artifact;
+    }
+    
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+    
+    /**
+     * Get job progress as a percentage of rows written.
+     * @return progress between 0 and 100
+     */
+    public int getProgressPercent() {
+        if (status == Status.COMPLETED) {
+            return 100;
+        }
+        long total = totalRows;
+        if (total <= 0) {
+            return 0;
+        }
+        return (int) Math.min(99, rowsWritten.get() * 100 / total);
+    }
+    
+    void markRunning(Instant now) {
+        this.startedAt = now;
+        this.status = Status.RUNNING;
+    }
+    
+    void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+    
+    void rowWritten() {
+        rowsWritten.incrementAndGet();
+    }
+    
+    void markCompleted(Path artifact, long sizeBytes, Instant now) {
+        this.artifact = artifact;
+        this.sizeBytes = sizeBytes;
+        this.completedAt = now;
+        this.status = Status.COMPLETED;
+    }
+    
+    void markFailed(String error, Instant now) {
+        this.error = error;
+        this.completedAt = now;
+        this.status = Status.FAILED;
+    }
+    
+    @Override
+    public String toString() {
+        return "ReportJob{" +
+                "id='" + id + '\'' +
+                ", request=" + request +
+                ", status=" + status +
+                ", rowsWritten=" + rowsWritten +
+                ", totalRows=" + totalRows +
+                '}';
+    }
+}
@@ -0,0 +1,228 @@
+package com.revature.service;
+
+import com.revature.repository.ExpenseWithUser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for running report generation outside of the HTTP request.
+ * Jobs run on a bounded worker pool, write their CSV output to a spool directory,
+ * and finished jobs are purged together with their artifacts once their TTL expires.
+ * Artifacts left over from a previous run are deleted on startup.
+ */
+public class ReportJobService {
+    private static final String ARTIFACT_EXTENSION = "csv";
+    
+    private final ExpenseService expenseService;
+    private final Path spoolDirectory;
+    private final Duration artifactTtl;
+    private final Clock clock;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService janitor;
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    
+    /**
+     * Create a report job service.
+     * @param expenseService service used to query and encode reports
+     * @param spoolDirectory directory finished report artifacts are written to
+     * @param workerThreads number of concurrent report workers
+     * @param queueCapacity number of jobs that may wait for a worker before submissions are rejected
+     * @param artifactTtl how long finished jobs and their artifacts are kept
+     */
+    public ReportJobService(ExpenseService expenseService, Path spoolDirectory, int workerThreads,
+                            int queueCapacity, Duration artifactTtl) {
+        this(expenseService, spoolDirectory, workerThreads, queueCapacity, artifactTtl, Clock.systemUTC());
+    }
+    
+    ReportJobService(ExpenseService expenseService, Path spoolDirectory, int workerThreads,
+                     int queueCapacity, Duration artifactTtl, Clock clock) {
+        this.expenseService = expenseService;
+        this.spoolDirectory = spoolDirectory;
+        this.artifactTtl = artifactTtl;
+        this.clock = clock;
+        
+        try {
+            Files.createDirectories(spoolDirectory);
+            // Jobs live in memory, so artifacts and partial files left over from a previous run are unreachable
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(spoolDirectory,
+                    "*.{" + ARTIFACT_EXTENSION + "," + ARTIFACT_EXTENSION + ".part}")) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to prepare report spool directory: " + spoolDirectory, e);
+        }
+        
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedDaemonThreads("report-worker"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.janitor = Executors.newSingleThreadScheduledExecutor(namedDaemonThreads("report-janitor"));
+        
+        long sweepMillis = Math.max(1000L, artifactTtl.toMillis() / 4);
+        janitor.scheduleWithFixedDelay(this::purgeExpiredJobs, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Queue a report for generation.
+     * @param request the report to generate
+     * @param ownerId the user ID of the manager requesting the report
+     * @return the queued job
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public ReportJob submit(ReportRequest request, int ownerId) {
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), request, ownerId, clock.instant());
+        jobs.put(job.getId(), job);
+        
+        try {
+            workers.execute(() -> runJob(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        
+        return job;
+    }
+    
+    /**
+     * Find a job by its ID.
+     * @param jobId the job ID
+     * @return Optional containing the job if it exists and has not expired
+     */
+    public Optional<ReportJob> getJob(String jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        
+        Instant expiresAt = getExpiresAt(job);
+        if (expiresAt != null && !clock.instant().isBefore(expiresAt)) {
+            return Optional.empty();
+        }
+        
+        return Optional.of(job);
+    }
+    
+    /**
+     * Get the instant a finished job and its artifact will be purged.
+     * @param job the job
+     * @return the expiry instant, or null if the job has not finished
+     */
+    public Instant getExpiresAt(ReportJob job) {
+        Instant completedAt = job.getCompletedAt();
+        return completedAt == null ? null : completedAt.plus(artifactTtl);
+    }
+    
+    /**
+     * Remove finished jobs whose TTL has expired and delete their artifacts.
+     */
+    public void purgeExpiredJobs() {
+        Instant now = clock.instant();
+        
+        for (ReportJob job : jobs.values()) {
+            Instant expiresAt = getExpiresAt(job);
+            if (expiresAt != null && !now.isBefore(expiresAt)) {
+                jobs.remove(job.getId());
+                deleteQuietly(job.getArtifact());
+            }
+        }
+    }
+    
+    /**
+     * Get the number of jobs waiting for a worker.
+     * @return queued job count
+     */
+    public int getQueuedJobCount() {
+        return workers.getQueue().size();
+    }
+    
+    /**
+     * Stop accepting jobs and stop the background threads.
+     * Jobs that are already running are allowed to finish.
+     */
+    public void shutdown() {
+        workers.shutdown();
+        janitor.shutdownNow();
+    }
+    
+    /**
+     * Stop accepting jobs and wait for queued and running jobs to finish.
+     * @param timeout the longest time to wait
+     * @return true if every job finished, false if the timeout passed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean drain(Duration timeout) throws InterruptedException {
+        shutdown();
+        return workers.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+    
+    private void runJob(ReportJob job) {
+        job.markRunning(clock.instant());
+        
+        Path partial = spoolDirectory.resolve(job.getId() + "." + ARTIFACT_EXTENSION + ".part");
+        Path artifact = spoolDirectory.resolve(job.getId() + "." + ARTIFACT_EXTENSION);
+        
+        try {
+            List<ExpenseWithUser> expenses = expenseService.getExpensesForReport(job.getRequest());
+            job.setTotalRows(expenses.size());
+            
+            try (Writer writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+                expenseService.writeCsvHeader(writer);
+                for (ExpenseWithUser expense : expenses) {
+                    expenseService.writeCsvRow(writer, expense);
+                    job.rowWritten();
+                }
+            }
+            
+            Files.move(partial, artifact, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.markCompleted(artifact, Files.size(artifact), clock.instant());
+            
+        } catch (Exception e) {
+            deleteQuietly(partial);
+            job.markFailed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), clock.instant());
+        }
+    }
+    
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Ignore - the spool directory is cleared of leftovers on the next start
+        }
+    }
+    
+    private static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
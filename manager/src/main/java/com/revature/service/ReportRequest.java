@@ -0,0 +1,261 @@
+package com.revature.service;
+
+import com.revature.repository.ExpenseFilter;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable description of a report: its type and the filter parameters it needs.
+ * Used to run reports outside of the HTTP request that asked for them.
+ */
+public final class ReportRequest {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    
+    private final ReportType type;
+    private final Integer employeeId;
+    private final String category;
+    private final String startDate;
+    private final String endDate;
+    
+    private ReportRequest(ReportType type, Integer employeeId, String category, String startDate, String endDate) {
+        this.type = type;
+        this.employeeId = employeeId;
+        this.category = category;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+    
+    public static ReportRequest all() {
+        return new ReportRequest(ReportType.ALL, null, null, null, null);
+    }
+    
+    public static ReportRequest pending() {
+        return new ReportRequest(ReportType.PENDING, null, null, null, null);
+    }
+    
+    public static ReportRequest employee(int employeeId) {
+        return new ReportRequest(ReportType.EMPLOYEE, employeeId, null, null, null);
+    }
+    
+    /**
+     * Create a category report request.
+     * @param category the category text to match
+     * @throws IllegalArgumentException if the category is blank
+     */
+    public static ReportRequest category(String category) {
+        if (category == null || category.trim().isEmpty()) {
+            throw new IllegalArgumentException("Category parameter is required");
+        }
+        return new ReportRequest(ReportType.CATEGORY, null, category, null, null);
+    }
+    
+    /**
+     * Create a date range report request.
+     * @param startDate start date (YYYY-MM-DD format)
+     * @param endDate end date (YYYY-MM-DD format)
+     * @throws IllegalArgumentException if either date is missing or malformed
+     */
+    public static ReportRequest dateRange(String startDate, String endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Both startDate and endDate are required (format: YYYY-MM-DD)");
+        }
+        try {
+            LocalDate.parse(startDate, DATE_FORMATTER);
+            LocalDate.parse(endDate, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format. Use YYYY-MM-DD format");
+        }
+        return new ReportRequest(ReportType.DATE_RANGE, null, null, startDate, endDate);
+    }
+    
+    /**
+     * Build a report request from loosely typed parameters, e.g. a parsed JSON body.
+     * Expects a "type" key plus the parameters that type requires.
+     * @param params the request parameters
+     * @return the report request
+     * @throws IllegalArgumentException if the type or its parameters are invalid
+     */
+    public static ReportRequest fromParameters(Map<String, ?> params) {
+        Object typeValue = params.get("type");
+        ReportType type = ReportType.fromKey(typeValue == null ? null : typeValue.toString());
+        
+        switch (type) {
+            case ALL:
+                return all();
+            case PENDING:
+                return pending();
+            case EMPLOYEE:
+                Object employeeValue = params.get("employeeId");
+                if (employeeValue == null) {
+                    throw new IllegalArgumentException("employeeId is required for employee reports");
+                }
+                try {
+                    return employee(Integer.parseInt(employeeValue.toString().trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid employee ID format");
+                }
+            case CATEGORY:
+                Object categoryValue = params.get("category");
+                return category(categoryValue == null ? null : categoryValue.toString());
+            case DATE_RANGE:
+                Object start = params.get("startDate");
+                Object end = params.get("endDate");
+                return dateRange(start == null ? null : start.toString(), end == null ? null : end.toString());
+            default:
+                throw new IllegalArgumentException("Unsupported report type: " + type);
+        }
+    }
+    
+    /**
+     * Parse a compact report specification as used in query strings, e.g.
+     * "all", "pending", "employee:3", "category:Travel" or "daterange:2025-01-01:2025-01-31".
+     * @param spec the report specification
+     * @return the report request
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    public static ReportRequest parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException("Report specification is required");
+        }
+        
+        String[] parts = spec.trim().split(":", 2);
+        ReportType type = ReportType.fromKey(parts[0]);
+        String argument = parts.length > 1 ? parts[1] : null;
+        
+        switch (type) {
+            case ALL:
+                return all();
+            case PENDING:
+                return pending();
+            case EMPLOYEE:
+                if (argument == null) {
+                    throw new IllegalArgumentException("employeeId is required for employee reports");
+                }
+                try {
+                    return employee(Integer.parseInt(argument.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid employee ID format");
+                }
+            case CATEGORY:
+                return category(argument);
+            case DATE_RANGE:
+                String[] dates = argument == null ? new String[0] : argument.split(":", 2);
+                return dateRange(dates.length > 0 ? dates[0] : null, dates.length > 1 ? dates[1] : null);
+            default:
+                throw new IllegalArgumentException("Unsupported report type: " + type);
+        }
+    }
+    
+    public ReportType getType() {
+        return type;
+    }
+    
+    public Integer getEmployeeId() {
+        return employeeId;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public String getStartDate() {
+        return startDate;
+    }
+    
+    public String getEndDate() {
+        return endDate;
+    }
+    
+    /**
+     * Get the download file name for this report, matching the names used by ReportController.
+     * @param extension the file extension without a leading dot (e.g. "csv")
+     * @return the file name
+     */
+    public String fileName(String extension) {
+        switch (type) {
+            case PENDING:
+                return "pending_expenses_report." + extension;
+            case EMPLOYEE:
+                return "employee_" + employeeId + "_expenses_report." + extension;
+            case CATEGORY:
+                return "category_" + category.replaceAll("[^a-zA-Z0-9_-]", "_") + "_expenses_report." + extension;
+            case DATE_RANGE:
+                return "expenses_" + startDate + "_to_" + endDate + "_report." + extension;
+            case ALL:
+            default:
+                return "all_expenses_report." + extension;
+        }
+    }
+    
+    /**
+     * Get the repository filter selecting the rows of this report.
+     * @return the expense filter
+     */
+    public ExpenseFilter toFilter() {
+        switch (type) {
+            case PENDING:
+                return ExpenseFilter.pending();
+            case EMPLOYEE:
+                return ExpenseFilter.byUser(employeeId);
+            case CATEGORY:
+                return ExpenseFilter.byCategory(category);
+            case DATE_RANGE:
+                return ExpenseFilter.byDateRange(startDate, endDate);
+            case ALL:
+            default:
+                return ExpenseFilter.all();
+        }
+    }
+    
+    /**
+     * Get a stable key identifying this report's type and parameters.
+     * @return the cache key
+     */
+    public String cacheKey() {
+        StringBuilder key = new StringBuilder(type.getKey());
+        if (employeeId != null) {
+            key.append(";employeeId=").append(employeeId);
+        }
+        if (category != null) {
+            key.append(";category=").append(URLEncoder.encode(category, StandardCharsets.UTF_8));
+        }
+        if (startDate != null) {
+            key.append(";startDate=").append(startDate).append(";endDate=").append(endDate);
+        }
+        return key.toString();
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ReportRequest)) return false;
+        ReportRequest that = (ReportRequest) o;
+        return type == that.type
+                && Objects.equals(employeeId, that.employeeId)
+                && Objects.equals(category, that.category)
+                && Objects.equals(startDate, that.startDate)
+                && Objects.equals(endDate, that.endDate);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, employeeId, category, startDate, endDate);
+    }
+    
+    @Override
+    public String toString() {
+        return "ReportRequest{" +
+                "type=" + type +
+                ", employeeId=" + employeeId +
+                ", category='" + category + '\'' +
+                ", startDate='" + startDate + '\'' +
+                ", endDate='" + endDate + '\'' +
+                '}';
+    }
+}
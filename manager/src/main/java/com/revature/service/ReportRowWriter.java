@@ -0,0 +1,28 @@
+package com.revature.service;
+
+import com.revature.repository.ExpenseWithUser;
+
+import java.io.IOException;
+
+/**
+ * Encoder that receives report rows one at a time.
+ * Implementations finish the encoded output when they are closed.
+ */
+public interface ReportRowWriter extends AutoCloseable {
+    
+    /**
+     * Encode the next row of the report.
+     * @param expenseWithUser the expense to append
+     * @throws IOException if writing fails
+     */
+    void append(ExpenseWithUser expenseWithUser) throws IOException;
+    
+    /**
+     * Get the number of rows appended so far.
+     * @return the row count
+     */
+    long getTotalRows();
+    
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,44 @@
+package com.revature.service;
+
+/**
+ * Report types supported by the reporting endpoints.
+ * Each type corresponds to one of the expense queries exposed by ExpenseService.
+ */
+public enum ReportType {
+    ALL("all"),
+    PENDING("pending"),
+    EMPLOYEE("employee"),
+    CATEGORY("category"),
+    DATE_RANGE("daterange");
+    
+    private final String key;
+    
+    ReportType(String key) {
+        this.key = key;
+    }
+    
+    /**
+     * Get the key used for this report type in URLs and request bodies.
+     * @return the report type key (e.g. "daterange")
+     */
+    public String getKey() {
+        return key;
+    }
+    
+    /**
+     * Resolve a report type from its key.
+     * @param key the report type key
+     * @return the matching report type
+     * @throws IllegalArgumentException if the key is unknown
+     */
+    public static ReportType fromKey(String key) {
+        if (key != null) {
+            for (ReportType type : values()) {
+                if (type.key.equalsIgnoreCase(key.trim())) {
+                    return type;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown report type: " + key);
+    }
+}
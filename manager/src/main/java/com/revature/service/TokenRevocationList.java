@@ -0,0 +1,160 @@
+package com.revature.service;
+
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens that must no longer be accepted although their signature and expiry are still valid.
+ * A single token is revoked by its ID (jti) on logout; all of a user's tokens issued up to a point in time
+ * are revoked when the user's role or credentials change. Entries are only kept until the tokens they
+ * cover have expired, so the list stays short-lived and small.
+ * <p>
+ * Every request checks the list, and almost every token is not revoked. Bloom filters over the revoked
+ * token IDs and user IDs answer that common case with a lock-free, allocation-free bit test; only a
+ * filter hit looks at the maps. The filters are rebuilt from the maps when expired entries are purged.
+ * Revocations are held in memory, per process.
+ */
+public class TokenRevocationList {
+    public static final int DEFAULT_EXPECTED_REVOCATIONS = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final int EXPECTED_USER_REVOCATIONS = 1_000;
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+    
+    private final Duration tokenLifetime;
+    private final Clock clock;
+    private final int expectedRevocations;
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Integer, Instant> revokedUsers = new ConcurrentHashMap<>();
+    // Replaced, never cleared, by purgeExpired; written under "this" so a rebuild cannot lose a revocation
+    private volatile BloomFilter tokenFilter;
+    private volatile BloomFilter userFilter;
+    private volatile Instant nextPurge;
+    private final Counter notRevoked;
+    private final Counter falsePositives;
+    private final Counter revoked;
+    
+    public TokenRevocationList(Duration tokenLifetime) {
+        this(tokenLifetime, DEFAULT_EXPECTED_REVOCATIONS, Clock.systemUTC(), MetricsRegistry.getDefault());
+    }
+    
+    /**
+     * Create an empty revocation list.
+     * @param tokenLifetime the longest time a token is valid for, which bounds how long entries are kept
+     * @param expectedRevocations number of live token revocations the filter is sized for
+     * @param clock clock entry expiry is measured with
+     * @param metricsRegistry registry for the revocation check counters
+     */
+    public TokenRevocationList(Duration tokenLifetime, int expectedRevocations, Clock clock,
+                               MetricsRegistry metricsRegistry) {
+        this.tokenLifetime = tokenLifetime;
+        this.clock = clock;
+        this.expectedRevocations = expectedRevocations;
+        this.tokenFilter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+        this.userFilter = new BloomFilter(EXPECTED_USER_REVOCATIONS, FALSE_POSITIVE_RATE);
+        this.nextPurge = clock.instant().plus(PURGE_INTERVAL);
+        MetricFamily<Counter> checks = metricsRegistry.counter("auth_revocation_checks_total",
+                "Token revocation checks by result; filter_hit counts Bloom filter false positives", "result");
+        this.notRevoked = checks.labels("not_revoked");
+        this.falsePositives = checks.labels("filter_hit");
+        this.revoked = checks.labels("revoked");
+        metricsRegistry.gauge("auth_revocations", "Live token and user revocations").labels().set(this::size);
+    }
+    
+    /**
+     * Revoke a single token, e.g. on logout.
+     * @param tokenId the token's jti claim
+     * @param expiresAt the token's expiry; the entry is dropped after it
+     */
+    public synchronized void revokeToken(String tokenId, Instant expiresAt) {
+        revokedTokens.merge(tokenId, expiresAt, (a, b) -> a.isAfter(b) ? a : b);
+        tokenFilter.put(tokenId);
+        purgeIfDue();
+    }
+    
+    /**
+     * Revoke every token of a user issued up to now, e.g. after a role change.
+     * The user has to log in again to get a token carrying the new claims.
+     * @param userId the user ID (the token subject)
+     */
+    public synchronized void revokeUser(int userId) {
+        // iat has whole-second precision, so a token issued earlier in this second is revoked too
+        Instant cutoff = clock.instant().truncatedTo(ChronoUnit.SECONDS);
+        revokedUsers.merge(userId, cutoff, (a, b) -> a.isAfter(b) ? a : b);
+        userFilter.put(userId);
+        purgeIfDue();
+    }
+    
+    /**
+     * Check whether a token has been revoked.
+     * Tokens that are not revoked are normally cleared by the filters alone, without locking or allocating.
+     * @param tokenId the token's jti claim, or null if it has none
+     * @param userId the token subject
+     * @param issuedAt the token's iat claim
+     * @return true if the token must be rejected
+     */
+    public boolean isRevoked(String tokenId, int userId, Instant issuedAt) {
+        boolean tokenHit = tokenId != null && tokenFilter.mightContain(tokenId);
+        boolean userHit = userFilter.mightContain(userId);
+        if (!tokenHit && !userHit) {
+            notRevoked.inc();
+            return false;
+        }
+        
+        if (tokenHit && revokedTokens.containsKey(tokenId)) {
+            revoked.inc();
+            return true;
+        }
+        Instant cutoff = userHit ? revokedUsers.get(userId) : null;
+        if (cutoff != null && (issuedAt == null || !issuedAt.isAfter(cutoff))) {
+            revoked.inc();
+            return true;
+        }
+        falsePositives.inc();
+        return false;
+    }
+    
+    public int size() {
+        return revokedTokens.size() + revokedUsers.size();
+    }
+    
+    /**
+     * Drop entries for tokens that have expired on their own, and rebuild the filters without them.
+     */
+    public synchronized void purgeExpired() {
+        Instant now = clock.instant();
+        boolean purged = revokedTokens.values().removeIf(expiresAt -> !now.isBefore(expiresAt));
+        // Every token issued before the cutoff has expired once the cutoff is a token lifetime old
+        Instant oldestLiveIssue = now.minus(tokenLifetime);
+        purged |= revokedUsers.values().removeIf(cutoff -> cutoff.isBefore(oldestLiveIssue));
+        if (!purged) {
+            return;
+        }
+        
+        // Bloom filters cannot delete, so expired entries are dropped by starting over
+        BloomFilter tokens = new BloomFilter(Math.max(expectedRevocations, revokedTokens.size() * 2),
+                FALSE_POSITIVE_RATE);
+        revokedTokens.keySet().forEach(tokens::put);
+        BloomFilter users = new BloomFilter(Math.max(EXPECTED_USER_REVOCATIONS, revokedUsers.size() * 2),
+                FALSE_POSITIVE_RATE);
+        revokedUsers.keySet().forEach(users::put);
+        tokenFilter = tokens;
+        userFilter = users;
+    }
+    
+    private void purgeIfDue() {
+        Instant now = clock.instant();
+        if (now.isBefore(nextPurge)) {
+            return;
+        }
+        nextPurge = now.plus(PURGE_INTERVAL);
+        purgeExpired();
+    }
+}
@@ -0,0 +1,155 @@
+package com.revature.service;
+
+import com.revature.repository.ExpenseWithUser;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Streaming XLSX encoder for expense reports.
+ * Built on Apache POI's SXSSF writer: only a small window of rows is kept in memory,
+ * older rows are flushed to a compressed temporary file and assembled into the workbook on close.
+ */
+public class XlsxReportWriter implements ReportRowWriter {
+    public static final int DEFAULT_ROW_WINDOW = 100;
+    
+    private static final String[] HEADERS = {
+        "Expense ID", "Employee", "Amount", "Description", "Date", "Status", "Reviewer", "Comment", "Review Date"
+    };
+    private static final DateTimeFormatter REVIEW_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int LAST_ROW_INDEX = SpreadsheetVersion.EXCEL2007.getLastRowIndex();
+    
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final SXSSFSheet sheet;
+    private final CellStyle amountStyle;
+    private final CellStyle dateStyle;
+    private final CellStyle timestampStyle;
+    
+    private int nextRowIndex;
+    
+    /**
+     * Start an XLSX workbook with a single "Expenses" sheet and a header row.
+     * @param out the destination stream the workbook is written to on close
+     * @param rowWindow number of rows kept in memory before they are flushed to disk
+     */
+    public XlsxReportWriter(OutputStream out, int rowWindow) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(rowWindow);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet("Expenses");
+        
+        short dataFormat = workbook.createDataFormat().getFormat("#,##0.00");
+        this.amountStyle = workbook.createCellStyle();
+        this.amountStyle.setDataFormat(dataFormat);
+        this.dateStyle = workbook.createCellStyle();
+        this.dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+        this.timestampStyle = workbook.createCellStyle();
+        this.timestampStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+        
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        CellStyle headerStyle = workbook.createCellStyle();
+        headerStyle.setFont(headerFont);
+        
+        Row header = sheet.createRow(nextRowIndex++);
+        for (int i = 0; i < HEADERS.length; i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(HEADERS[i]);
+            cell.setCellStyle(headerStyle);
+        }
+        sheet.createFreezePane(0, 1);
+    }
+    
+    /**
+     * Append an expense as the next row of the sheet.
+     * @param expenseWithUser the expense to append
+     * @throws IOException if the row window cannot be flushed or the sheet is full
+     */
+    public void append(ExpenseWithUser expenseWithUser) throws IOException {
+        if (nextRowIndex > LAST_ROW_INDEX) {
+            throw new IOException("Report exceeds the maximum number of rows in an XLSX sheet");
+        }
+        
+        Row row = sheet.createRow(nextRowIndex++);
+        
+        row.createCell(0).setCellValue(expenseWithUser.getExpense().getId());
+        setString(row, 1, expenseWithUser.getUser().getUsername());
+        
+        Cell amount = row.createCell(2);
+        amount.setCellValue(expenseWithUser.getExpense().getAmount());
+        amount.setCellStyle(amountStyle);
+        
+        setString(row, 3, expenseWithUser.getExpense().getDescription());
+        
+        String date = expenseWithUser.getExpense().getDate();
+        if (date != null) {
+            Cell cell = row.createCell(4);
+            try {
+                cell.setCellValue(LocalDate.parse(date));
+                cell.setCellStyle(dateStyle);
+            } catch (DateTimeParseException e) {
+                cell.setCellValue(date);
+            }
+        }
+        
+        setString(row, 5, expenseWithUser.getApproval().getStatus());
+        
+        Integer reviewerId = expenseWithUser.getApproval().getReviewer();
+        if (reviewerId != null) {
+            row.createCell(6).setCellValue(reviewerId);
+        }
+        
+        setString(row, 7, expenseWithUser.getApproval().getComment());
+        
+        String reviewDate = expenseWithUser.getApproval().getReviewDate();
+        if (reviewDate != null) {
+            try {
+                Cell cell = row.createCell(8);
+                cell.setCellValue(LocalDateTime.parse(reviewDate, REVIEW_DATE_FORMATTER));
+                cell.setCellStyle(timestampStyle);
+            } catch (DateTimeParseException e) {
+                setString(row, 8, reviewDate);
+            }
+        }
+    }
+    
+    /**
+     * Get the number of expense rows written, excluding the header.
+     * @return the row count
+     */
+    public long getTotalRows() {
+        return nextRowIndex - 1L;
+    }
+    
+    /**
+     * Assemble the workbook into the output stream and delete the temporary row files.
+     * @throws IOException if the workbook cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+    
+    private static void setString(Row row, int column, String value) {
+        if (value != null) {
+            row.createCell(column).setCellValue(value);
+        }
+    }
+}
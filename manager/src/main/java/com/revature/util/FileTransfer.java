@@ -0,0 +1,43 @@
+package com.revature.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Copies slices of files to output streams with FileChannel.transferTo, streaming them in bounded chunks
+ * instead of reading them into memory. A servlet output stream is neither a file nor a socket channel,
+ * so this is not zero-copy: the JDK still moves the bytes through a transfer buffer.
+ */
+public final class FileTransfer {
+    
+    private FileTransfer() {
+    }
+    
+    /**
+     * Transfer a slice of a file to an output stream.
+     * @param path the file
+     * @param offset first byte to send
+     * @param length number of bytes to send
+     * @param out the destination stream
+     * @throws IOException if reading or writing fails, or the file ends before the slice does
+     */
+    public static void transfer(Path path, long offset, long length, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    throw new IOException("Unexpected end of file: " + path);
+                }
+                position += transferred;
+            }
+        }
+    }
+}
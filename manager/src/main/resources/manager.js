@@ -372,14 +372,34 @@ class ManagerDashboard {
         document.getElementById('review-modal').style.display = 'block';
     }
 
+    // Send an approve/deny decision. Network failures are retried with the same
+    // Idempotency-Key, so the server applies the decision at most once.
+    async postDecision(action, comment) {
+        const idempotencyKey = window.crypto && crypto.randomUUID
+            ? crypto.randomUUID()
+            : `${Date.now()}-${Math.random().toString(36).slice(2)}`;
+        
+        for (let attempt = 1; ; attempt++) {
+            try {
+                return await fetch(`/api/expenses/${this.currentExpenseId}/${action}`, this.getFetchOptions({
+                    method: 'POST',
+                    headers: { 'Idempotency-Key': idempotencyKey },
+                    body: JSON.stringify({ comment: comment || null }),
+                }));
+            } catch (error) {
+                if (attempt >= 3) {
+                    throw error;
+                }
+                await new Promise(resolve => setTimeout(resolve, 500 * attempt));
+            }
+        }
+    }
+
     async approveExpense() {
         const comment = document.getElementById('review-comment').value.trim();
         
         try {
-            const response = await fetch(`/api/expenses/${this.currentExpenseId}/approve`, this.getFetchOptions({
-                method: 'POST',
-                body: JSON.stringify({ comment: comment || null }),
-            }));
+            const response = await this.postDecision('approve', comment);
 
             const data = await response.json();
 
@@ -389,6 +409,10 @@ class ManagerDashboard {
                     this.closeReviewModal();
                     this.loadPendingExpenses();
                 }, 1500);
+            } else if (response.status === 409) {
+                // Another manager decided this expense first
+                this.showReviewMessage(data.title || 'Expense was already reviewed', 'error');
+                this.loadPendingExpenses();
             } else {
                 this.showReviewMessage(data.error || 'Failed to approve expense', 'error');
             }
@@ -401,10 +425,7 @@ class ManagerDashboard {
         const comment = document.getElementById('review-comment').value.trim();
         
         try {
-            const response = await fetch(`/api/expenses/${this.currentExpenseId}/deny`, this.getFetchOptions({
-                method: 'POST',
-                body: JSON.stringify({ comment: comment || null }),
-            }));
+            const response = await this.postDecision('deny', comment);
 
             const data = await response.json();
 
@@ -414,6 +435,10 @@ class ManagerDashboard {
                     this.closeReviewModal();
                     this.loadPendingExpenses();
                 }, 1500);
+            } else if (response.status === 409) {
+                // Another manager decided this expense first
+                this.showReviewMessage(data.title || 'Expense was already reviewed', 'error');
+                this.loadPendingExpenses();
             } else {
                 this.showReviewMessage(data.error || 'Failed to deny expense', 'error');
             }
@@ -0,0 +1,128 @@
+package com.revature.unittests.controllertests;
+
+import com.revature.api.AdmissionControl;
+import com.revature.api.CostClass;
+import com.revature.monitoring.MetricsRegistry;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.ServiceUnavailableResponse;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@Epic("Expense Management System")
+@Feature("Controller API Middleware")
+@Story("As a manager, I want approvals to stay responsive while others export large reports")
+class AdmissionControlTest {
+
+    @Mock
+    private Context ctx;
+
+    @Test
+    @DisplayName("admit: request within the limit runs the handler")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies an admitted request reaches the wrapped handler and releases its slot afterwards")
+    void testAdmitWithinLimit() throws Exception {
+        Allure.step("Arrange: a write class with one slot");
+        AdmissionControl admissionControl = new AdmissionControl(new MetricsRegistry());
+        admissionControl.configure(CostClass.WRITE, 1, 0);
+        Handler handler = mock(Handler.class);
+        Handler admitted = admissionControl.admit(CostClass.WRITE, handler);
+
+        Allure.step("Act: run two requests one after the other");
+        admitted.handle(ctx);
+        admitted.handle(ctx);
+
+        Allure.step("Assert: both reached the handler");
+        verify(handler, times(2)).handle(ctx);
+    }
+
+    @Test
+    @DisplayName("admit: full class with no queue => 503 with Retry-After")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a request is shed with ServiceUnavailableResponse and Retry-After while its class is saturated")
+    void testShedWhenSaturated() throws Exception {
+        Allure.step("Arrange: a report class with one slot held by a running request");
+        AdmissionControl admissionControl = new AdmissionControl(new MetricsRegistry());
+        admissionControl.configure(CostClass.REPORT, 1, 0);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Handler slowReport = admissionControl.admit(CostClass.REPORT, context -> {
+            running.countDown();
+            finish.await();
+        });
+        Thread holder = new Thread(() -> {
+            try {
+                slowReport.handle(mock(Context.class));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        holder.start();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        Allure.step("Act & Assert: a second report is rejected");
+        Handler handler = mock(Handler.class);
+        assertThrows(ServiceUnavailableResponse.class,
+                () -> admissionControl.admit(CostClass.REPORT, handler).handle(ctx));
+        verify(ctx).header("Retry-After", String.valueOf(CostClass.REPORT.getRetryAfterSeconds()));
+        verify(handler, never()).handle(any());
+
+        Allure.step("Assert: other classes are unaffected");
+        Handler approval = mock(Handler.class);
+        admissionControl.admit(CostClass.WRITE, approval).handle(ctx);
+        verify(approval).handle(ctx);
+
+        finish.countDown();
+        holder.join();
+    }
+
+    @Test
+    @DisplayName("stopAdmitting: new requests => 503 while admitted ones drain")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies shutdown turns new requests away with Connection: close and waits for the running ones")
+    void testStopAdmittingDrains() throws Exception {
+        Allure.step("Arrange: an approval running when shutdown starts");
+        AdmissionControl admissionControl = new AdmissionControl(new MetricsRegistry());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Handler slowApproval = admissionControl.admit(CostClass.WRITE, context -> {
+            running.countDown();
+            finish.await();
+        });
+        Thread holder = new Thread(() -> {
+            try {
+                slowApproval.handle(mock(Context.class));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        holder.start();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        Allure.step("Act: stop admitting");
+        admissionControl.stopAdmitting();
+
+        Allure.step("Assert: new requests are rejected, and idle is only reached once the approval finishes");
+        Handler handler = mock(Handler.class);
+        assertThrows(ServiceUnavailableResponse.class,
+                () -> admissionControl.admit(CostClass.LISTING, handler).handle(ctx));
+        verify(ctx).header("Connection", "close");
+        verify(handler, never()).handle(any());
+        assertFalse(admissionControl.awaitIdle(Duration.ofMillis(50)));
+        finish.countDown();
+        assertTrue(admissionControl.awaitIdle(Duration.ofSeconds(5)));
+        holder.join();
+    }
+}
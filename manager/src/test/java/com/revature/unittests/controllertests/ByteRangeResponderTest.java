@@ -0,0 +1,91 @@
+package com.revature.unittests.controllertests;
+
+import com.revature.api.ByteRangeResponder;
+import com.revature.api.ByteRangeResponder.ByteRange;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Expense Reporting")
+@Story("As a manager, I want interrupted report downloads to resume so that I do not have to download the whole file again")
+public class ByteRangeResponderTest {
+
+    private static final long FILE_SIZE = 10;
+    private static final String ETAG = "\"abc123\"";
+    private static final Instant LAST_MODIFIED = Instant.parse("2025-01-02T03:04:05.678Z");
+
+    @ParameterizedTest(name = "Range {0} -> {1}-{2}")
+    @CsvSource({
+            "bytes=0-4, 0, 4",
+            "bytes=5-, 5, 9",
+            "bytes=-3, 7, 9",
+            "bytes=8-20, 8, 9",
+            "bytes=-50, 0, 9"
+    })
+    @DisplayName("Happy path: satisfiable single ranges are resolved against the file size")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies explicit, open-ended and suffix byte ranges are parsed and clamped to the file")
+    void testParseSatisfiableRange(String header, long expectedStart, long expectedEnd) {
+        Allure.step("Parse " + header);
+        ByteRange range = ByteRangeResponder.parseRange(header, FILE_SIZE);
+
+        assertNotNull(range);
+        assertNotSame(ByteRange.UNSATISFIABLE, range);
+        assertEquals(expectedStart, range.getStart());
+        assertEquals(expectedEnd, range.getEnd());
+    }
+
+    @ParameterizedTest(name = "Range {0} is unsatisfiable")
+    @ValueSource(strings = {"bytes=10-", "bytes=25-30", "bytes=-0"})
+    @DisplayName("Sad path: ranges outside the file are unsatisfiable")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies ranges starting past the end of the file produce a 416 marker")
+    void testParseUnsatisfiableRange(String header) {
+        assertSame(ByteRange.UNSATISFIABLE, ByteRangeResponder.parseRange(header, FILE_SIZE));
+    }
+
+    @ParameterizedTest(name = "Range {0} falls back to full response")
+    @NullSource
+    @ValueSource(strings = {"items=0-4", "bytes=0-1,4-5", "bytes=abc", "bytes=5-2"})
+    @DisplayName("Edge case: missing, malformed and multi-range headers send the whole file")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies headers that cannot be served as a single range are ignored")
+    void testParseIgnoredRange(String header) {
+        assertNull(ByteRangeResponder.parseRange(header, FILE_SIZE));
+    }
+
+    @Test
+    @DisplayName("Happy path: If-Range matches current ETag and Last-Modified")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the range is honoured only while the validator still identifies the same file")
+    void testIfRangeMatches() {
+        assertTrue(ByteRangeResponder.ifRangeMatches(ETAG, ETAG, LAST_MODIFIED));
+        assertTrue(ByteRangeResponder.ifRangeMatches("Thu, 2 Jan 2025 03:04:05 GMT", ETAG, LAST_MODIFIED));
+    }
+
+    @Test
+    @DisplayName("Sad path: stale or weak If-Range validators do not match")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a changed file is sent in full instead of splicing ranges from different versions")
+    void testIfRangeDoesNotMatch() {
+        assertFalse(ByteRangeResponder.ifRangeMatches("\"other\"", ETAG, LAST_MODIFIED));
+        assertFalse(ByteRangeResponder.ifRangeMatches("W/" + ETAG, ETAG, LAST_MODIFIED));
+        assertFalse(ByteRangeResponder.ifRangeMatches("Fri, 3 Jan 2025 03:04:05 GMT", ETAG, LAST_MODIFIED));
+        assertFalse(ByteRangeResponder.ifRangeMatches("not a date", ETAG, LAST_MODIFIED));
+    }
+}
@@ -0,0 +1,162 @@
+package com.revature.unittests.controllertests;
+
+import com.revature.api.HealthController;
+import com.revature.monitoring.MetricsRegistry;
+import com.revature.monitoring.StartupTimer;
+import io.javalin.http.Context;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@Epic("Expense Management System")
+@Feature("Controller API Middleware")
+@Story("As an operator, I want traffic routed only to instances that can serve it")
+class HealthControllerTest {
+
+    @Mock
+    private Context ctx;
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+    private StartupTimer startupTimer;
+    private HealthController healthController;
+
+    @BeforeEach
+    void setUp() {
+        MetricsRegistry registry = new MetricsRegistry();
+        startupTimer = new StartupTimer(Instant.now(), registry);
+        healthController = new HealthController(startupTimer, nanos::get, registry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> respondedBody(Context context) {
+        ArgumentCaptor<Object> body = ArgumentCaptor.forClass(Object.class);
+        verify(context, atLeastOnce()).json(body.capture());
+        return (Map<String, Object>) body.getValue();
+    }
+
+    @Test
+    @DisplayName("ready: all checks pass => 200 healthy and startup marked")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a ready instance answers healthy with each check's result and records the first healthy response")
+    void testReadyWhenChecksPass() {
+        Allure.step("Arrange: two passing checks");
+        healthController.addCheck("database", Duration.ofSeconds(5), () -> { });
+        healthController.addCheck("queue", Duration.ZERO, () -> { });
+
+        Allure.step("Act: probe readiness");
+        healthController.ready(ctx);
+
+        Allure.step("Assert: healthy, no error status");
+        Map<String, Object> body = respondedBody(ctx);
+        assertEquals("healthy", body.get("status"));
+        assertEquals(Map.of("database", "ok", "queue", "ok"), body.get("checks"));
+        verify(ctx, never()).status(anyInt());
+        assertNotNull(startupTimer.getTimeToFirstHealthy());
+    }
+
+    @Test
+    @DisplayName("ready: a failing check => 503 with its reason")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies an unreachable database takes the instance out of rotation and says why")
+    void testNotReadyWhenCheckFails() {
+        Allure.step("Arrange: the database probe fails");
+        healthController.addCheck("database", Duration.ofSeconds(5), () -> {
+            throw new SQLException("Database file not found: /wrong/path.db");
+        });
+        healthController.addCheck("queue", Duration.ZERO, () -> { });
+
+        Allure.step("Act: probe readiness");
+        healthController.ready(ctx);
+
+        Allure.step("Assert: 503 with the failure, startup not marked");
+        verify(ctx).status(503);
+        Map<String, Object> body = respondedBody(ctx);
+        assertEquals("unhealthy", body.get("status"));
+        assertEquals(Map.of("database", "Database file not found: /wrong/path.db", "queue", "ok"), body.get("checks"));
+        assertNull(startupTimer.getTimeToFirstHealthy());
+    }
+
+    @Test
+    @DisplayName("ready: results are reused within the check interval")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies probing every second runs an expensive check only once per its interval")
+    void testResultCachedForInterval() {
+        Allure.step("Arrange: a database check with a 5 second interval");
+        AtomicInteger runs = new AtomicInteger();
+        healthController.addCheck("database", Duration.ofSeconds(5), runs::incrementAndGet);
+
+        Allure.step("Act: probe every second for 5 seconds, then once more");
+        for (int i = 0; i < 5; i++) {
+            healthController.ready(ctx);
+            nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        }
+        healthController.ready(ctx);
+
+        Allure.step("Assert: the check ran twice");
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    @DisplayName("ready: concurrent probes do not pile onto a slow check")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies that while one request runs an expired check, others answer from the previous result")
+    void testSlowCheckRunsOnce() throws Exception {
+        Allure.step("Arrange: a check that passed, expired, and now blocks");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        healthController.addCheck("database", Duration.ofSeconds(5), () -> {
+            if (runs.incrementAndGet() > 1) {
+                started.countDown();
+                release.await();
+            }
+        });
+        healthController.ready(ctx);
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        Thread slow = new Thread(() -> healthController.ready(mock(Context.class)));
+        slow.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Allure.step("Act: probe while the check is running");
+        Context concurrent = mock(Context.class);
+        healthController.ready(concurrent);
+        release.countDown();
+        slow.join(TimeUnit.SECONDS.toMillis(5));
+
+        Allure.step("Assert: answered from the previous result without running the check again");
+        assertEquals("healthy", respondedBody(concurrent).get("status"));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    @DisplayName("live: answers without running readiness checks")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies liveness does not depend on the database, so a database outage does not restart the process")
+    void testLiveIgnoresChecks() {
+        AtomicInteger runs = new AtomicInteger();
+        healthController.addCheck("database", Duration.ZERO, runs::incrementAndGet);
+
+        healthController.live(ctx);
+
+        assertEquals("alive", respondedBody(ctx).get("status"));
+        assertEquals(0, runs.get());
+    }
+}
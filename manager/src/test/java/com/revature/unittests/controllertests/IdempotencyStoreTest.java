@@ -0,0 +1,214 @@
+package com.revature.unittests.controllertests;
+
+import com.revature.api.IdempotencyStore;
+import com.revature.api.IdempotencyStore.StoredResponse;
+import com.revature.monitoring.MetricsRegistry;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Controller API Middleware")
+@Story("As a manager, I want a retried approval to return the original result instead of deciding again")
+class IdempotencyStoreTest {
+
+    private static final StoredResponse APPROVED = StoredResponse.json(200,
+            Map.of("success", true, "message", "Expense approved successfully"));
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    @DisplayName("execute: retry with the same key replays the stored response")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the action runs once and the retry gets the same response marked as replayed")
+    void testRetryReplaysResponse() {
+        Allure.step("Arrange: a store and an action that counts its runs");
+        IdempotencyStore store = new IdempotencyStore(10, Duration.ofMinutes(5), clock, new MetricsRegistry());
+        AtomicInteger runs = new AtomicInteger();
+
+        Allure.step("Act: execute the same key twice");
+        StoredResponse first = store.execute("7:approve:1:abc", "pending|-", () -> {
+            runs.incrementAndGet();
+            return APPROVED;
+        });
+        StoredResponse retry = store.execute("7:approve:1:abc", "pending|-", () -> {
+            runs.incrementAndGet();
+            return APPROVED;
+        });
+
+        Allure.step("Assert: one run, the retry is a replay of the same body");
+        assertEquals(1, runs.get());
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertEquals(200, retry.getStatus());
+        assertEquals(first.getBody(), retry.getBody());
+    }
+
+    @Test
+    @DisplayName("execute: error responses are replayed too")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a stored 409 conflict is replayed with its message and details")
+    void testErrorResponseReplayed() {
+        IdempotencyStore store = new IdempotencyStore(10, Duration.ofMinutes(5), clock, new MetricsRegistry());
+        store.execute("k", "pending|-",
+                () -> StoredResponse.error(409, "Expense is already denied", Map.of("currentStatus", "denied")));
+
+        StoredResponse retry = store.execute("k", "pending|-", () -> fail("must not run again"));
+
+        assertTrue(retry.isError());
+        assertEquals(409, retry.getStatus());
+        assertEquals("Expense is already denied", retry.getMessage());
+        assertEquals("denied", retry.getDetails().get("currentStatus"));
+    }
+
+    @Test
+    @DisplayName("execute: same key with different parameters => KeyReusedException")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a key reused for a different request is rejected instead of replaying the wrong response")
+    void testKeyReusedWithDifferentParameters() {
+        IdempotencyStore store = new IdempotencyStore(10, Duration.ofMinutes(5), clock, new MetricsRegistry());
+        store.execute("k", "pending|+first comment", () -> APPROVED);
+
+        assertThrows(IdempotencyStore.KeyReusedException.class,
+                () -> store.execute("k", "pending|+second comment", () -> APPROVED));
+    }
+
+    @Test
+    @DisplayName("execute: response expires after the TTL")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a key is executed again once its stored response is older than the TTL")
+    void testResponseExpiresAfterTtl() {
+        Allure.step("Arrange: a response stored with a 5 minute TTL");
+        IdempotencyStore store = new IdempotencyStore(10, Duration.ofMinutes(5), clock, new MetricsRegistry());
+        AtomicInteger runs = new AtomicInteger();
+        store.execute("k", "f", () -> {
+            runs.incrementAndGet();
+            return APPROVED;
+        });
+
+        Allure.step("Act: retry just before and after the TTL");
+        clock.advance(Duration.ofMinutes(4));
+        StoredResponse beforeExpiry = store.execute("k", "f", () -> {
+            runs.incrementAndGet();
+            return APPROVED;
+        });
+        clock.advance(Duration.ofMinutes(2));
+        StoredResponse afterExpiry = store.execute("k", "f", () -> {
+            runs.incrementAndGet();
+            return APPROVED;
+        });
+
+        Allure.step("Assert: only the expired key ran again");
+        assertTrue(beforeExpiry.isReplayed());
+        assertFalse(afterExpiry.isReplayed());
+        assertEquals(2, runs.get());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("execute: store is bounded and evicts the oldest response")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies the store never holds more than its capacity and evicts in insertion order")
+    void testCapacityEvictsOldest() {
+        IdempotencyStore store = new IdempotencyStore(2, Duration.ofMinutes(5), clock, new MetricsRegistry());
+        store.execute("a", "f", () -> APPROVED);
+        store.execute("b", "f", () -> APPROVED);
+        store.execute("c", "f", () -> APPROVED);
+
+        assertEquals(2, store.size());
+        assertTrue(store.execute("c", "f", () -> APPROVED).isReplayed());
+        assertFalse(store.execute("a", "f", () -> APPROVED).isReplayed());
+    }
+
+    @Test
+    @DisplayName("execute: failed action is not stored")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a request that failed with an exception can be retried with the same key")
+    void testFailureNotStored() {
+        IdempotencyStore store = new IdempotencyStore(10, Duration.ofMinutes(5), clock, new MetricsRegistry());
+
+        assertThrows(IllegalStateException.class, () -> store.execute("k", "f", () -> {
+            throw new IllegalStateException("database is locked");
+        }));
+        StoredResponse retry = store.execute("k", "f", () -> APPROVED);
+
+        assertFalse(retry.isReplayed());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("execute: concurrent retry waits for the original and shares its response")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a retry arriving while the original is running does not run the action a second time")
+    void testConcurrentRetryWaitsForOriginal() throws Exception {
+        Allure.step("Arrange: an original request blocked inside its action");
+        IdempotencyStore store = new IdempotencyStore(10, Duration.ofMinutes(5), clock, new MetricsRegistry());
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread original = new Thread(() -> store.execute("k", "f", () -> {
+            runs.incrementAndGet();
+            running.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return APPROVED;
+        }));
+        original.start();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        Allure.step("Act: retry while the original runs, then let it finish");
+        AtomicReference<StoredResponse> retry = new AtomicReference<>();
+        Thread retrying = new Thread(() -> retry.set(store.execute("k", "f", () -> {
+            runs.incrementAndGet();
+            return APPROVED;
+        })));
+        retrying.start();
+        finish.countDown();
+        original.join(5000);
+        retrying.join(5000);
+
+        Allure.step("Assert: the action ran once and the retry got the replayed response");
+        assertEquals(1, runs.get());
+        assertTrue(retry.get().isReplayed());
+        assertEquals(APPROVED.getBody(), retry.get().getBody());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
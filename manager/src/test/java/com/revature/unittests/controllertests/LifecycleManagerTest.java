@@ -0,0 +1,103 @@
+package com.revature.unittests.controllertests;
+
+import com.revature.api.LifecycleManager;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Controller API Middleware")
+@Story("As a manager, I want redeploys to finish my approvals and exports instead of cutting them off")
+class LifecycleManagerTest {
+
+    @Test
+    @DisplayName("shutdown: stop accepting, then drain, then close, each in registration order")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies resources are only closed after in-flight work has drained")
+    void testPhaseOrder() {
+        Allure.step("Arrange: one action per phase, registered out of phase order");
+        List<String> events = new ArrayList<>();
+        LifecycleManager lifecycleManager = new LifecycleManager(Duration.ofSeconds(5));
+        lifecycleManager.addResource("database", () -> events.add("close database"));
+        lifecycleManager.addDrainTask("requests", timeout -> events.add("drain requests"));
+        lifecycleManager.onStopAccepting(() -> events.add("stop accepting"));
+        lifecycleManager.addDrainTask("report jobs", timeout -> events.add("drain report jobs"));
+        lifecycleManager.addResource("access log", () -> events.add("close access log"));
+
+        Allure.step("Act: shut down");
+        assertFalse(lifecycleManager.isShuttingDown());
+        boolean drained = lifecycleManager.shutdown();
+
+        Allure.step("Assert: phases ran in order");
+        assertTrue(drained);
+        assertTrue(lifecycleManager.isShuttingDown());
+        assertEquals(List.of("stop accepting", "drain requests", "drain report jobs", "close database",
+                "close access log"), events);
+    }
+
+    @Test
+    @DisplayName("shutdown: drain tasks share one deadline")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a slow drain uses up the deadline rather than each task getting its own")
+    void testDeadlineShared() {
+        Allure.step("Arrange: a drain that uses the whole deadline, then another");
+        List<Duration> timeouts = new ArrayList<>();
+        LifecycleManager lifecycleManager = new LifecycleManager(Duration.ofMillis(200));
+        lifecycleManager.addDrainTask("requests", timeout -> {
+            timeouts.add(timeout);
+            Thread.sleep(timeout.toMillis() + 50);
+            return false;
+        });
+        lifecycleManager.addDrainTask("report jobs", timeout -> {
+            timeouts.add(timeout);
+            return timeout.isZero();
+        });
+
+        Allure.step("Act: shut down");
+        boolean drained = lifecycleManager.shutdown();
+
+        Allure.step("Assert: the second task got no time, and the shutdown reports the timeout");
+        assertFalse(drained);
+        assertTrue(timeouts.get(0).compareTo(Duration.ofMillis(200)) <= 0);
+        assertEquals(Duration.ZERO, timeouts.get(1));
+    }
+
+    @Test
+    @DisplayName("shutdown: a failing resource does not stop the others from closing")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies the database and access log are still closed when an earlier resource throws")
+    void testCloseContinuesAfterFailure() {
+        List<String> closed = new ArrayList<>();
+        LifecycleManager lifecycleManager = new LifecycleManager(Duration.ofSeconds(1));
+        lifecycleManager.addResource("web server", () -> {
+            throw new IllegalStateException("already stopped");
+        });
+        lifecycleManager.addResource("database", () -> closed.add("database"));
+        lifecycleManager.addResource("access log", () -> closed.add("access log"));
+
+        lifecycleManager.shutdown();
+
+        assertEquals(List.of("database", "access log"), closed);
+    }
+
+    @Test
+    @DisplayName("shutdown: only the first call has an effect")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a second shutdown, e.g. an explicit call before the hook runs, does not close resources twice")
+    void testShutdownOnce() {
+        List<String> closed = new ArrayList<>();
+        LifecycleManager lifecycleManager = new LifecycleManager(Duration.ofSeconds(1));
+        lifecycleManager.addResource("database", () -> closed.add("database"));
+
+        lifecycleManager.shutdown();
+        lifecycleManager.shutdown();
+
+        assertEquals(1, closed.size());
+    }
+}
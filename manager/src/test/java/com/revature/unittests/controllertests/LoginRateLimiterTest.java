@@ -0,0 +1,142 @@
+package com.revature.unittests.controllertests;
+
+import com.revature.api.LoginRateLimiter;
+import com.revature.monitoring.MetricsRegistry;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Controller API Middleware")
+@Story("As a manager, I want credential-stuffing bursts throttled so that they cannot exhaust the server")
+class LoginRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+
+    private LoginRateLimiter newLimiter(int ipPerMinute, int usernamePerMinute, int maxKeys) {
+        return new LoginRateLimiter(ipPerMinute, usernamePerMinute, maxKeys, nanos::get, new MetricsRegistry());
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    @DisplayName("tryAcquire: an IP may use its burst, then waits for the next token")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the per-IP bucket allows a minute's attempts at once and reports when to retry")
+    void testIpBurstThenRejected() {
+        Allure.step("Arrange: 3 attempts per minute per IP");
+        LoginRateLimiter limiter = newLimiter(3, 100, 100);
+
+        Allure.step("Act: four attempts at once, with different usernames");
+        List<Duration> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(limiter.tryAcquire("10.0.0.1", "user" + i));
+        }
+
+        Allure.step("Assert: three allowed, the fourth told to retry in 20 seconds");
+        assertEquals(Duration.ZERO, results.get(0));
+        assertEquals(Duration.ZERO, results.get(2));
+        assertEquals(Duration.ofSeconds(20), results.get(3));
+        assertEquals(Duration.ZERO, limiter.tryAcquire("10.0.0.2", "user0"));
+    }
+
+    @Test
+    @DisplayName("tryAcquire: a username is limited across IPs, case-insensitively")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies distributed guessing against one account is throttled by the username bucket")
+    void testUsernameLimitedAcrossIps() {
+        LoginRateLimiter limiter = newLimiter(100, 2, 100);
+
+        assertTrue(limiter.tryAcquire("10.0.0.1", "manager1").isZero());
+        assertTrue(limiter.tryAcquire("10.0.0.2", "Manager1").isZero());
+
+        assertFalse(limiter.tryAcquire("10.0.0.3", "MANAGER1").isZero());
+        assertTrue(limiter.tryAcquire("10.0.0.3", "manager2").isZero());
+    }
+
+    @Test
+    @DisplayName("tryAcquire: tokens refill over time")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a throttled client may retry once the refill interval has passed")
+    void testRefill() {
+        LoginRateLimiter limiter = newLimiter(2, 100, 100);
+        limiter.tryAcquire("10.0.0.1", "a");
+        limiter.tryAcquire("10.0.0.1", "b");
+        assertFalse(limiter.tryAcquire("10.0.0.1", "c").isZero());
+
+        advance(Duration.ofSeconds(30));
+
+        assertTrue(limiter.tryAcquire("10.0.0.1", "c").isZero());
+        assertFalse(limiter.tryAcquire("10.0.0.1", "d").isZero());
+    }
+
+    @Test
+    @DisplayName("Bounded map: idle buckets are evicted, and keys beyond the limit share an overflow bucket")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a flood of distinct IPs neither grows the map past its limit nor escapes throttling")
+    void testKeyLimit() {
+        Allure.step("Arrange: room for two IP buckets, one attempt per minute");
+        LoginRateLimiter limiter = newLimiter(1, 100, 2);
+        assertTrue(limiter.tryAcquire("10.0.0.1", "a").isZero());
+        assertTrue(limiter.tryAcquire("10.0.0.2", "b").isZero());
+
+        Allure.step("Act & Assert: new IPs share one overflow bucket while the map is full of active buckets");
+        advance(Duration.ofSeconds(2));
+        assertTrue(limiter.tryAcquire("10.0.0.3", "c").isZero());
+        assertFalse(limiter.tryAcquire("10.0.0.4", "d").isZero());
+
+        Allure.step("Act & Assert: once the buckets have refilled they are evicted and new IPs get their own");
+        advance(Duration.ofMinutes(1));
+        assertTrue(limiter.tryAcquire("10.0.0.5", "e").isZero());
+        assertTrue(limiter.tryAcquire("10.0.0.6", "f").isZero());
+    }
+
+    @Test
+    @DisplayName("Concurrency: simultaneous attempts never exceed the burst")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the compare-and-set bucket hands out exactly the allowed number of tokens under contention")
+    void testConcurrentAttempts() throws Exception {
+        Allure.step("Arrange: 50 attempts per minute, 8 threads");
+        LoginRateLimiter limiter = newLimiter(50, 10_000, 100);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    if (limiter.tryAcquire("10.0.0.1", "user" + thread + "-" + i).isZero()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        Allure.step("Act: release all threads at once");
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        Allure.step("Assert: exactly the burst was allowed");
+        assertEquals(50, allowed.get());
+    }
+}
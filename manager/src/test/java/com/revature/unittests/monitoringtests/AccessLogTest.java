@@ -0,0 +1,97 @@
+package com.revature.unittests.monitoringtests;
+
+import com.revature.monitoring.AccessLog;
+import com.revature.monitoring.AccessLogRecord;
+import com.revature.monitoring.MetricsRegistry;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Monitoring")
+@Story("As an operator, I want an access log that never slows requests down")
+public class AccessLogTest {
+
+    private static AccessLogRecord record(String path, int status) {
+        return new AccessLogRecord(0, "POST", path, "/api/expenses/{expenseId}/approve", status, 12_345,
+                "127.0.0.1", "manager1");
+    }
+
+    @Test
+    @DisplayName("Happy path: records are written as JSON lines and errors bypass sampling")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the line format and that a zero sample rate still logs failed requests")
+    void testFormatAndSampling() {
+        Allure.step("Arrange: an access log sampling no successful requests");
+        MetricsRegistry registry = new MetricsRegistry();
+        StringWriter out = new StringWriter();
+        AccessLog accessLog = new AccessLog(out, 16, 0.0, registry);
+
+        Allure.step("Act: log a success and a server error, then close");
+        accessLog.log(record("/api/expenses/1/approve", 200));
+        accessLog.log(record("/api/expenses/2/approve", 500));
+        accessLog.close();
+
+        Allure.step("Assert: only the error was written");
+        assertEquals("{\"time\":\"1970-01-01T00:00:00Z\",\"method\":\"POST\",\"path\":\"/api/expenses/2/approve\","
+                + "\"route\":\"/api/expenses/{expenseId}/approve\",\"status\":500,\"duration_ms\":12.345,"
+                + "\"client_ip\":\"127.0.0.1\",\"user\":\"manager1\"}\n", out.toString());
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("access_log_records_total{outcome=\"sampled_out\"} 1\n"));
+        assertTrue(scrape.contains("access_log_records_total{outcome=\"written\"} 1\n"));
+    }
+
+    @Test
+    @DisplayName("Edge case: a full buffer drops records instead of blocking")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies log() returns immediately and counts the record as dropped while the writer is stuck")
+    void testDropOnOverflow() throws Exception {
+        Allure.step("Arrange: a two-slot buffer whose writer blocks on the first batch");
+        MetricsRegistry registry = new MetricsRegistry();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Writer blockingWriter = new StringWriter() {
+            @Override
+            public void write(String str) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(str);
+            }
+        };
+        AccessLog accessLog = new AccessLog(blockingWriter, 2, 1.0, registry);
+
+        Allure.step("Act: fill the buffer while the writer is blocked");
+        accessLog.log(record("/first", 200));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        accessLog.log(record("/second", 200));
+        accessLog.log(record("/third", 200));
+        accessLog.log(record("/fourth", 200));
+        release.countDown();
+        accessLog.close();
+
+        Allure.step("Assert: the record that did not fit was dropped");
+        String output = blockingWriter.toString();
+        assertTrue(output.contains("\"path\":\"/first\""));
+        assertTrue(output.contains("\"path\":\"/second\""));
+        assertTrue(output.contains("\"path\":\"/third\""));
+        assertFalse(output.contains("\"path\":\"/fourth\""));
+        assertTrue(registry.scrape().contains("access_log_records_total{outcome=\"dropped\"} 1\n"));
+    }
+}
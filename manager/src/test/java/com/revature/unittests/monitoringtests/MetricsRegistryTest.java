@@ -0,0 +1,98 @@
+package com.revature.unittests.monitoringtests;
+
+import com.revature.monitoring.Counter;
+import com.revature.monitoring.Histogram;
+import com.revature.monitoring.MetricFamily;
+import com.revature.monitoring.MetricsRegistry;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Monitoring")
+@Story("As an operator, I want Prometheus metrics so that I can see where request time goes")
+public class MetricsRegistryTest {
+
+    @Test
+    @DisplayName("Happy path: histogram buckets are rendered cumulatively")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies histogram samples follow the Prometheus text format with cumulative buckets, sum and count")
+    void testHistogramExposition() {
+        Allure.step("Arrange/Act: observe values below, between and above the bounds");
+        MetricsRegistry registry = new MetricsRegistry();
+        Histogram histogram = registry.histogram("test_duration_seconds", "Test durations",
+                new double[]{0.1, 1}, "route").labels("/api/expenses/{expenseId}/approve");
+        histogram.observe(0.05);
+        histogram.observe(0.5);
+        histogram.observe(5);
+
+        Allure.step("Assert: scrape output");
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("# TYPE test_duration_seconds histogram\n"));
+        assertTrue(scrape.contains("test_duration_seconds_bucket{route=\"/api/expenses/{expenseId}/approve\",le=\"0.1\"} 1\n"));
+        assertTrue(scrape.contains("test_duration_seconds_bucket{route=\"/api/expenses/{expenseId}/approve\",le=\"1\"} 2\n"));
+        assertTrue(scrape.contains("test_duration_seconds_bucket{route=\"/api/expenses/{expenseId}/approve\",le=\"+Inf\"} 3\n"));
+        assertTrue(scrape.contains("test_duration_seconds_count{route=\"/api/expenses/{expenseId}/approve\"} 3\n"));
+        assertEquals(5.55, histogram.getSum(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Happy path: concurrent increments are not lost")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies counters are safe to increment from many threads without locking")
+    void testConcurrentCounter() throws Exception {
+        Allure.step("Arrange: a shared counter");
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("test_total", "Test counter").labels();
+
+        Allure.step("Act: increment from four threads");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.inc();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Allure.step("Assert: every increment counted");
+        assertEquals(40_000, counter.get());
+        assertTrue(registry.scrape().contains("test_total 40000\n"));
+    }
+
+    @Test
+    @DisplayName("Edge case: registering the same name returns the existing family, a different type is rejected")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies components can look up shared metrics independently, and that label values are escaped")
+    void testRegistrationAndEscaping() {
+        Allure.step("Arrange: register a counter twice");
+        MetricsRegistry registry = new MetricsRegistry();
+        MetricFamily<Counter> first = registry.counter("test_total", "Test counter", "name");
+        MetricFamily<Counter> second = registry.counter("test_total", "Test counter", "name");
+
+        Allure.step("Assert: same family, conflicting registration rejected");
+        assertSame(first, second);
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("test_total", "Test gauge"));
+        assertThrows(IllegalArgumentException.class, () -> first.labels("a", "b"));
+
+        Allure.step("Assert: quotes in label values are escaped");
+        first.labels("say \"hi\"").inc();
+        assertTrue(registry.scrape().contains("test_total{name=\"say \\\"hi\\\"\"} 1\n"));
+    }
+}
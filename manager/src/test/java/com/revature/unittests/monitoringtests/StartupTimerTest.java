@@ -0,0 +1,47 @@
+package com.revature.unittests.monitoringtests;
+
+import com.revature.monitoring.MetricsRegistry;
+import com.revature.monitoring.StartupTimer;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Monitoring")
+@Story("As an operator, I want startup time tracked so that regressions are noticed")
+public class StartupTimerTest {
+
+    @Test
+    @DisplayName("markHealthy: only the first healthy response is recorded")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies time to first healthy response is measured from process start and not overwritten")
+    void testFirstHealthyRecordedOnce() throws InterruptedException {
+        Allure.step("Arrange: a timer started two seconds ago");
+        MetricsRegistry registry = new MetricsRegistry();
+        StartupTimer timer = new StartupTimer(Instant.now().minusSeconds(2), registry);
+        assertNull(timer.getTimeToFirstHealthy());
+        assertTrue(registry.scrape().contains("startup_first_healthy_seconds NaN\n"));
+
+        Allure.step("Act: two healthy responses");
+        timer.markHealthy();
+        Duration first = timer.getTimeToFirstHealthy();
+        Thread.sleep(20);
+        timer.markHealthy();
+
+        Allure.step("Assert: the first is kept and exported");
+        assertTrue(first.compareTo(Duration.ofSeconds(2)) >= 0);
+        assertEquals(first, timer.getTimeToFirstHealthy());
+        assertFalse(registry.scrape().contains("startup_first_healthy_seconds NaN\n"));
+    }
+}
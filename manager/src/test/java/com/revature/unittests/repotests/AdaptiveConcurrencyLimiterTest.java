@@ -0,0 +1,81 @@
+package com.revature.unittests.repotests;
+
+import com.revature.monitoring.MetricsRegistry;
+import com.revature.repository.AdaptiveConcurrencyLimiter;
+import com.revature.repository.DatabaseOverloadedException;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Database Load Management")
+@Story("As an operator, I want the manager to back off when the shared database slows down")
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static int saturate(AdaptiveConcurrencyLimiter limiter) {
+        int acquired = 0;
+        try {
+            while (true) {
+                limiter.acquire();
+                acquired++;
+            }
+        } catch (DatabaseOverloadedException e) {
+            return acquired;
+        }
+    }
+
+    private static void releaseAll(AdaptiveConcurrencyLimiter limiter, int permits, long latencyNanos) {
+        for (int i = 0; i < permits; i++) {
+            limiter.release(latencyNanos);
+        }
+    }
+
+    @Test
+    @DisplayName("Sad path: statements beyond the limit are refused and counted")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies acquire() throws DatabaseOverloadedException once the limit is in flight")
+    void testRejectsBeyondLimit() {
+        Allure.step("Arrange: a limiter starting at four");
+        MetricsRegistry registry = new MetricsRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 2, 16, registry);
+
+        Allure.step("Act: take permits until refused");
+        int acquired = saturate(limiter);
+
+        Allure.step("Assert: exactly the limit was admitted");
+        assertEquals(4, acquired);
+        assertEquals(4, limiter.getInFlight());
+        assertTrue(registry.scrape().contains("db_concurrency_rejections_total 1\n"));
+    }
+
+    @Test
+    @DisplayName("Happy path: the limit shrinks when latency rises and grows while it is steady")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the gradient between long-term and short-term latency drives the limit")
+    void testLimitFollowsLatency() {
+        Allure.step("Arrange: a saturated limiter with steady 1 ms statements");
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 2, 32, new MetricsRegistry());
+        for (int round = 0; round < 50; round++) {
+            releaseAll(limiter, saturate(limiter), 1_000_000);
+        }
+        int steadyLimit = limiter.getLimit();
+
+        Allure.step("Act: statements become ten times slower");
+        for (int round = 0; round < 3; round++) {
+            releaseAll(limiter, saturate(limiter), 10_000_000);
+        }
+
+        Allure.step("Assert: the limit grew to the cap, then backed off");
+        assertEquals(32, steadyLimit);
+        assertTrue(limiter.getLimit() < steadyLimit / 2, "limit was " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 2);
+    }
+}
@@ -246,6 +246,31 @@ public class GenerateReportRepoTest {
         );
     }
 
+    @Test
+    @DisplayName("[Happy Path]: Streamed filters are profiled under separate SQL ids")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies each streaming filter kind gets its own query statistics, so the recorded SQL matches its WHERE clause.")
+    void testStreamedFiltersProfiledSeparately() throws SQLException {
+
+        Allure.step("Arrange: Setup an empty ResultSet");
+        when(mockResultSet.next()).thenReturn(false);
+
+        Allure.step("Act: Stream pending expenses and expenses for one user");
+        expenseRepository.streamExpensesWithUsers(ExpenseFilter.pending(), row -> { });
+        expenseRepository.streamExpensesWithUsers(ExpenseFilter.byUser(10), row -> { });
+
+        Allure.step("Assert: Verify each filter has statistics holding its own SQL");
+        List<QueryStats> statistics = QueryProfiler.getDefault().getStatistics();
+        QueryStats pending = statistics.stream()
+                .filter(stats -> stats.getSqlId().equals("ExpenseRepository.streamExpensesWithUsers.pending"))
+                .findFirst().orElseThrow();
+        QueryStats byUser = statistics.stream()
+                .filter(stats -> stats.getSqlId().equals("ExpenseRepository.streamExpensesWithUsers.byUser"))
+                .findFirst().orElseThrow();
+        assertTrue(pending.getSql().contains("WHERE a.status = 'pending'"));
+        assertTrue(byUser.getSql().contains("WHERE e.user_id = ?"));
+    }
+
     @MockitoSettings(strictness = Strictness.LENIENT)
     @Test
     @DisplayName("[Sad Path]: Fail when retrieving expenses by date range due to database error")
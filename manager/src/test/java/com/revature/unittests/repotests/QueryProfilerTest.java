@@ -0,0 +1,171 @@
+package com.revature.unittests.repotests;
+
+import com.revature.monitoring.MetricsRegistry;
+import com.revature.repository.AdaptiveConcurrencyLimiter;
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.DatabaseOverloadedException;
+import com.revature.repository.QueryProfiler;
+import com.revature.repository.QueryStats;
+import com.revature.repository.QueryTrace;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@Epic("Expense Management System")
+@Feature("Monitoring")
+@Story("As an operator, I want per-statement query statistics so that I can find slow queries")
+@ExtendWith(MockitoExtension.class)
+public class QueryProfilerTest {
+
+    @Mock
+    private PreparedStatement stmt;
+
+    @Mock
+    private ResultSet rs;
+
+    @Test
+    @DisplayName("Happy path: calls and rows are aggregated per SQL id")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies each traced execution adds one call and the rows read to its statement's statistics")
+    void testStatisticsAggregatedPerStatement() throws Exception {
+        Allure.step("Arrange: a statement returning two rows per execution");
+        MetricsRegistry registry = new MetricsRegistry();
+        QueryProfiler profiler = new QueryProfiler(registry);
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, false, true, true, false);
+
+        Allure.step("Act: run the statement twice");
+        for (int i = 0; i < 2; i++) {
+            QueryTrace trace = profiler.start(null, "ExpenseRepository.findAllExpensesWithUsers", "SELECT 1");
+            ResultSet result = trace.executeQuery(stmt);
+            while (trace.next(result)) {
+                // consume
+            }
+            trace.finish();
+            trace.finish();
+        }
+
+        Allure.step("Assert: one statistics entry with both executions");
+        List<QueryStats> statistics = profiler.getStatistics();
+        assertEquals(1, statistics.size());
+        QueryStats stats = statistics.get(0);
+        assertEquals("ExpenseRepository.findAllExpensesWithUsers", stats.getSqlId());
+        assertEquals(2, stats.getCalls());
+        assertEquals(4, stats.getRows());
+        assertEquals(0, stats.getSlowCalls());
+        assertTrue(registry.scrape().contains(
+                "db_query_duration_seconds_count{repository=\"ExpenseRepository\",method=\"findAllExpensesWithUsers\"} 2\n"));
+    }
+
+    @Test
+    @DisplayName("Edge case: executions over the threshold are recorded as slow")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies an update slower than the slow query threshold is counted and listed among recent slow queries")
+    void testSlowQueryRecorded() throws Exception {
+        Allure.step("Arrange: a zero threshold so every execution is slow");
+        QueryProfiler profiler = new QueryProfiler(new MetricsRegistry());
+        profiler.setSlowQueryThreshold(Duration.ZERO);
+        when(stmt.executeUpdate()).thenReturn(1);
+
+        Allure.step("Act: run an update");
+        QueryTrace trace = profiler.start(null, "ApprovalRepository.updateApprovalStatus", "UPDATE approvals SET status = ?");
+        int affected = trace.executeUpdate(stmt);
+        trace.finish();
+
+        Allure.step("Assert: the execution is counted as slow");
+        assertEquals(1, affected);
+        QueryStats stats = profiler.getStatistics().get(0);
+        assertEquals(1, stats.getSlowCalls());
+        assertEquals(1, stats.getRows());
+        List<QueryProfiler.SlowQuery> slowQueries = profiler.getRecentSlowQueries();
+        assertEquals(1, slowQueries.size());
+        assertEquals("ApprovalRepository.updateApprovalStatus", slowQueries.get(0).getSqlId());
+    }
+
+    @Test
+    @DisplayName("Edge case: a streamed scan returns its limiter permit at the first row")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a report scan holds a scan permit rather than a concurrency limiter permit while its rows are encoded")
+    void testScanReleasesLimiterAtFirstRow() throws Exception {
+        Allure.step("Arrange: a database and a statement returning rows");
+        QueryProfiler profiler = new QueryProfiler(new MetricsRegistry());
+        DatabaseConnection databaseConnection = new DatabaseConnection("unused.db");
+        AdaptiveConcurrencyLimiter limiter = databaseConnection.getConcurrencyLimiter();
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+
+        Allure.step("Act: start scans and read the first row of each");
+        QueryTrace[] traces = new QueryTrace[DatabaseConnection.DEFAULT_MAX_CONCURRENT_SCANS];
+        for (int i = 0; i < traces.length; i++) {
+            traces[i] = profiler.startScan(databaseConnection, "ExpenseRepository.streamExpensesWithUsers", "SELECT 1");
+            assertEquals(1, limiter.getInFlight());
+            assertTrue(traces[i].next(traces[i].executeQuery(stmt)));
+        }
+
+        Allure.step("Assert: no limiter permits held mid-scan, further scans refused until one finishes");
+        assertEquals(0, limiter.getInFlight());
+        assertThrows(DatabaseOverloadedException.class, () ->
+                profiler.startScan(databaseConnection, "ExpenseRepository.streamExpensesWithUsers", "SELECT 1"));
+        assertEquals(0, limiter.getInFlight());
+        for (QueryTrace trace : traces) {
+            trace.finish();
+        }
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(traces.length, databaseConnection.getScanPermits().availablePermits());
+    }
+
+    @Test
+    @DisplayName("Happy path: a JFR event is committed per statement while recording")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies the com.revature.Query flight recorder event carries the SQL id and row count")
+    void testQueryEventRecorded() throws Exception {
+        Allure.step("Arrange: a recording with the query event enabled");
+        QueryProfiler profiler = new QueryProfiler(new MetricsRegistry());
+        when(stmt.executeUpdate()).thenReturn(2);
+        Path file = Files.createTempFile("query-events", ".jfr");
+
+        try {
+            Allure.step("Act: run an update while recording");
+            try (Recording recording = new Recording()) {
+                recording.enable("com.revature.Query");
+                recording.start();
+                QueryTrace trace = profiler.start(null, "ApprovalRepository.updateApprovalStatus", "UPDATE approvals SET status = ?");
+                trace.executeUpdate(stmt);
+                trace.finish();
+                recording.stop();
+                recording.dump(file);
+            }
+
+            Allure.step("Assert: one event with the statement's id and rows");
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(1, events.size());
+            assertEquals("ApprovalRepository.updateApprovalStatus", events.get(0).getString("sqlId"));
+            assertEquals(2, events.get(0).getLong("rows"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.revature.unittests.repotests;
+
+import com.revature.monitoring.MetricsRegistry;
+import com.revature.repository.User;
+import com.revature.repository.UserDirectory;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Repository Data Access")
+@Story("As the system, I want to authenticate requests without querying the users table every time")
+class UserDirectoryTest {
+
+    private final List<User> table = new ArrayList<>(List.of(
+            new User(1, "manager1", "password123", "Manager"),
+            new User(2, "employee1", "password123", "Employee")));
+    private final AtomicLong dataVersion = new AtomicLong(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private UserDirectory newDirectory() {
+        return new UserDirectory(() -> {
+            loads.incrementAndGet();
+            List<User> rows = new ArrayList<>();
+            for (User user : table) {
+                rows.add(new User(user.getId(), user.getUsername(), user.getPassword(), user.getRole()));
+            }
+            return rows;
+        }, dataVersion::get, new MetricsRegistry());
+    }
+
+    @Test
+    @DisplayName("Happy path: lookups by id and username are served from memory")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the users table is loaded once and lookups do not reload it")
+    void testLookupsServedFromMemory() {
+        Allure.step("Arrange: a directory loaded from a two-user table");
+        UserDirectory directory = newDirectory();
+
+        Allure.step("Act: look users up repeatedly");
+        Optional<User> byId = directory.findById(1);
+        Optional<User> byUsername = directory.findByUsername("employee1");
+        directory.findById(1);
+        directory.findByUsername("manager1");
+
+        Allure.step("Assert: users found, table loaded once");
+        assertTrue(byId.isPresent());
+        assertEquals("manager1", byId.get().getUsername());
+        assertTrue(byUsername.isPresent());
+        assertEquals(2, byUsername.get().getId());
+        assertEquals(1, loads.get());
+        assertEquals(2, directory.size());
+    }
+
+    @Test
+    @DisplayName("Sad path: unknown id and username are not found")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies misses return Optional.empty, and username matching is case-sensitive like SQLite")
+    void testUnknownUsersNotFound() {
+        UserDirectory directory = newDirectory();
+
+        assertTrue(directory.findById(99).isEmpty());
+        assertTrue(directory.findByUsername("nobody").isEmpty());
+        assertTrue(directory.findByUsername("MANAGER1").isEmpty());
+        assertTrue(directory.findByUsername(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("refresh: unchanged data version does not reload the table")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a poll with the same data version is a version check only")
+    void testUnchangedVersionSkipsReload() {
+        UserDirectory directory = newDirectory();
+
+        assertFalse(directory.refresh());
+        assertFalse(directory.refresh());
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("refresh: changed data version picks up added, updated and removed users")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a role change, a new user and a deleted user are visible after the next refresh")
+    void testChangedVersionReloads() {
+        Allure.step("Arrange: a loaded directory, then the table changes");
+        UserDirectory directory = newDirectory();
+        table.set(0, new User(1, "manager1", "password123", "Employee"));
+        table.remove(1);
+        table.add(new User(3, "manager2", "secret", "Manager"));
+        dataVersion.incrementAndGet();
+
+        Allure.step("Act: refresh");
+        boolean reloaded = directory.refresh();
+
+        Allure.step("Assert: the directory matches the table");
+        assertTrue(reloaded);
+        assertEquals(2, loads.get());
+        assertFalse(directory.findById(1).get().isManager());
+        assertTrue(directory.findById(2).isEmpty());
+        assertTrue(directory.findByUsername("employee1").isEmpty());
+        assertEquals(3, directory.findByUsername("manager2").get().getId());
+    }
+
+    @Test
+    @DisplayName("refresh: failed reload keeps serving the previous snapshot")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a database error during refresh does not empty the directory")
+    void testFailedRefreshKeepsSnapshot() {
+        UserDirectory directory = new UserDirectory(
+                () -> List.of(new User(1, "manager1", "password123", "Manager")),
+                () -> {
+                    if (loads.incrementAndGet() > 1) {
+                        throw new RuntimeException("Error reading database data version");
+                    }
+                    return 1;
+                }, new MetricsRegistry());
+
+        assertFalse(directory.refresh());
+
+        assertTrue(directory.findById(1).isPresent());
+    }
+
+    @Test
+    @DisplayName("isLoaded: false until the first load succeeds")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies readiness can tell an empty directory from a failed initial load")
+    void testLoadedAfterFirstSuccessfulLoad() {
+        Allure.step("Arrange: the database is unreachable at startup");
+        AtomicLong failures = new AtomicLong(1);
+        UserDirectory directory = new UserDirectory(() -> List.of(), () -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new RuntimeException("Error reading database data version");
+            }
+            return 1;
+        }, new MetricsRegistry());
+        assertFalse(directory.isLoaded());
+
+        Allure.step("Act & Assert: loaded once a refresh succeeds, even with no users");
+        directory.refresh();
+        assertTrue(directory.isLoaded());
+        assertEquals(0, directory.size());
+    }
+
+    @Test
+    @DisplayName("refresh: a password upgraded to its hash is not reported as a credential change")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies change listeners hear about role changes but not about a password that only changed encoding")
+    void testPasswordEquivalenceSuppressesListener() {
+        Allure.step("Arrange: a directory that treats 'hashed:<password>' as the same password");
+        UserDirectory directory = newDirectory();
+        directory.setPasswordEquivalence((previous, current) -> current.equals("hashed:" + previous));
+        List<Integer> changed = new ArrayList<>();
+        directory.addChangeListener(changed::add);
+
+        Allure.step("Act: upgrade user 1's password and change user 2's role");
+        table.set(0, new User(1, "manager1", "hashed:password123", "Manager"));
+        table.set(1, new User(2, "employee1", "password123", "Manager"));
+        dataVersion.incrementAndGet();
+        directory.refresh();
+
+        Allure.step("Assert: only the role change is reported, both rows are updated");
+        assertEquals(List.of(2), changed);
+        assertEquals("hashed:password123", directory.findById(1).get().getPassword());
+    }
+
+    @Test
+    @DisplayName("Edge case: returned users are copies")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies modifying a returned user does not change what later lookups see")
+    void testReturnedUsersAreCopies() {
+        UserDirectory directory = newDirectory();
+
+        directory.findById(2).get().setRole("Manager");
+
+        assertFalse(directory.findById(2).get().isManager());
+    }
+}
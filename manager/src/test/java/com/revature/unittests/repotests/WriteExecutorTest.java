@@ -0,0 +1,97 @@
+package com.revature.unittests.repotests;
+
+import com.revature.monitoring.MetricsRegistry;
+import com.revature.repository.WriteExecutor;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Database Load Management")
+@Story("As a manager, I want approvals to survive short lock conflicts with the employee app")
+public class WriteExecutorTest {
+
+    private static final String OPERATION = "ApprovalRepository.updateApprovalStatus";
+
+    private static SQLException busy() {
+        return new SQLException("[SQLITE_BUSY] The database file is locked (database is locked)", null, 5);
+    }
+
+    private static WriteExecutor executor(MetricsRegistry registry, Duration deadline) {
+        return new WriteExecutor(deadline, Duration.ofMillis(1), Duration.ofMillis(5), registry);
+    }
+
+    @Test
+    @DisplayName("Happy path: busy attempts are retried until the write succeeds")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies SQLITE_BUSY errors are retried and counted, and the eventual result is returned")
+    void testRetriesBusyWrites() throws Exception {
+        Allure.step("Arrange: a write that is busy twice");
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicInteger attempts = new AtomicInteger();
+
+        Allure.step("Act: execute it");
+        boolean result = executor(registry, Duration.ofSeconds(2)).execute(OPERATION, () -> {
+            if (attempts.incrementAndGet() <= 2) {
+                throw busy();
+            }
+            return true;
+        });
+
+        Allure.step("Assert: third attempt succeeded");
+        assertTrue(result);
+        assertEquals(3, attempts.get());
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("db_write_retries_total{operation=\"" + OPERATION + "\"} 2\n"));
+        assertTrue(scrape.contains("db_write_lock_wait_seconds_count{operation=\"" + OPERATION + "\"} 1\n"));
+    }
+
+    @Test
+    @DisplayName("Sad path: other errors are not retried")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a constraint violation is thrown on the first attempt")
+    void testDoesNotRetryOtherErrors() {
+        Allure.step("Arrange: a write failing with a constraint error");
+        AtomicInteger attempts = new AtomicInteger();
+        SQLException constraint = new SQLException("[SQLITE_CONSTRAINT] Abort due to constraint violation", null, 19);
+
+        Allure.step("Act & Assert: the error is thrown as is");
+        SQLException thrown = assertThrows(SQLException.class,
+                () -> executor(new MetricsRegistry(), Duration.ofSeconds(2)).execute(OPERATION, () -> {
+                    attempts.incrementAndGet();
+                    throw constraint;
+                }));
+        assertSame(constraint, thrown);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Edge case: contention past the deadline fails with the last busy error")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies retries stop once the deadline passes and the failure is counted")
+    void testGivesUpAfterDeadline() {
+        Allure.step("Arrange: a write that is always busy and a short deadline");
+        MetricsRegistry registry = new MetricsRegistry();
+
+        Allure.step("Act & Assert: the busy error surfaces");
+        SQLException thrown = assertThrows(SQLException.class,
+                () -> executor(registry, Duration.ofMillis(50)).execute(OPERATION, () -> {
+                    throw busy();
+                }));
+        assertTrue(WriteExecutor.isBusy(thrown));
+        assertTrue(registry.scrape().contains(
+                "db_write_contention_failures_total{operation=\"" + OPERATION + "\"} 1\n"));
+    }
+}
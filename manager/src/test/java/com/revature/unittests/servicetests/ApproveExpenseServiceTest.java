@@ -4,6 +4,7 @@
 package com.revature.unittests.servicetests;
 
 import com.revature.repository.ApprovalRepository;
+import com.revature.repository.DecisionResult;
 import com.revature.repository.ExpenseRepository;
 import com.revature.service.ExpenseService;
 
@@ -276,4 +277,72 @@ public class ApproveExpenseServiceTest {
         Mockito.verify(approvalRepository, Mockito.times(1))
                 .updateApprovalStatus(expenseId, "denied", managerId, comment);
     }
+
+    // ==================== COMPARE-AND-SET DECISION TESTS ====================
+
+    @Story("As a manager I want my decision to apply only if no other manager has decided the expense")
+    @Test
+    @DisplayName("TC_DEC_001: Happy Path - Pending Expense Is Approved")
+    void testDecideExpenseAppliedHappy() {
+        // Arrange
+        int expenseId = 20;
+        int managerId = 300;
+        String comment = "Approved";
+
+        // Stub the repository to apply the decision
+        Mockito.when(approvalRepository.decideApproval(expenseId, "approved", "pending", managerId, comment))
+                .thenReturn(DecisionResult.applied("approved"));
+
+        // Act
+        DecisionResult result = expenseService.decideExpense(expenseId, managerId, "approved", "pending", comment);
+
+        // Assert
+        Assertions.assertTrue(result.isApplied(), "Decision on a pending expense should apply");
+        Assertions.assertEquals("approved", result.getCurrentStatus());
+
+        // Verify the unconditional update is not used
+        Mockito.verify(approvalRepository, Mockito.never())
+                .updateApprovalStatus(Mockito.anyInt(), Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Story("As a manager I want my decision to apply only if no other manager has decided the expense")
+    @Test
+    @DisplayName("TC_DEC_002: Sad Path - Expense Already Decided Is a Conflict")
+    void testDecideExpenseConflictSad() {
+        // Arrange
+        int expenseId = 21;
+        int managerId = 301;
+
+        // Stub the repository to report another manager's decision
+        Mockito.when(approvalRepository.decideApproval(expenseId, "denied", "pending", managerId, null))
+                .thenReturn(DecisionResult.conflict("approved"));
+
+        // Act
+        DecisionResult result = expenseService.decideExpense(expenseId, managerId, "denied", "pending", null);
+
+        // Assert
+        Assertions.assertFalse(result.isApplied(), "Decision on a decided expense should not apply");
+        Assertions.assertEquals(DecisionResult.Outcome.CONFLICT, result.getOutcome());
+        Assertions.assertEquals("approved", result.getCurrentStatus(), "Conflict should carry the winning status");
+    }
+
+    @Story("As a manager I want my decision to apply only if no other manager has decided the expense")
+    @Test
+    @DisplayName("TC_DEC_003: Sad Path - Missing Expense Is Not Found")
+    void testDecideExpenseNotFoundSad() {
+        // Arrange
+        int expenseId = 9999;
+        int managerId = 302;
+
+        // Stub the repository to find no approval record
+        Mockito.when(approvalRepository.decideApproval(expenseId, "approved", "pending", managerId, null))
+                .thenReturn(DecisionResult.notFound());
+
+        // Act
+        DecisionResult result = expenseService.decideExpense(expenseId, managerId, "approved", "pending", null);
+
+        // Assert
+        Assertions.assertEquals(DecisionResult.Outcome.NOT_FOUND, result.getOutcome());
+        Assertions.assertNull(result.getCurrentStatus(), "Missing expense has no current status");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.revature.unittests.servicetests;
+
+import com.revature.repository.Approval;
+import com.revature.repository.Expense;
+import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.User;
+import com.revature.service.ArrowReportWriter;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Expense Reporting")
+@Story("As a finance analyst, I want typed columnar exports so that I can load reports into analytics tools quickly")
+public class ArrowReportWriterTest {
+
+    private static ExpenseWithUser expense(int id, double amount, String date, Integer reviewer) {
+        return new ExpenseWithUser(
+                new Expense(id, 10, amount, "Expense " + id, date),
+                new User(10, "vu", "pass", "Employee"),
+                new Approval(id, id, reviewer == null ? "pending" : "approved", reviewer, null,
+                        reviewer == null ? null : "2025-01-02 10:00:00")
+        );
+    }
+
+    @Test
+    @DisplayName("Happy path: rows are written in typed record batches")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the Arrow stream splits rows into batches and keeps numeric, date and null values typed")
+    void testWritesTypedBatches() throws Exception {
+        Allure.step("Arrange/Act: write three rows with a batch size of two");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ArrowReportWriter writer = new ArrowReportWriter(out, 2)) {
+            writer.append(expense(1, 12.5, "2025-01-01", 99));
+            writer.append(expense(2, 30.0, "2025-01-05", null));
+            writer.append(expense(3, 7.25, "not-a-date", null));
+            assertEquals(3, writer.getTotalRows());
+        }
+
+        Allure.step("Assert: stream reads back as two batches with typed values");
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+
+            assertTrue(reader.loadNextBatch());
+            assertEquals(2, root.getRowCount());
+            assertEquals(1, ((IntVector) root.getVector("expense_id")).get(0));
+            assertEquals(12.5, ((Float8Vector) root.getVector("amount")).get(0));
+            assertEquals(LocalDate.parse("2025-01-01").toEpochDay(), ((DateDayVector) root.getVector("date")).get(0));
+            assertEquals("vu", new String(((VarCharVector) root.getVector("employee")).get(0)));
+            assertEquals(99, ((IntVector) root.getVector("reviewer")).get(0));
+            assertTrue(root.getVector("reviewer").isNull(1));
+
+            assertTrue(reader.loadNextBatch());
+            assertEquals(1, root.getRowCount());
+            assertEquals(3, ((IntVector) root.getVector("expense_id")).get(0));
+            assertTrue(root.getVector("date").isNull(0));
+
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+
+    @Test
+    @DisplayName("Edge case: empty report still produces a readable stream with a schema")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies an export with no rows can be opened and exposes the report schema")
+    void testEmptyReport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ArrowReportWriter(out, 2).close();
+
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            assertNotNull(reader.getVectorSchemaRoot().getVector("amount"));
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+}
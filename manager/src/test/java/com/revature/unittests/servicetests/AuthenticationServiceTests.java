@@ -6,16 +6,20 @@ import org.junit.jupiter.api.*;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.revature.monitoring.MetricsRegistry;
 import com.revature.repository.User;
 import com.revature.repository.UserRepository;
 import com.revature.service.AuthenticationService;
+import com.revature.service.PasswordHasher;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -566,4 +570,211 @@ class AuthenticationServiceTests {
             verify(userRepository).findById(5);
         }
     }
+
+    @Nested
+    @Feature("Stateless Authorization")
+    @Story("As an operator, I want manager requests authorized from token claims so that nodes need no database access")
+    @Tag("jwt")
+    class StatelessValidationTests {
+
+        private User manager() {
+            User user = new User();
+            user.setId(77);
+            user.setUsername("manager1");
+            user.setRole("Manager");
+            return user;
+        }
+
+        @Tag("happy")
+        @DisplayName("Stateless: validateManagerAuthentication builds the principal from claims")
+        @Severity(SeverityLevel.CRITICAL)
+        @Description("Verifies the user id, username and role come from the verified token without a repository call")
+        @Issue("AUTH-SERVICE-STATELESS-001")
+        @Test
+        void testStatelessValidation_UsesClaims() {
+            Allure.step("Arrange: enable stateless validation and issue a token");
+            authService.enableStatelessValidation();
+            String token = authService.createJwtToken(manager());
+
+            Allure.step("Act: validateManagerAuthentication");
+            Optional<User> result = authService.validateManagerAuthentication(token);
+
+            Allure.step("Assert: principal from claims, repository never called");
+            assertTrue(result.isPresent());
+            assertEquals(77, result.get().getId());
+            assertEquals("manager1", result.get().getUsername());
+            assertTrue(result.get().isManager());
+            assertNull(result.get().getPassword());
+            verifyNoInteractions(userRepository);
+        }
+
+        @Tag("sad")
+        @DisplayName("Stateless: token revoked on logout is rejected")
+        @Severity(SeverityLevel.CRITICAL)
+        @Description("Verifies revokeToken makes a still-unexpired token invalid")
+        @Issue("AUTH-SERVICE-STATELESS-002")
+        @Test
+        void testRevokedTokenRejected() {
+            Allure.step("Arrange: issue a token and revoke it");
+            authService.enableStatelessValidation();
+            String token = authService.createJwtToken(manager());
+            String otherToken = authService.createJwtToken(manager());
+            authService.revokeToken(token);
+
+            Allure.step("Act & Assert: revoked token rejected, other session still valid");
+            assertTrue(authService.validateJwtToken(token).isEmpty());
+            assertTrue(authService.validateJwtToken(otherToken).isPresent());
+            verifyNoInteractions(userRepository);
+        }
+
+        @Tag("sad")
+        @DisplayName("Stateless: tokens issued before a role change are rejected")
+        @Severity(SeverityLevel.CRITICAL)
+        @Description("Verifies revokeUserTokens rejects the user's existing tokens, which still carry the old role")
+        @Issue("AUTH-SERVICE-STATELESS-003")
+        @Test
+        void testUserTokensRevokedOnRoleChange() {
+            authService.enableStatelessValidation();
+            String token = authService.createJwtToken(manager());
+
+            authService.revokeUserTokens(77);
+
+            assertTrue(authService.validateManagerAuthentication(token).isEmpty());
+            verifyNoInteractions(userRepository);
+        }
+
+        @Tag("edge")
+        @DisplayName("Stateless: token without a token ID falls back to the repository")
+        @Severity(SeverityLevel.NORMAL)
+        @Description("Verifies tokens issued before jti was added are not trusted on their claims alone")
+        @Issue("AUTH-SERVICE-STATELESS-004")
+        @Test
+        void testLegacyTokenFallsBackToRepository() {
+            Allure.step("Arrange: a token signed with the service secret but without jti");
+            authService.enableStatelessValidation();
+            String legacyToken = JWT.create()
+                    .withIssuer(JWT_ISSUER_FOR_TEST)
+                    .withSubject("77")
+                    .withClaim("username", "manager1")
+                    .withClaim("role", "Manager")
+                    .sign(Algorithm.HMAC256(JWT_SECRET_FOR_TEST));
+            when(userRepository.findById(77)).thenReturn(Optional.of(manager()));
+
+            Allure.step("Act: validate it");
+            Optional<User> result = authService.validateJwtToken(legacyToken);
+
+            Allure.step("Assert: user loaded from the repository");
+            assertTrue(result.isPresent());
+            verify(userRepository).findById(77);
+        }
+    }
+
+    @Nested
+    @Feature("Password Hashing")
+    @Story("As a manager, I want my password stored as a hash so that a leaked database does not reveal it")
+    @Tag("login")
+    class PasswordHashingTests {
+
+        private final MetricsRegistry hashingMetrics = new MetricsRegistry();
+        private final PasswordHasher passwordHasher =
+                new PasswordHasher(1_000, 1, 4, Duration.ofSeconds(5), hashingMetrics);
+
+        @AfterEach
+        void closeHasher() {
+            passwordHasher.close();
+        }
+
+        private User user(String storedPassword) {
+            User user = new User();
+            user.setId(5);
+            user.setUsername("manager1");
+            user.setPassword(storedPassword);
+            user.setRole("Manager");
+            return user;
+        }
+
+        @Tag("happy")
+        @DisplayName("Hashing: a legacy plaintext password is replaced by its hash on successful login")
+        @Severity(SeverityLevel.CRITICAL)
+        @Description("Verifies the login succeeds and the stored plaintext is swapped for a hash only if it is unchanged")
+        @Issue("AUTH-SERVICE-HASH-001")
+        @Test
+        void testLegacyPasswordUpgraded() {
+            Allure.step("Arrange: enable hashing, plaintext row in the repository");
+            authService.enablePasswordHashing(passwordHasher);
+            when(userRepository.findByUsername("manager1")).thenReturn(Optional.of(user("password123")));
+
+            Allure.step("Act: authenticate");
+            Optional<User> result = authService.authenticateUser("manager1", "password123");
+
+            Allure.step("Assert: authenticated, and the new hash verifies the password");
+            assertTrue(result.isPresent());
+            ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+            verify(userRepository).updatePassword(eq(5), eq("password123"), hash.capture());
+            assertTrue(PasswordHasher.isHash(hash.getValue()));
+            assertTrue(passwordHasher.verify("password123", hash.getValue()));
+        }
+
+        @Tag("happy")
+        @DisplayName("Hashing: a hashed password is verified without being rewritten")
+        @Severity(SeverityLevel.CRITICAL)
+        @Description("Verifies logins against hashed rows succeed for the right password, fail otherwise, and never write")
+        @Issue("AUTH-SERVICE-HASH-002")
+        @Test
+        void testHashedPasswordVerified() {
+            authService.enablePasswordHashing(passwordHasher);
+            String stored = passwordHasher.hash("password123");
+            when(userRepository.findByUsername("manager1")).thenReturn(Optional.of(user(stored)));
+
+            assertTrue(authService.authenticateUser("manager1", "password123").isPresent());
+            assertTrue(authService.authenticateUser("manager1", "wrong").isEmpty());
+            verify(userRepository, never()).updatePassword(anyInt(), anyString(), anyString());
+        }
+
+        @Tag("sad")
+        @DisplayName("Hashing: a wrong password does not upgrade the stored plaintext")
+        @Severity(SeverityLevel.NORMAL)
+        @Description("Verifies failed logins against plaintext rows leave the row untouched")
+        @Issue("AUTH-SERVICE-HASH-003")
+        @Test
+        void testWrongPasswordNotUpgraded() {
+            authService.enablePasswordHashing(passwordHasher);
+            when(userRepository.findByUsername("manager1")).thenReturn(Optional.of(user("password123")));
+
+            assertTrue(authService.authenticateUser("manager1", "password124").isEmpty());
+            verify(userRepository, never()).updatePassword(anyInt(), anyString(), anyString());
+            assertTrue(hashingMetrics.scrape().contains("password_hash_seconds_count{operation=\"verify\"} 1\n"),
+                    "A plaintext row must cost a hash verification like an unknown user does");
+        }
+
+        @Tag("edge")
+        @DisplayName("Hashing: a failed upgrade write does not fail the login")
+        @Severity(SeverityLevel.NORMAL)
+        @Description("Verifies the upgrade is best effort and is retried on a later login")
+        @Issue("AUTH-SERVICE-HASH-004")
+        @Test
+        void testFailedUpgradeStillAuthenticates() {
+            authService.enablePasswordHashing(passwordHasher);
+            when(userRepository.findByUsername("manager1")).thenReturn(Optional.of(user("password123")));
+            when(userRepository.updatePassword(eq(5), eq("password123"), anyString()))
+                    .thenThrow(new RuntimeException("Error updating password for user: 5"));
+
+            assertTrue(authService.authenticateUser("manager1", "password123").isPresent());
+        }
+
+        @Tag("edge")
+        @DisplayName("Hashing: an unknown username still costs a hash verification")
+        @Severity(SeverityLevel.CRITICAL)
+        @Description("Verifies a login for a missing user is verified against a dummy hash so its timing does not reveal that the user does not exist")
+        @Issue("AUTH-SERVICE-HASH-005")
+        @Test
+        void testUnknownUserVerifiesDummyHash() {
+            authService.enablePasswordHashing(passwordHasher);
+            when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+            assertTrue(authService.authenticateUser("ghost", "password123").isEmpty());
+            assertTrue(hashingMetrics.scrape().contains("password_hash_seconds_count{operation=\"verify\"} 1\n"));
+            verify(userRepository, never()).updatePassword(anyInt(), anyString(), anyString());
+        }
+    }
 }
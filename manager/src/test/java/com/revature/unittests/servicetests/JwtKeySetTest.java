@@ -0,0 +1,208 @@
+package com.revature.unittests.servicetests;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.revature.service.JwtKeySet;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Authentication Service")
+@Story("As an operator, I want to rotate JWT signing keys without logging every manager out")
+class JwtKeySetTest {
+
+    private static final String ISSUER = "expense-manager";
+    private static final String SECRET_1 = "first-secret-that-is-at-least-32-bytes-long";
+    private static final String SECRET_2 = "second-secret-that-is-at-least-32-bytes-long";
+
+    private static String sign(JwtKeySet keySet, String subject) {
+        JwtKeySet.SigningKey signingKey = keySet.getSigningKey();
+        return JWT.create()
+                .withKeyId(signingKey.getKeyId())
+                .withIssuer(ISSUER)
+                .withSubject(subject)
+                .sign(signingKey.getAlgorithm());
+    }
+
+    private static KeyPair ecKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    private static String pem(String type, Key key) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(key.getEncoded())
+                + "\n-----END " + type + "-----\n";
+    }
+
+    @Test
+    @DisplayName("Rotation: tokens signed with the previous key stay valid after switching keys")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies activating a new key signs new tokens with its kid while old tokens still verify")
+    void testRotationKeepsOldTokensValid() {
+        Allure.step("Arrange: a token signed with the first key");
+        JwtKeySet keySet = new JwtKeySet(ISSUER);
+        keySet.addHmacKey("k1", SECRET_1);
+        keySet.activate("k1");
+        String oldToken = sign(keySet, "7");
+
+        Allure.step("Act: add and activate the second key");
+        keySet.addHmacKey("k2", SECRET_2);
+        keySet.activate("k2");
+        String newToken = sign(keySet, "8");
+
+        Allure.step("Assert: both tokens verify, each with its own key");
+        assertEquals("k1", keySet.verify(oldToken).getKeyId());
+        assertEquals("7", keySet.verify(oldToken).getSubject());
+        assertEquals("k2", keySet.verify(newToken).getKeyId());
+    }
+
+    @Test
+    @DisplayName("Rotation: tokens of a removed key are rejected, and the signing key cannot be removed")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies retiring a key ends its tokens while the active key is protected")
+    void testRemovedKeyRejected() {
+        JwtKeySet keySet = new JwtKeySet(ISSUER);
+        keySet.addHmacKey("k1", SECRET_1);
+        keySet.activate("k1");
+        String oldToken = sign(keySet, "7");
+        keySet.addHmacKey("k2", SECRET_2);
+        keySet.activate("k2");
+
+        assertFalse(keySet.removeKey("k2"));
+        assertTrue(keySet.removeKey("k1"));
+
+        assertThrows(JWTVerificationException.class, () -> keySet.verify(oldToken));
+    }
+
+    @Test
+    @DisplayName("Sad path: a token naming the wrong key fails verification")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a token is only checked against the key its kid names, not every key in the set")
+    void testTokenCheckedAgainstNamedKeyOnly() {
+        JwtKeySet keySet = new JwtKeySet(ISSUER);
+        keySet.addHmacKey("k1", SECRET_1);
+        keySet.addHmacKey("k2", SECRET_2);
+        String forged = JWT.create()
+                .withKeyId("k1")
+                .withIssuer(ISSUER)
+                .sign(Algorithm.HMAC256(SECRET_2));
+
+        assertThrows(JWTVerificationException.class, () -> keySet.verify(forged));
+        assertThrows(JWTVerificationException.class, () -> keySet.verify(JWT.create()
+                .withKeyId("unknown").withIssuer(ISSUER).sign(Algorithm.HMAC256(SECRET_1))));
+    }
+
+    @Test
+    @DisplayName("Legacy: tokens without a kid are verified with the legacy key")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies tokens issued before key IDs existed keep working while the legacy key is in the set")
+    void testTokenWithoutKeyIdUsesLegacyKey() {
+        JwtKeySet keySet = new JwtKeySet(ISSUER);
+        keySet.addHmacKey(JwtKeySet.LEGACY_KEY_ID, SECRET_1);
+        String token = JWT.create().withIssuer(ISSUER).withSubject("7").sign(Algorithm.HMAC256(SECRET_1));
+
+        assertEquals("7", keySet.verify(token).getSubject());
+        keySet.removeKey(JwtKeySet.LEGACY_KEY_ID);
+        assertThrows(JWTVerificationException.class, () -> keySet.verify(token));
+    }
+
+    @Test
+    @DisplayName("ES256: a public key alone verifies tokens, and is published as a JWK")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies another service can check tokens with only the public key, which the JWKS exposes")
+    void testAsymmetricVerifyOnly() throws Exception {
+        Allure.step("Arrange: an issuer with the key pair, a verifier with the public key only");
+        KeyPair keyPair = ecKeyPair();
+        JwtKeySet issuer = new JwtKeySet(ISSUER);
+        issuer.addKeyPair("ec1", keyPair.getPublic(), keyPair.getPrivate());
+        issuer.addHmacKey("hmac", SECRET_1);
+        issuer.activate("ec1");
+        JwtKeySet verifier = new JwtKeySet(ISSUER);
+        verifier.addKeyPair("ec1", keyPair.getPublic(), null);
+
+        Allure.step("Act: sign a token and read the published keys");
+        String token = sign(issuer, "7");
+        List<Map<String, Object>> jwks = issuer.getPublicJwks();
+
+        Allure.step("Assert: verified by the public key, HMAC key not published");
+        assertEquals("7", verifier.verify(token).getSubject());
+        assertThrows(IllegalArgumentException.class, () -> verifier.activate("ec1"));
+        assertEquals(1, jwks.size());
+        assertEquals("ec1", jwks.get(0).get("kid"));
+        assertEquals("ES256", jwks.get(0).get("alg"));
+        assertEquals("P-256", jwks.get(0).get("crv"));
+    }
+
+    @Test
+    @DisplayName("loadDirectory: keys and the active key are read from files, and removed files drop their keys")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the key directory drives rotation: add a key, switch the active file, delete the old key")
+    void testLoadDirectory(@TempDir Path directory) throws Exception {
+        Allure.step("Arrange: a directory with an RSA key pair and an HMAC secret, RSA active");
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair rsa = generator.generateKeyPair();
+        Files.writeString(directory.resolve("rsa1.pub.pem"), pem("PUBLIC KEY", rsa.getPublic()));
+        Files.writeString(directory.resolve("rsa1.pem"), pem("PRIVATE KEY", rsa.getPrivate()));
+        Files.writeString(directory.resolve("hs1.secret"), SECRET_1 + "\n");
+        Files.writeString(directory.resolve(JwtKeySet.ACTIVE_KEY_FILE), "rsa1\n");
+        JwtKeySet keySet = new JwtKeySet(ISSUER);
+
+        Allure.step("Act: load, sign, then switch to the HMAC key and remove the RSA files");
+        int loaded = keySet.loadDirectory(directory);
+        String rsaToken = sign(keySet, "7");
+        Files.writeString(directory.resolve(JwtKeySet.ACTIVE_KEY_FILE), "hs1");
+        keySet.loadDirectory(directory);
+        String hmacToken = sign(keySet, "8");
+        Files.delete(directory.resolve("rsa1.pub.pem"));
+        Files.delete(directory.resolve("rsa1.pem"));
+        keySet.loadDirectory(directory);
+
+        Allure.step("Assert: keys loaded, signing key followed the active file, RSA key gone");
+        assertEquals(2, loaded);
+        assertEquals("rsa1", JWT.decode(rsaToken).getKeyId());
+        assertEquals("RS256", JWT.decode(rsaToken).getAlgorithm());
+        assertEquals("hs1", keySet.getSigningKey().getKeyId());
+        assertEquals("8", keySet.verify(hmacToken).getSubject());
+        assertFalse(keySet.containsKey("rsa1"));
+        assertThrows(JWTVerificationException.class, () -> keySet.verify(rsaToken));
+    }
+
+    @Test
+    @DisplayName("loadDirectory: an invalid directory leaves the current keys in place")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a short secret or an active key without a private key is rejected before any key changes")
+    void testInvalidDirectoryKeepsKeys(@TempDir Path directory) throws Exception {
+        JwtKeySet keySet = new JwtKeySet(ISSUER);
+        keySet.addHmacKey("k1", SECRET_1);
+        keySet.activate("k1");
+        KeyPair ec = ecKeyPair();
+        Files.writeString(directory.resolve("ec1.pub.pem"), pem("PUBLIC KEY", ec.getPublic()));
+        Files.writeString(directory.resolve(JwtKeySet.ACTIVE_KEY_FILE), "ec1");
+
+        assertThrows(java.security.GeneralSecurityException.class, () -> keySet.loadDirectory(directory));
+        Files.delete(directory.resolve(JwtKeySet.ACTIVE_KEY_FILE));
+        Files.writeString(directory.resolve("short.secret"), "too-short");
+        assertThrows(java.security.GeneralSecurityException.class, () -> keySet.loadDirectory(directory));
+
+        assertEquals("k1", keySet.getSigningKey().getKeyId());
+        assertFalse(keySet.containsKey("ec1"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.revature.unittests.servicetests;
+
+import com.auth0.jwt.JWT;
+import com.revature.service.JwtKeySet;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the per-request cost of verifying a token signed with each supported algorithm,
+ * through the same key set path the authentication middleware uses.
+ * Results are attached to the Allure report. Skipped by the default build; run with {@code mvn -Pbenchmark test}.
+ */
+@Epic("Expense Management System")
+@Feature("Authentication Service")
+@Story("As an operator, I want to know what each JWT algorithm costs per request before choosing one")
+@Tag("benchmark")
+class JwtVerificationBenchmarkTest {
+
+    private static final String ISSUER = "expense-manager";
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    @Test
+    @DisplayName("Benchmark: HS256, RS256 and ES256 verification cost per token")
+    @Severity(SeverityLevel.MINOR)
+    @Description("Measures the mean time to verify one token with each algorithm and attaches the results")
+    void testVerificationCostPerAlgorithm() throws Exception {
+        Allure.step("Arrange: one key of each algorithm and a token signed with each");
+        JwtKeySet keySet = new JwtKeySet(ISSUER);
+        keySet.addHmacKey("hs256", "benchmark-secret-that-is-at-least-32-bytes");
+        KeyPairGenerator rsaGenerator = KeyPairGenerator.getInstance("RSA");
+        rsaGenerator.initialize(2048);
+        KeyPair rsa = rsaGenerator.generateKeyPair();
+        keySet.addKeyPair("rs256", rsa.getPublic(), rsa.getPrivate());
+        KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair ec = ecGenerator.generateKeyPair();
+        keySet.addKeyPair("es256", ec.getPublic(), ec.getPrivate());
+
+        Allure.step("Act: verify each token repeatedly after a warm-up");
+        Map<String, Double> microsPerToken = new LinkedHashMap<>();
+        for (String keyId : new String[] {"hs256", "rs256", "es256"}) {
+            keySet.activate(keyId);
+            String token = JWT.create()
+                    .withKeyId(keyId)
+                    .withIssuer(ISSUER)
+                    .withSubject("1")
+                    .withClaim("username", "manager1")
+                    .withClaim("role", "Manager")
+                    .withExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+                    .sign(keySet.getSigningKey().getAlgorithm());
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                keySet.verify(token);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                assertNotNull(keySet.verify(token));
+            }
+            microsPerToken.put(keyId, (System.nanoTime() - start) / 1_000.0 / MEASURED_ITERATIONS);
+        }
+
+        Allure.step("Assert: every algorithm measured");
+        StringBuilder report = new StringBuilder();
+        microsPerToken.forEach((keyId, micros) ->
+                report.append(String.format("%s: %.1f us per verification%n", keyId, micros)));
+        Allure.addAttachment("JWT verification cost", report.toString());
+        assertEquals(3, microsPerToken.size());
+        microsPerToken.values().forEach(micros -> assertTrue(micros > 0));
+    }
+}
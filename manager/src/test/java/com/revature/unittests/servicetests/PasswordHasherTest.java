@@ -0,0 +1,99 @@
+package com.revature.unittests.servicetests;
+
+import com.revature.monitoring.MetricsRegistry;
+import com.revature.service.PasswordHasher;
+import com.revature.service.PasswordHashingOverloadedException;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Authentication Service")
+@Story("As a manager, I want my password stored as a hash so that a leaked database does not reveal it")
+class PasswordHasherTest {
+
+    private static final int TEST_ITERATIONS = 1_000;
+
+    private PasswordHasher newHasher(Duration queueTimeout) {
+        return new PasswordHasher(TEST_ITERATIONS, 1, 4, queueTimeout, new MetricsRegistry());
+    }
+
+    @Test
+    @DisplayName("hash/verify: a hash verifies its password only")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the stored format, salting and verification of PBKDF2 hashes")
+    void testHashAndVerify() {
+        Allure.step("Arrange: a hasher");
+        try (PasswordHasher hasher = newHasher(Duration.ofSeconds(5))) {
+
+            Allure.step("Act: hash the same password twice");
+            String first = hasher.hash("password123");
+            String second = hasher.hash("password123");
+
+            Allure.step("Assert: salted hashes in the stored format that verify the password only");
+            assertTrue(first.startsWith(PasswordHasher.PREFIX + TEST_ITERATIONS + "$"));
+            assertNotEquals(first, second);
+            assertTrue(hasher.verify("password123", first));
+            assertTrue(hasher.verify("password123", second));
+            assertFalse(hasher.verify("password124", first));
+            assertFalse(hasher.verify(null, first));
+        }
+    }
+
+    @Test
+    @DisplayName("verify: legacy plaintext values are compared directly, corrupt hashes never match")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies rows that have not been upgraded yet still authenticate, and malformed hashes fail closed")
+    void testLegacyAndCorruptValues() {
+        try (PasswordHasher hasher = newHasher(Duration.ofSeconds(5))) {
+            assertTrue(hasher.verify("password123", "password123"));
+            assertFalse(hasher.verify("password123", "password124"));
+            assertFalse(hasher.verify("password123", PasswordHasher.PREFIX + "not-a-hash"));
+            assertFalse(hasher.verify("password123", PasswordHasher.PREFIX + "1000$!!!$!!!"));
+        }
+    }
+
+    @Test
+    @DisplayName("isRehashOf: only a plaintext value replaced by its own hash counts as unchanged")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the check the user directory uses to avoid revoking tokens on a password upgrade")
+    void testIsRehashOf() {
+        try (PasswordHasher hasher = newHasher(Duration.ofSeconds(5))) {
+            String hash = hasher.hash("password123");
+
+            assertTrue(hasher.isRehashOf("password123", hash));
+            assertFalse(hasher.isRehashOf("other", hash));
+            assertFalse(hasher.isRehashOf(hash, hasher.hash("password123")));
+            assertFalse(hasher.isRehashOf("password123", "password123"));
+        }
+    }
+
+    @Test
+    @DisplayName("Overload: a task that waited past the queue timeout is dropped")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies saturated hashing fails fast with PasswordHashingOverloadedException instead of hashing late")
+    void testQueueTimeout() {
+        try (PasswordHasher hasher = newHasher(Duration.ofNanos(-1))) {
+            assertThrows(PasswordHashingOverloadedException.class, () -> hasher.hash("password123"));
+            assertThrows(PasswordHashingOverloadedException.class,
+                    () -> hasher.verify("password123", PasswordHasher.PREFIX + "1000$AAAA$AAAA"));
+        }
+    }
+
+    @Test
+    @DisplayName("calibrate: the iteration count stays within bounds")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies calibration never goes below the minimum work factor, even for a tiny target latency")
+    void testCalibrateBounds() {
+        try (PasswordHasher hasher = newHasher(Duration.ofSeconds(5))) {
+            int iterations = hasher.calibrate(Duration.ofNanos(1));
+
+            assertEquals(PasswordHasher.MIN_ITERATIONS, iterations);
+            assertEquals(iterations, hasher.getIterations());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.revature.unittests.servicetests;
+
+import com.revature.repository.Approval;
+import com.revature.repository.ApprovalRepository;
+import com.revature.repository.Expense;
+import com.revature.repository.ExpenseFilter;
+import com.revature.repository.ExpenseRepository;
+import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.User;
+import com.revature.service.ExpenseService;
+import com.revature.service.ReportBundleService;
+import com.revature.service.ReportFormat;
+import com.revature.service.ReportRequest;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@Epic("Expense Management System")
+@Feature("Expense Reporting")
+@Story("As a manager, I want to download several reports at once so that month end takes one request")
+public class ReportBundleServiceTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ApprovalRepository approvalRepository;
+
+    private ReportBundleService reportBundleService;
+
+    @BeforeEach
+    void setUp() {
+        ExpenseService expenseService = new ExpenseService(expenseRepository, approvalRepository);
+        reportBundleService = new ReportBundleService(expenseService, null, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportBundleService.shutdown();
+    }
+
+    private static ExpenseWithUser expense(int id, int userId, String date, String status) {
+        return new ExpenseWithUser(
+                new Expense(id, userId, 10.0 * id, "Expense " + id, date),
+                new User(userId, "user" + userId, "pass", "Employee"),
+                new Approval(id, id, status, null, null, null)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubScan(List<ExpenseWithUser> rows) {
+        when(expenseRepository.streamExpensesWithUsers(any(ExpenseFilter.class), any(Consumer.class)))
+                .thenAnswer(invocation -> {
+                    Consumer<ExpenseWithUser> consumer = invocation.getArgument(1);
+                    rows.forEach(consumer);
+                    return (long) rows.size();
+                });
+    }
+
+    private static Map<String, String> unzip(byte[] archive) throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    @DisplayName("Happy path: each distinct report becomes one entry in request order from a single scan")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the archive contains one entry per distinct report, named like the single downloads, and the table is read once")
+    @SuppressWarnings("unchecked")
+    void testWritesEntriesInRequestOrder() throws Exception {
+        Allure.step("Arrange: three expenses across two employees");
+        stubScan(List.of(
+                expense(1, 3, "2025-01-20", "pending"),
+                expense(2, 4, "2025-01-10", "approved"),
+                expense(3, 3, "2024-12-31", "denied")
+        ));
+
+        Allure.step("Act: bundle three reports, one of them twice");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportBundleService.writeBundle(List.of(
+                ReportRequest.parse("pending"),
+                ReportRequest.parse("employee:3"),
+                ReportRequest.parse("pending"),
+                ReportRequest.parse("daterange:2025-01-01:2025-01-31")
+        ), ReportFormat.CSV, out);
+
+        Allure.step("Assert: entries are distinct, ordered and filtered");
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertEquals(List.of(
+                "pending_expenses_report.csv",
+                "employee_3_expenses_report.csv",
+                "expenses_2025-01-01_to_2025-01-31_report.csv"
+        ), new ArrayList<>(entries.keySet()));
+        assertEquals(2, entries.get("pending_expenses_report.csv").split("\n").length);
+        assertTrue(entries.get("employee_3_expenses_report.csv").contains("Expense 3"));
+        assertFalse(entries.get("employee_3_expenses_report.csv").contains("Expense 2"));
+        assertEquals(3, entries.get("expenses_2025-01-01_to_2025-01-31_report.csv").split("\n").length);
+
+        Allure.step("Assert: one scan served every report");
+        verify(expenseRepository, times(1)).streamExpensesWithUsers(any(ExpenseFilter.class), any(Consumer.class));
+    }
+
+    @Test
+    @DisplayName("Sad path: a failing scan fails the whole bundle")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a report generation error is propagated instead of producing a partial archive silently")
+    @SuppressWarnings("unchecked")
+    void testFailingReportPropagates() {
+        Allure.step("Arrange: make the scan fail");
+        when(expenseRepository.streamExpensesWithUsers(any(ExpenseFilter.class), any(Consumer.class)))
+                .thenThrow(new RuntimeException("Database connection failed"));
+
+        Allure.step("Act & Assert: bundle throws with the original message");
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                reportBundleService.writeBundle(List.of(ReportRequest.all()), ReportFormat.CSV, new ByteArrayOutputStream()));
+        assertEquals("Database connection failed", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Edge case: empty and oversized bundles are rejected")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies bundles must contain between one and the maximum number of distinct reports")
+    void testRejectsInvalidBundleSizes() {
+        Allure.step("Act & Assert: empty bundle");
+        assertThrows(IllegalArgumentException.class, () ->
+                reportBundleService.writeBundle(List.of(), ReportFormat.CSV, new ByteArrayOutputStream()));
+
+        Allure.step("Act & Assert: too many reports");
+        List<ReportRequest> requests = new ArrayList<>();
+        for (int id = 1; id <= ReportBundleService.MAX_REPORTS_PER_BUNDLE + 1; id++) {
+            requests.add(ReportRequest.employee(id));
+        }
+        assertThrows(IllegalArgumentException.class, () ->
+                reportBundleService.writeBundle(requests, ReportFormat.CSV, new ByteArrayOutputStream()));
+        verifyNoInteractions(expenseRepository);
+    }
+}
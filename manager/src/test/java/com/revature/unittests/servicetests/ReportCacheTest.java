@@ -0,0 +1,177 @@
+package com.revature.unittests.servicetests;
+
+import com.revature.service.ReportCache;
+import com.revature.service.ReportRequest;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Expense Reporting")
+@Story("As a manager, I want repeated reports to be served from a cache so that they download quickly")
+public class ReportCacheTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    private final AtomicLong dataVersion = new AtomicLong(1);
+    private final AtomicInteger encodeCount = new AtomicInteger();
+
+    private ReportCache.ReportEncoder encoder(String content) {
+        return out -> {
+            encodeCount.incrementAndGet();
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private String read(ReportCache cache, ReportCache.Entry entry) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.transferTo(entry, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Happy path: same report and data version is generated once")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a second request for the same report is served from the cache without re-encoding")
+    void testCacheHit() throws Exception {
+        ReportCache cache = new ReportCache(cacheDirectory, 1024 * 1024, 1024 * 1024, 1024, dataVersion::get);
+
+        Allure.step("Act: request the same report twice");
+        ReportCache.Entry first = cache.getOrCreate(ReportRequest.category("Travel"), "csv", encoder("a,b\n"));
+        ReportCache.Entry second = cache.getOrCreate(ReportRequest.category("Travel"), "csv", encoder("a,b\n"));
+
+        Allure.step("Assert: encoded once, same entry and content");
+        assertEquals(1, encodeCount.get());
+        assertSame(first, second);
+        assertEquals("a,b\n", read(cache, second));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Happy path: data version change invalidates cached reports")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a committed database change causes the report to be regenerated and the old file removed")
+    void testDataVersionInvalidates() throws Exception {
+        ReportCache cache = new ReportCache(cacheDirectory, 1024 * 1024, 1024 * 1024, 1024, dataVersion::get);
+        ReportCache.Entry stale = cache.getOrCreate(ReportRequest.all(), "csv", encoder("old\n"));
+        cache.release(stale);
+
+        Allure.step("Act: bump the data version and request again");
+        dataVersion.incrementAndGet();
+        ReportCache.Entry fresh = cache.getOrCreate(ReportRequest.all(), "csv", encoder("new\n"));
+
+        Allure.step("Assert: regenerated with a new ETag and the stale file deleted");
+        assertEquals(2, encodeCount.get());
+        assertEquals("new\n", read(cache, fresh));
+        assertNotEquals(stale.getEtag(), fresh.getEtag());
+        assertFalse(Files.exists(stale.getPath()));
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    @DisplayName("Edge case: least recently used report is evicted when the disk budget is exceeded")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies size-bounded LRU eviction keeps the recently used report and drops the oldest")
+    void testLruEviction() throws Exception {
+        ReportCache cache = new ReportCache(cacheDirectory, 10, 0, 0, dataVersion::get);
+        ReportCache.Entry pending = cache.getOrCreate(ReportRequest.pending(), "csv", encoder("12345"));
+        ReportCache.Entry all = cache.getOrCreate(ReportRequest.all(), "csv", encoder("12345"));
+        cache.release(all);
+
+        Allure.step("Act: touch pending, then add a third report");
+        cache.getOrCreate(ReportRequest.pending(), "csv", encoder("12345"));
+        cache.getOrCreate(ReportRequest.employee(1), "csv", encoder("12345"));
+
+        Allure.step("Assert: 'all' was evicted, pending survived and is streamed from disk");
+        assertEquals(1, cache.getEvictions());
+        assertFalse(Files.exists(all.getPath()));
+        assertTrue(Files.exists(pending.getPath()));
+        assertEquals("12345", read(cache, pending));
+        assertEquals(10, cache.getDiskBytes());
+        assertEquals(0, cache.getMemoryBytes());
+    }
+
+    @Test
+    @DisplayName("Edge case: startup removes only the cache's own leftover files")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a cache directory shared with other files or subdirectories does not lose them and still starts")
+    void testStartupRemovesOnlyCacheFiles() throws Exception {
+        Allure.step("Arrange: leftovers from a previous run next to unrelated files and a subdirectory");
+        ReportCache previous = new ReportCache(cacheDirectory, 1024 * 1024, 0, 0, dataVersion::get);
+        ReportCache.Entry leftover = previous.getOrCreate(ReportRequest.all(), "csv", encoder("old\n"));
+        Path partial = Files.writeString(cacheDirectory.resolve(leftover.getPath().getFileName() + ".part"), "ol");
+        Path unrelated = Files.writeString(cacheDirectory.resolve("notes.csv"), "keep");
+        Path subdirectory = Files.createDirectory(cacheDirectory.resolve("archive"));
+        Files.writeString(subdirectory.resolve("kept.csv"), "keep");
+
+        Allure.step("Act: start a new cache on the same directory");
+        new ReportCache(cacheDirectory, 1024 * 1024, 0, 0, dataVersion::get);
+
+        Allure.step("Assert: only the cache's files are gone");
+        assertFalse(Files.exists(leftover.getPath()));
+        assertFalse(Files.exists(partial));
+        assertTrue(Files.exists(unrelated));
+        assertTrue(Files.exists(subdirectory.resolve("kept.csv")));
+    }
+
+    @Test
+    @DisplayName("Edge case: an outdated report stays readable until its reader releases it")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies an approval bumping the data version mid-download does not delete the file being sent")
+    void testOutdatedEntryKeptUntilReleased() throws Exception {
+        Allure.step("Arrange: a report on disk, held by a download");
+        ReportCache cache = new ReportCache(cacheDirectory, 1024 * 1024, 0, 0, dataVersion::get);
+        ReportCache.Entry downloading = cache.getOrCreate(ReportRequest.all(), "csv", encoder("old\n"));
+
+        Allure.step("Act: the data version changes and another request regenerates the report");
+        dataVersion.incrementAndGet();
+        ReportCache.Entry fresh = cache.getOrCreate(ReportRequest.all(), "csv", encoder("new\n"));
+
+        Allure.step("Assert: the held file is still readable, and deleted once released");
+        assertEquals("old\n", read(cache, downloading));
+        assertEquals(fresh.getSize(), cache.getDiskBytes());
+        cache.release(downloading);
+        assertFalse(Files.exists(downloading.getPath()));
+        cache.release(fresh);
+        assertTrue(Files.exists(fresh.getPath()));
+    }
+
+    @Test
+    @DisplayName("Edge case: a report regenerated at the same data version gets an ETag for its new content")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies If-Range cannot resume a download into a regenerated file whose bytes differ")
+    void testRegeneratedEntryEtagFollowsContent() throws Exception {
+        Allure.step("Arrange: a cached report");
+        ReportCache cache = new ReportCache(cacheDirectory, 1024 * 1024, 1024 * 1024, 1024, dataVersion::get);
+        ReportCache.Entry original = cache.getOrCreate(ReportRequest.all(), "xlsx", encoder("created 10:00"));
+
+        Allure.step("Act: drop it and regenerate it at the same data version, once with different bytes, once the same");
+        cache.clear();
+        ReportCache.Entry changed = cache.getOrCreate(ReportRequest.all(), "xlsx", encoder("created 10:05"));
+        cache.clear();
+        ReportCache.Entry identical = cache.getOrCreate(ReportRequest.all(), "xlsx", encoder("created 10:00"));
+
+        Allure.step("Assert: the ETag changed with the content, and only with the content");
+        assertEquals(3, encodeCount.get());
+        assertNotEquals(original.getEtag(), changed.getEtag());
+        assertEquals(original.getEtag(), identical.getEtag());
+    }
+}
@@ -0,0 +1,166 @@
+package com.revature.unittests.servicetests;
+
+import com.revature.repository.Approval;
+import com.revature.repository.ApprovalRepository;
+import com.revature.repository.Expense;
+import com.revature.repository.ExpenseFilter;
+import com.revature.repository.ExpenseRepository;
+import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.User;
+import com.revature.service.ExpenseService;
+import com.revature.service.ReportEngine;
+import com.revature.service.ReportFormat;
+import com.revature.service.ReportRequest;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@Epic("Expense Management System")
+@Feature("Expense Reporting")
+@Story("As an operator, I want batches of reports to share one database scan so that month end does not load the database N times")
+public class ReportEngineTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ApprovalRepository approvalRepository;
+
+    private ReportEngine reportEngine;
+
+    @BeforeEach
+    void setUp() {
+        reportEngine = new ReportEngine(new ExpenseService(expenseRepository, approvalRepository));
+    }
+
+    private static ExpenseWithUser expense(int id, int userId, String description, String date, String status) {
+        return new ExpenseWithUser(
+                new Expense(id, userId, 10.0 * id, description, date),
+                new User(userId, "user" + userId, "pass", "Employee"),
+                new Approval(id, id, status, null, null, null)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<ExpenseFilter> stubScan(List<ExpenseWithUser> rows) {
+        ArgumentCaptor<ExpenseFilter> filter = ArgumentCaptor.forClass(ExpenseFilter.class);
+        when(expenseRepository.streamExpensesWithUsers(filter.capture(), any(Consumer.class)))
+                .thenAnswer(invocation -> {
+                    Consumer<ExpenseWithUser> consumer = invocation.getArgument(1);
+                    rows.forEach(consumer);
+                    return (long) rows.size();
+                });
+        return filter;
+    }
+
+    private static long lines(ByteArrayOutputStream out) {
+        return out.toString(StandardCharsets.UTF_8).lines().count();
+    }
+
+    @Test
+    @DisplayName("Happy path: one scan fans out to sinks with the same semantics as the SQL filters")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies each sink only receives the rows its own query would return, including case-insensitive LIKE and string date ranges")
+    void testFansOutSingleScan() throws Exception {
+        Allure.step("Arrange: rows covering every filter");
+        ArgumentCaptor<ExpenseFilter> filter = stubScan(List.of(
+                expense(1, 3, "Team TRAVEL to Denver", "2025-01-20", "pending"),
+                expense(2, 4, "Office supplies", "2025-01-10", "approved"),
+                expense(3, 3, "Travel 100% refundable", "2024-12-31", "denied"),
+                expense(4, 5, "Lunch", "2025-02-01", "pending")
+        ));
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        ByteArrayOutputStream employee = new ByteArrayOutputStream();
+        ByteArrayOutputStream category = new ByteArrayOutputStream();
+        ByteArrayOutputStream dateRange = new ByteArrayOutputStream();
+        List<ReportEngine.ReportSink> sinks = List.of(
+                new ReportEngine.ReportSink(ReportRequest.all(), ReportFormat.CSV, all),
+                new ReportEngine.ReportSink(ReportRequest.pending(), ReportFormat.CSV, pending),
+                new ReportEngine.ReportSink(ReportRequest.employee(3), ReportFormat.CSV, employee),
+                new ReportEngine.ReportSink(ReportRequest.category("travel"), ReportFormat.CSV, category),
+                new ReportEngine.ReportSink(ReportRequest.dateRange("2025-01-01", "2025-01-31"), ReportFormat.CSV, dateRange)
+        );
+
+        Allure.step("Act: run the batch");
+        long scanned = reportEngine.run(sinks);
+
+        Allure.step("Assert: one unfiltered scan, each sink filtered");
+        assertEquals(4, scanned);
+        assertEquals("all expenses", filter.getValue().toString());
+        assertEquals(5, lines(all));
+        assertEquals(3, lines(pending));
+        assertEquals(3, lines(employee));
+        assertEquals(3, lines(category));
+        assertEquals(3, lines(dateRange));
+        assertEquals(2, sinks.get(3).getRowsWritten());
+        assertNull(sinks.get(3).getFailure());
+    }
+
+    @Test
+    @DisplayName("Happy path: a single report keeps its own WHERE clause")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a batch of one report is not widened to a full table scan")
+    void testSingleSinkUsesOwnFilter() throws Exception {
+        Allure.step("Arrange: one employee report");
+        ArgumentCaptor<ExpenseFilter> filter = stubScan(List.of(expense(1, 3, "Lunch", "2025-01-20", "pending")));
+
+        Allure.step("Act: run the batch");
+        reportEngine.run(List.of(new ReportEngine.ReportSink(ReportRequest.employee(3), ReportFormat.CSV,
+                new ByteArrayOutputStream())));
+
+        Allure.step("Assert: the employee filter was pushed down");
+        assertEquals("expenses for user: 3", filter.getValue().toString());
+    }
+
+    @Test
+    @DisplayName("Sad path: a failing sink does not stop the others")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies an encoder failure is isolated to its sink and reported after the scan")
+    void testFailingSinkIsIsolated() {
+        Allure.step("Arrange: one sink whose stream rejects writes");
+        stubScan(List.of(
+                expense(1, 3, "Lunch", "2025-01-20", "pending"),
+                expense(2, 4, "Taxi", "2025-01-10", "approved")
+        ));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Disk full");
+            }
+        };
+        ByteArrayOutputStream healthy = new ByteArrayOutputStream();
+        ReportEngine.ReportSink failing = new ReportEngine.ReportSink(ReportRequest.all(), ReportFormat.CSV, broken);
+        ReportEngine.ReportSink working = new ReportEngine.ReportSink(ReportRequest.pending(), ReportFormat.CSV, healthy);
+
+        Allure.step("Act & Assert: the failure is reported, the healthy sink is complete");
+        IOException exception = assertThrows(IOException.class, () -> reportEngine.run(List.of(failing, working)));
+        assertEquals("Disk full", exception.getMessage());
+        assertSame(exception, failing.getFailure());
+        assertNull(working.getFailure());
+        assertEquals(2, lines(healthy));
+    }
+}
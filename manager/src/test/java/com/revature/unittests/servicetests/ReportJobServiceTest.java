@@ -0,0 +1,161 @@
+package com.revature.unittests.servicetests;
+
+import com.revature.repository.Approval;
+import com.revature.repository.ApprovalRepository;
+import com.revature.repository.Expense;
+import com.revature.repository.ExpenseRepository;
+import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.User;
+import com.revature.service.ExpenseService;
+import com.revature.service.ReportJob;
+import com.revature.service.ReportJobService;
+import com.revature.service.ReportRequest;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@Epic("Expense Management System")
+@Feature("Expense Reporting")
+@Story("As a manager, I want long-running reports to run in the background so that my downloads do not time out")
+public class ReportJobServiceTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ApprovalRepository approvalRepository;
+
+    @TempDir
+    Path spoolDirectory;
+
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void setUp() {
+        ExpenseService expenseService = new ExpenseService(expenseRepository, approvalRepository);
+        reportJobService = new ReportJobService(expenseService, spoolDirectory, 1, 4, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.shutdown();
+    }
+
+    private ReportJob awaitFinished(ReportJob job) throws InterruptedException {
+        for (int i = 0; i < 100 && !job.isFinished(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(job.isFinished(), "Job should finish within 5 seconds");
+        return job;
+    }
+
+    @Test
+    @DisplayName("Happy path: completed job writes CSV artifact to the spool directory")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a queued report job runs in the background and writes the CSV report to disk")
+    void testSubmitJobWritesArtifact() throws Exception {
+        Allure.step("Arrange: repository returns one pending expense");
+        when(expenseRepository.findPendingExpensesWithUsers()).thenReturn(List.of(
+                new ExpenseWithUser(
+                        new Expense(1, 10, 100.0, "Travel", "2025-01-01"),
+                        new User(10, "vu", "pass", "Employee"),
+                        new Approval(1, 1, "pending", null, null, null)
+                )
+        ));
+
+        Allure.step("Act: submit pending report job and wait for completion");
+        ReportJob job = awaitFinished(reportJobService.submit(ReportRequest.pending(), 2));
+
+        Allure.step("Assert: job completed with full progress and CSV artifact");
+        assertEquals(ReportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(100, job.getProgressPercent());
+        assertEquals(1, job.getRowsWritten());
+        List<String> lines = Files.readAllLines(job.getArtifact());
+        assertEquals("Expense ID,Employee,Amount,Description,Date,Status,Reviewer,Comment,Review Date", lines.get(0));
+        assertEquals("1,vu,100.0,Travel,2025-01-01,pending,,,", lines.get(1));
+        assertEquals(Files.size(job.getArtifact()), job.getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Sad path: repository failure marks job as failed")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a job whose query throws is reported as failed and leaves no artifact behind")
+    void testFailedJob() throws Exception {
+        Allure.step("Arrange: repository throws");
+        when(expenseRepository.findAllExpensesWithUsers()).thenThrow(new RuntimeException("Database error"));
+
+        Allure.step("Act: submit report job and wait for it to finish");
+        ReportJob job = awaitFinished(reportJobService.submit(ReportRequest.all(), 2));
+
+        Allure.step("Assert: job failed with the error message and no artifact");
+        assertEquals(ReportJob.Status.FAILED, job.getStatus());
+        assertEquals("Database error", job.getError());
+        assertNull(job.getArtifact());
+        try (var files = Files.list(spoolDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Edge case: expired artifacts are purged")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies finished jobs and their artifacts are removed once the TTL has elapsed")
+    void testExpiredJobsArePurged() throws Exception {
+        Allure.step("Arrange: service with a zero TTL");
+        reportJobService.shutdown();
+        ExpenseService expenseService = new ExpenseService(expenseRepository, approvalRepository);
+        reportJobService = new ReportJobService(expenseService, spoolDirectory, 1, 4, Duration.ZERO);
+        when(expenseRepository.findAllExpensesWithUsers()).thenReturn(List.of());
+
+        Allure.step("Act: run a job and purge");
+        ReportJob job = awaitFinished(reportJobService.submit(ReportRequest.all(), 2));
+        Path artifact = job.getArtifact();
+        reportJobService.purgeExpiredJobs();
+
+        Allure.step("Assert: job and artifact are gone");
+        assertTrue(reportJobService.getJob(job.getId()).isEmpty());
+        assertFalse(Files.exists(artifact));
+    }
+
+    @Test
+    @DisplayName("Edge case: artifacts from a previous run are deleted on startup")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies finished and partial report files orphaned by a restart do not accumulate in the spool directory")
+    void testLeftoverArtifactsDeletedOnStartup() throws Exception {
+        Allure.step("Arrange: a finished artifact, a partial file and an unrelated file in the spool directory");
+        reportJobService.shutdown();
+        Path finished = Files.writeString(spoolDirectory.resolve("old-job.csv"), "id\n");
+        Path partial = Files.writeString(spoolDirectory.resolve("crashed-job.csv.part"), "id\n");
+        Path unrelated = Files.writeString(spoolDirectory.resolve("notes.txt"), "keep");
+
+        Allure.step("Act: start the service");
+        ExpenseService expenseService = new ExpenseService(expenseRepository, approvalRepository);
+        reportJobService = new ReportJobService(expenseService, spoolDirectory, 1, 4, Duration.ofMinutes(5));
+
+        Allure.step("Assert: only the unrelated file is left");
+        assertFalse(Files.exists(finished));
+        assertFalse(Files.exists(partial));
+        assertTrue(Files.exists(unrelated));
+    }
+}
@@ -0,0 +1,158 @@
+package com.revature.unittests.servicetests;
+
+import com.revature.monitoring.MetricsRegistry;
+import com.revature.service.TokenRevocationList;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Authentication Service")
+@Story("As a manager, I want logging out to invalidate my token so that a copied cookie cannot be reused")
+class TokenRevocationListTest {
+
+    private static final Duration LIFETIME = Duration.ofHours(24);
+
+    private final MutableClock clock = new MutableClock();
+
+    private TokenRevocationList newList() {
+        return new TokenRevocationList(LIFETIME, 1_000, clock, new MetricsRegistry());
+    }
+
+    @Test
+    @DisplayName("revokeToken: only the revoked token ID is rejected")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a revoked jti is rejected while other tokens of the same user stay valid")
+    void testRevokeToken() {
+        TokenRevocationList revocations = newList();
+        Instant issuedAt = clock.instant();
+
+        revocations.revokeToken("jti-1", issuedAt.plus(LIFETIME));
+
+        assertTrue(revocations.isRevoked("jti-1", 7, issuedAt));
+        assertFalse(revocations.isRevoked("jti-2", 7, issuedAt));
+    }
+
+    @Test
+    @DisplayName("revokeUser: tokens issued up to the revocation are rejected, later ones are not")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies a user revocation covers earlier tokens and lets the user log in again afterwards")
+    void testRevokeUser() {
+        TokenRevocationList revocations = newList();
+        Instant before = clock.instant().minusSeconds(60);
+
+        revocations.revokeUser(7);
+        clock.advance(Duration.ofSeconds(2));
+        Instant after = clock.instant();
+
+        assertTrue(revocations.isRevoked("jti-1", 7, before));
+        assertFalse(revocations.isRevoked("jti-2", 7, after));
+        assertFalse(revocations.isRevoked("jti-1", 8, before));
+    }
+
+    @Test
+    @DisplayName("purgeExpired: entries are dropped once their tokens have expired")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies the list only keeps entries while the tokens they cover could still be presented")
+    void testPurgeExpired() {
+        Allure.step("Arrange: one token and one user revocation");
+        TokenRevocationList revocations = newList();
+        revocations.revokeToken("jti-1", clock.instant().plus(Duration.ofHours(1)));
+        revocations.revokeUser(7);
+        assertEquals(2, revocations.size());
+
+        Allure.step("Act: purge after the token expired, then after the token lifetime");
+        clock.advance(Duration.ofHours(2));
+        revocations.purgeExpired();
+        int afterTokenExpiry = revocations.size();
+        clock.advance(LIFETIME);
+        revocations.purgeExpired();
+
+        Allure.step("Assert: entries removed in turn");
+        assertEquals(1, afterTokenExpiry);
+        assertEquals(0, revocations.size());
+    }
+
+    @Test
+    @DisplayName("Filter: every revoked token is rejected, no matter how many")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the Bloom filter in front of the list never lets a revoked token through, even past its sized capacity")
+    void testFilterHasNoFalseNegatives() {
+        Allure.step("Arrange: revoke five times the number of tokens the filter is sized for");
+        TokenRevocationList revocations = newList();
+        Instant issuedAt = clock.instant();
+        for (int i = 0; i < 5_000; i++) {
+            revocations.revokeToken("revoked-" + i, issuedAt.plus(LIFETIME));
+        }
+
+        Allure.step("Act: check revoked and unrevoked tokens");
+        int missed = 0;
+        int wronglyRevoked = 0;
+        for (int i = 0; i < 5_000; i++) {
+            if (!revocations.isRevoked("revoked-" + i, 7, issuedAt)) {
+                missed++;
+            }
+            if (revocations.isRevoked("live-" + i, 7, issuedAt)) {
+                wronglyRevoked++;
+            }
+        }
+
+        Allure.step("Assert: filter hits are confirmed against the list");
+        assertEquals(0, missed);
+        assertEquals(0, wronglyRevoked);
+    }
+
+    @Test
+    @DisplayName("purgeExpired: revocations still live are kept when the filter is rebuilt")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies rebuilding the filter after a purge drops expired tokens but keeps the rest revoked")
+    void testPurgeRebuildKeepsLiveRevocations() {
+        Allure.step("Arrange: one short-lived and one long-lived token revocation, plus a user revocation");
+        TokenRevocationList revocations = newList();
+        Instant issuedAt = clock.instant();
+        revocations.revokeToken("short", issuedAt.plus(Duration.ofHours(1)));
+        revocations.revokeToken("long", issuedAt.plus(LIFETIME));
+        revocations.revokeUser(7);
+
+        Allure.step("Act: purge after the short-lived token expired");
+        clock.advance(Duration.ofHours(2));
+        revocations.purgeExpired();
+
+        Allure.step("Assert: the live revocations survive the rebuild");
+        assertEquals(2, revocations.size());
+        assertFalse(revocations.isRevoked("short", 8, issuedAt));
+        assertTrue(revocations.isRevoked("long", 8, issuedAt));
+        assertTrue(revocations.isRevoked(null, 7, issuedAt.minusSeconds(60)));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00.500Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
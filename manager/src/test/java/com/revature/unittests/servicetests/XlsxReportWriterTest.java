@@ -0,0 +1,99 @@
+package com.revature.unittests.servicetests;
+
+import com.revature.repository.Approval;
+import com.revature.repository.Expense;
+import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.User;
+import com.revature.service.XlsxReportWriter;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Expense Management System")
+@Feature("Expense Reporting")
+@Story("As a manager, I want spreadsheet exports so that I can open reports directly in Excel")
+public class XlsxReportWriterTest {
+
+    private static ExpenseWithUser expense(int id, double amount, String date, Integer reviewer) {
+        return new ExpenseWithUser(
+                new Expense(id, 10, amount, "Expense " + id, date),
+                new User(10, "vu", "pass", "Employee"),
+                new Approval(id, id, reviewer == null ? "pending" : "approved", reviewer, null,
+                        reviewer == null ? null : "2025-01-02 10:00:00")
+        );
+    }
+
+    @Test
+    @DisplayName("Happy path: rows beyond the memory window are written with typed cells")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifies the workbook contains a header and every row even when rows are flushed from the in-memory window")
+    void testWritesAllRowsWithTypedCells() throws Exception {
+        Allure.step("Arrange/Act: write five rows with a window of two");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XlsxReportWriter writer = new XlsxReportWriter(out, 2)) {
+            writer.append(expense(1, 12.5, "2025-01-01", 99));
+            for (int id = 2; id <= 4; id++) {
+                writer.append(expense(id, 10.0 * id, "2025-01-0" + id, null));
+            }
+            writer.append(expense(5, 7.25, "not-a-date", null));
+            assertEquals(5, writer.getTotalRows());
+        }
+
+        Allure.step("Assert: workbook reads back with header, numeric, date and blank cells");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Expenses");
+            assertNotNull(sheet);
+            assertEquals(5, sheet.getLastRowNum());
+            assertEquals("Expense ID", sheet.getRow(0).getCell(0).getStringCellValue());
+
+            Row first = sheet.getRow(1);
+            assertEquals(1, first.getCell(0).getNumericCellValue());
+            assertEquals("vu", first.getCell(1).getStringCellValue());
+            assertEquals(12.5, first.getCell(2).getNumericCellValue());
+            assertEquals(LocalDate.parse("2025-01-01"), first.getCell(4).getLocalDateTimeCellValue().toLocalDate());
+            assertEquals(99, first.getCell(6).getNumericCellValue());
+
+            Row second = sheet.getRow(2);
+            assertNull(second.getCell(6));
+
+            Row last = sheet.getRow(5);
+            assertEquals(CellType.STRING, last.getCell(4).getCellType());
+            assertEquals("not-a-date", last.getCell(4).getStringCellValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Edge case: empty report still has a header row")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifies a report without expenses produces a valid workbook with only the header")
+    void testEmptyReport() throws Exception {
+        Allure.step("Arrange/Act: close a writer without rows");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XlsxReportWriter writer = new XlsxReportWriter(out, XlsxReportWriter.DEFAULT_ROW_WINDOW)) {
+            assertEquals(0, writer.getTotalRows());
+        }
+
+        Allure.step("Assert: only the header row exists");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Expenses");
+            assertEquals(0, sheet.getLastRowNum());
+            assertEquals("Review Date", sheet.getRow(0).getCell(8).getStringCellValue());
+        }
+    }
+}